@@ -1,24 +1,40 @@
 package cn.itnxd.springframework.aop;
 
+import cn.itnxd.springframework.aop.framework.adapter.MethodBeforeAdviceInterceptor;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import org.aopalliance.aop.Advice;
 import org.aopalliance.intercept.MethodInterceptor;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * @author derekyi
  * @date 2020/12/6 通知支持类（把代理、拦截、匹配的各项属性包装到一个类中，方便在 Proxy 实现类进行使用）
+ *
+ * 修改：持有有序的 advisor 列表（原来只有一个方法拦截器和一个方法匹配器），一个 bean 可以同时被多个切面增强。
+ * 每个方法匹配的拦截器链只计算一次并缓存，调用方法时只需要遍历数组，不再逐个匹配切点
  */
 public class AdvisedSupport {
 
+	private static final MethodInterceptor[] NO_INTERCEPTORS = new MethodInterceptor[0];
+
 	//是否使用cglib代理
 	private boolean proxyTargetClass = false;
 
 	// 被代理的目标对象
 	private TargetSource targetSource;
 
-	// 方法拦截器 jar 包提供
-	private MethodInterceptor methodInterceptor;
+	// 修改：按顺序执行的 advisor
+	private final List<Advisor> advisors = new CopyOnWriteArrayList<>();
 
-	// 方法匹配器
-	private MethodMatcher methodMatcher;
+	// 增加：方法 -> 拦截器链（目标对象固定，因此只按方法区分），advisor 或者目标对象变化时换成新的缓存
+	private volatile Map<Method, MethodInterceptor[]> methodCache = new ConcurrentHashMap<>(32);
 
 	public boolean isProxyTargetClass() {
 		return proxyTargetClass;
@@ -34,21 +50,84 @@ public class AdvisedSupport {
 
 	public void setTargetSource(TargetSource targetSource) {
 		this.targetSource = targetSource;
+		this.methodCache = new ConcurrentHashMap<>(32);
+	}
+
+	/**
+	 * 增加：在末尾添加 advisor
+	 * @param advisor
+	 */
+	public void addAdvisor(Advisor advisor) {
+		this.advisors.add(advisor);
+		this.methodCache = new ConcurrentHashMap<>(32);
+	}
+
+	public List<Advisor> getAdvisors() {
+		return Collections.unmodifiableList(advisors);
+	}
+
+	/**
+	 * 增加：使用外部提供的拦截器链缓存，目标类以及 advisor 都相同的多个代理（例如同一个原型 bean 的多个实例）可以共享，
+	 * 需要在设置目标对象以及添加 advisor 之后调用，之后再修改则不再使用共享的缓存
+	 * @param methodCache
+	 */
+	public void setMethodCache(Map<Method, MethodInterceptor[]> methodCache) {
+		this.methodCache = methodCache;
 	}
 
-	public MethodInterceptor getMethodInterceptor() {
-		return methodInterceptor;
+	/**
+	 * 增加：获取方法的拦截器链，第一次获取时按顺序匹配所有 advisor 并缓存
+	 * @param method
+	 * @param targetClass
+	 * @return 没有匹配的 advisor 返回空数组
+	 */
+	public MethodInterceptor[] getInterceptors(Method method, Class<?> targetClass) {
+		Map<Method, MethodInterceptor[]> cache = this.methodCache;
+		MethodInterceptor[] interceptors = cache.get(method);
+		if (interceptors == null) {
+			interceptors = computeInterceptors(method, targetClass);
+			cache.put(method, interceptors);
+		}
+		return interceptors;
 	}
 
-	public void setMethodInterceptor(MethodInterceptor methodInterceptor) {
-		this.methodInterceptor = methodInterceptor;
+	private MethodInterceptor[] computeInterceptors(Method method, Class<?> targetClass) {
+		List<MethodInterceptor> interceptors = new ArrayList<>(advisors.size());
+		for (Advisor advisor : advisors) {
+			if (matches(advisor, method, targetClass)) {
+				interceptors.add(toInterceptor(advisor.getAdvice()));
+			}
+		}
+		return interceptors.isEmpty() ? NO_INTERCEPTORS : interceptors.toArray(NO_INTERCEPTORS);
 	}
 
-	public MethodMatcher getMethodMatcher() {
-		return methodMatcher;
+	/**
+	 * 增加：advisor 是否作用于方法，没有切点的 advisor 作用于所有方法
+	 * @param advisor
+	 * @param method
+	 * @param targetClass
+	 * @return
+	 */
+	private static boolean matches(Advisor advisor, Method method, Class<?> targetClass) {
+		if (advisor instanceof PointcutAdvisor) {
+			Pointcut pointcut = ((PointcutAdvisor) advisor).getPointcut();
+			return pointcut.getClassFilter().matches(targetClass) && pointcut.getMethodMatcher().matches(method, targetClass);
+		}
+		return true;
 	}
 
-	public void setMethodMatcher(MethodMatcher methodMatcher) {
-		this.methodMatcher = methodMatcher;
+	/**
+	 * 增加：将通知适配为方法拦截器
+	 * @param advice
+	 * @return
+	 */
+	private static MethodInterceptor toInterceptor(Advice advice) {
+		if (advice instanceof MethodInterceptor) {
+			return (MethodInterceptor) advice;
+		}
+		if (advice instanceof MethodBeforeAdvice) {
+			return new MethodBeforeAdviceInterceptor((MethodBeforeAdvice) advice);
+		}
+		throw new BeansException("不支持的通知类型：" + advice.getClass().getName());
 	}
 }
@@ -7,15 +7,24 @@ import org.aspectj.weaver.tools.PointcutExpression;
 import org.aspectj.weaver.tools.PointcutParser;
 import org.aspectj.weaver.tools.PointcutPrimitive;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @Author niuxudong
  * @Date 2023/5/28 17:36
  * @Version 1.0
  * @Description 切点表达式实现类，实现切点，类过滤器，方法匹配器
+ *
+ * 修改：每个类加载器共享一个切点解析器，解析结果按表达式缓存，多个 advisor 使用相同的表达式时只解析一次
+ *      缓存只被使用它的切点强引用（类加载器为弱引用 key），切点都不再使用后随类加载器一起回收
+ *      解析器以及解析结果共享同一个 World，不是线程安全的：解析和匹配都在缓存的锁内进行，匹配结果按类、方法缓存在切点上
+ * 增加：支持 within、@annotation、args，方法只在静态确定匹配时才匹配（例如 args 的参数声明类型必须匹配，不做运行时参数检查）
  */
 public class AspectJExpressionPointcut implements Pointcut, ClassFilter, MethodMatcher {
 
@@ -25,15 +34,51 @@ public class AspectJExpressionPointcut implements Pointcut, ClassFilter, MethodM
     static {
         // "execution(* cn.itnxd.springframework.bean.UserService.*(..))"
         SUPPORTED_PRIMITIVES.add(PointcutPrimitive.EXECUTION); // 默认使用 execution 模式
+        // 增加："within(cn.itnxd.springframework.bean.*)"
+        SUPPORTED_PRIMITIVES.add(PointcutPrimitive.WITHIN);
+        // 增加："@annotation(cn.itnxd.springframework.bean.Audited)"
+        SUPPORTED_PRIMITIVES.add(PointcutPrimitive.AT_ANNOTATION);
+        // 增加："args(java.lang.String)"
+        SUPPORTED_PRIMITIVES.add(PointcutPrimitive.ARGS);
     }
 
+    // 增加：类加载器 -> 解析器以及解析结果，访问时加锁
+    private static final Map<ClassLoader, WeakReference<ExpressionCache>> EXPRESSION_CACHES = new WeakHashMap<>();
+
+    // 增加：解析表达式的缓存，同时作为匹配时的锁
+    private final ExpressionCache expressionCache;
+
     private final PointcutExpression pointcutExpression;
 
+    // 增加：类以及方法的匹配结果
+    private final Map<Class<?>, Boolean> classMatchCache = new ConcurrentHashMap<>();
+
+    private final Map<Method, Boolean> methodMatchCache = new ConcurrentHashMap<>();
+
     public AspectJExpressionPointcut(String expression) {
-        // 获取支持指定execution表达式并使用指定类加载器进行解析的切入点解析器
-        PointcutParser pointcutParser = PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(SUPPORTED_PRIMITIVES, this.getClass().getClassLoader());
-        // 使用切入点解析器解析 expression 得到解析结果 PointcutExpression
-        pointcutExpression = pointcutParser.parsePointcutExpression(expression);
+        this(expression, AspectJExpressionPointcut.class.getClassLoader());
+    }
+
+    /**
+     * 增加：使用指定的类加载器解析表达式中的类型
+     * @param expression
+     * @param classLoader
+     */
+    public AspectJExpressionPointcut(String expression, ClassLoader classLoader) {
+        expressionCache = expressionCache(classLoader);
+        pointcutExpression = expressionCache.getExpression(expression);
+    }
+
+    private static ExpressionCache expressionCache(ClassLoader classLoader) {
+        synchronized (EXPRESSION_CACHES) {
+            WeakReference<ExpressionCache> reference = EXPRESSION_CACHES.get(classLoader);
+            ExpressionCache expressionCache = reference != null ? reference.get() : null;
+            if (expressionCache == null) {
+                expressionCache = new ExpressionCache(classLoader);
+                EXPRESSION_CACHES.put(classLoader, new WeakReference<>(expressionCache));
+            }
+            return expressionCache;
+        }
     }
 
     /**
@@ -43,7 +88,14 @@ public class AspectJExpressionPointcut implements Pointcut, ClassFilter, MethodM
      */
     @Override
     public boolean matches(Class<?> clazz) {
-        return pointcutExpression.couldMatchJoinPointsInType(clazz);
+        Boolean matches = classMatchCache.get(clazz);
+        if (matches == null) {
+            synchronized (expressionCache) {
+                matches = pointcutExpression.couldMatchJoinPointsInType(clazz);
+            }
+            classMatchCache.put(clazz, matches);
+        }
+        return matches;
     }
 
     /**
@@ -54,8 +106,15 @@ public class AspectJExpressionPointcut implements Pointcut, ClassFilter, MethodM
      */
     @Override
     public boolean matches(Method method, Class<?> targetClass) {
-        // 判断切点表达式是否与方法匹配，alwaysMatches 对给定方法的任何调用都匹配（ always, sometimes, or never）
-        return pointcutExpression.matchesMethodExecution(method).alwaysMatches();
+        Boolean matches = methodMatchCache.get(method);
+        if (matches == null) {
+            synchronized (expressionCache) {
+                // 判断切点表达式是否与方法匹配，alwaysMatches 对给定方法的任何调用都匹配（ always, sometimes, or never）
+                matches = pointcutExpression.matchesMethodExecution(method).alwaysMatches();
+            }
+            methodMatchCache.put(method, matches);
+        }
+        return matches;
     }
 
     @Override
@@ -67,4 +126,35 @@ public class AspectJExpressionPointcut implements Pointcut, ClassFilter, MethodM
     public MethodMatcher getMethodMatcher() {
         return this;
     }
+
+    /**
+     * 增加：一个类加载器的解析器以及解析结果
+     */
+    private static final class ExpressionCache {
+
+        private final PointcutParser pointcutParser;
+
+        private final Map<String, PointcutExpression> expressions = new ConcurrentHashMap<>();
+
+        private ExpressionCache(ClassLoader classLoader) {
+            // 获取支持指定表达式并使用指定类加载器进行解析的切入点解析器
+            this.pointcutParser = PointcutParser.getPointcutParserSupportingSpecifiedPrimitivesAndUsingSpecifiedClassLoaderForResolution(SUPPORTED_PRIMITIVES, classLoader);
+        }
+
+        private PointcutExpression getExpression(String expression) {
+            PointcutExpression pointcutExpression = expressions.get(expression);
+            if (pointcutExpression == null) {
+                // 解析器内部的类型解析不是线程安全的，解析时加锁
+                synchronized (this) {
+                    pointcutExpression = expressions.get(expression);
+                    if (pointcutExpression == null) {
+                        // 使用切入点解析器解析 expression 得到解析结果 PointcutExpression
+                        pointcutExpression = pointcutParser.parsePointcutExpression(expression);
+                        expressions.put(expression, pointcutExpression);
+                    }
+                }
+            }
+            return pointcutExpression;
+        }
+    }
 }
@@ -1,20 +1,46 @@
 package cn.itnxd.springframework.aop.framework;
 
 import cn.itnxd.springframework.aop.AdvisedSupport;
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @Author niuxudong
  * @Date 2023/5/28 21:07
  * @Version 1.0
  * @Description Cglib 动态代理实现
+ *
+ * 修改：不需要增强的方法在生成代理类时就路由到直接转发的回调
+ *
+ * 修改：按（目标类、回调过滤器）缓存代理类，之后通过已有代理对象的 Factory#newInstance 直接创建新代理，
+ * 原型 bean 每次创建代理不再创建 Enhancer 去查找或生成代理类
  */
 public class CglibAopProxy implements AopProxy{
 
+    // 增加：目标类 -> 回调过滤器 -> 生成的代理类（接口由目标类决定）
+    // 缓存保存在目标类上（ClassValue），随目标类一起回收；key 只包含方法签名，值只弱引用模板，不会持有 advisor、目标对象或者其他类
+    private static final ClassValue<Map<AdvisedMethodFilter, ProxyClass>> PROXY_CLASSES = new ClassValue<Map<AdvisedMethodFilter, ProxyClass>>() {
+        @Override
+        protected Map<AdvisedMethodFilter, ProxyClass> computeValue(Class<?> actualClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     // 持有通知支持类 AdvisedSupport 方便使用
     private final AdvisedSupport advised;
 
@@ -22,16 +48,148 @@ public class CglibAopProxy implements AopProxy{
         this.advised = advised;
     }
 
+    /**
+     * 修改：生成代理类时通过 CallbackFilter 对每个方法判断一次是否需要增强，
+     * 不需要增强的 public 方法直接转发给目标对象，调用时不再匹配切点、也不创建方法执行器
+     * @return
+     */
     @Override
     public Object getProxy() {
+        Object target = advised.getTargetSource().getTarget();
+        Class<?> actualClass = advised.getTargetSource().getActualClass();
+        Class<?>[] interfaces = advised.getTargetSource().getTargetClass();
+        AdvisedMethodFilter callbackFilter = AdvisedMethodFilter.forTarget(advised, actualClass, target.getClass());
+        // 回调接口（即方法拦截器），下标与 AdvisedMethodFilter 的返回值对应
+        Callback[] callbacks = new Callback[]{new DynamicAdvisedInterceptor(advised), (Dispatcher) () -> target};
+
+        // 增加：代理类已经生成过则通过模板创建，等同于直接 new 代理类并绑定回调
+        ProxyClass proxyClass = PROXY_CLASSES.get(actualClass).computeIfAbsent(callbackFilter, key -> new ProxyClass());
+        Factory template = proxyClass.getTemplate();
+        if (template != null) {
+            return template.newInstance(callbacks);
+        }
+
         Enhancer enhancer = new Enhancer();
         // 设置目标对象类
-        enhancer.setSuperclass(advised.getTargetSource().getActualClass());
+        enhancer.setSuperclass(actualClass);
         // 设置接口
-        enhancer.setInterfaces(advised.getTargetSource().getTargetClass());
-        // 设置回调接口（即方法拦截器）
-        enhancer.setCallback(new DynamicAdvisedInterceptor(advised));
-        return enhancer.create();
+        enhancer.setInterfaces(interfaces);
+        enhancer.setCallbackFilter(callbackFilter);
+        enhancer.setCallbacks(callbacks);
+        Object proxy = enhancer.create();
+        proxyClass.setTemplate((Factory) proxy);
+        return proxy;
+    }
+
+    /**
+     * 增加：生成的代理类，以一个已创建的代理对象作为模板。
+     * 模板持有它自己的目标对象，因此只保存弱引用，被回收后由下一次通过 Enhancer 创建的代理（代理类由 cglib 缓存，不会重新生成）补上
+     */
+    private static final class ProxyClass {
+
+        private volatile WeakReference<Factory> template;
+
+        private Factory getTemplate() {
+            WeakReference<Factory> reference = template;
+            return reference != null ? reference.get() : null;
+        }
+
+        private void setTemplate(Factory template) {
+            this.template = new WeakReference<>(template);
+        }
+    }
+
+    /**
+     * 增加：为代理类的每个方法选择回调
+     *
+     * 作为 cglib 缓存代理类的 key 的一部分，因此只保存按目标类计算好的“不需要增强的方法”签名，
+     * 不持有 advisor、目标类以及目标对象：不同容器中切面相同的代理共用同一个代理类，也不会被 cglib 的缓存长期持有
+     */
+    private static final class AdvisedMethodFilter implements CallbackFilter {
+
+        // 执行拦截器链
+        private static final int AOP_PROXY = 0;
+
+        // 直接转发给目标对象
+        private static final int DISPATCH_TARGET = 1;
+
+        // 类的可以被代理的 public 方法以及它们的签名
+        private static final ClassValue<ProxiableMethod[]> PROXIABLE_METHODS = new ClassValue<ProxiableMethod[]>() {
+            @Override
+            protected ProxiableMethod[] computeValue(Class<?> actualClass) {
+                List<ProxiableMethod> methods = new ArrayList<>();
+                for (Method method : actualClass.getMethods()) {
+                    int modifiers = method.getModifiers();
+                    if (!Modifier.isFinal(modifiers) && !Modifier.isStatic(modifiers)) {
+                        methods.add(new ProxiableMethod(method));
+                    }
+                }
+                return methods.toArray(new ProxiableMethod[0]);
+            }
+        };
+
+        // 不需要增强的 public 方法签名
+        private final Set<String> dispatchedMethods;
+
+        private AdvisedMethodFilter(Set<String> dispatchedMethods) {
+            this.dispatchedMethods = dispatchedMethods;
+        }
+
+        /**
+         * 对代理类的每个 public 方法计算拦截器链（结果缓存在 advised 中），没有拦截器的方法直接转发
+         * @param advised
+         * @param actualClass 代理类的父类
+         * @param targetClass 目标对象的类
+         * @return
+         */
+        private static AdvisedMethodFilter forTarget(AdvisedSupport advised, Class<?> actualClass, Class<?> targetClass) {
+            Set<String> dispatchedMethods = new HashSet<>();
+            for (ProxiableMethod proxiableMethod : PROXIABLE_METHODS.get(actualClass)) {
+                if (advised.getInterceptors(proxiableMethod.method, targetClass).length == 0) {
+                    dispatchedMethods.add(proxiableMethod.signature);
+                }
+            }
+            return new AdvisedMethodFilter(dispatchedMethods);
+        }
+
+        private static String signature(Method method) {
+            StringBuilder sb = new StringBuilder(method.getName()).append('(');
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                sb.append(parameterType.getName()).append(',');
+            }
+            return sb.append(')').toString();
+        }
+
+        @Override
+        public int accept(Method method) {
+            // 非 public 方法（例如 protected 的 finalize）不能从代理类直接调用目标对象，仍交给拦截器（没有匹配时直接调用）
+            if (Modifier.isPublic(method.getModifiers()) && dispatchedMethods.contains(signature(method))) {
+                return DISPATCH_TARGET;
+            }
+            return AOP_PROXY;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || other instanceof AdvisedMethodFilter && dispatchedMethods.equals(((AdvisedMethodFilter) other).dispatchedMethods);
+        }
+
+        @Override
+        public int hashCode() {
+            return dispatchedMethods.hashCode();
+        }
+    }
+
+    private static final class ProxiableMethod {
+
+        private final Method method;
+
+        private final String signature;
+
+        private ProxiableMethod(Method method) {
+            this.method = method;
+            this.signature = AdvisedMethodFilter.signature(method);
+        }
     }
 
     /**
@@ -57,15 +215,15 @@ public class CglibAopProxy implements AopProxy{
          */
         @Override
         public Object intercept(Object o, Method method, Object[] objects, MethodProxy methodProxy) throws Throwable {
-            // 创建 cglib 方法执行器
-            CglibMethodInvocation methodInvocation = new CglibMethodInvocation(advised.getTargetSource().getTarget(), method, objects, methodProxy);
-            // 切点表达式与方法匹配
-            if (advised.getMethodMatcher().matches(method, advised.getTargetSource().getTarget().getClass())) {
-                // 匹配成功则调用 方法拦截器 执行方法，传入方法执行器 CglibMethodInvocation
-                return advised.getMethodInterceptor().invoke(methodInvocation);
+            Object target = advised.getTargetSource().getTarget();
+            // 修改：拿到方法匹配的拦截器链（每个方法只匹配一次）
+            org.aopalliance.intercept.MethodInterceptor[] interceptors = advised.getInterceptors(method, target.getClass());
+            if (interceptors.length == 0) {
+                // 没有匹配的拦截器则直接执行目标方法
+                return methodProxy.invoke(target, objects);
             }
-            // 不匹配则继续执行下一个拦截器
-            return methodInvocation.proceed();
+            // 创建 cglib 方法执行器，依次执行拦截器链
+            return new CglibMethodInvocation(target, method, objects, methodProxy, interceptors).proceed();
         }
     }
 
@@ -77,18 +235,19 @@ public class CglibAopProxy implements AopProxy{
         // 持有一个 cglib 的方法代理
         private final MethodProxy methodProxy;
 
-        public CglibMethodInvocation(Object target, Method method, Object[] arguments, MethodProxy methodProxy) {
-            super(target, method, arguments);
+        public CglibMethodInvocation(Object target, Method method, Object[] arguments, MethodProxy methodProxy,
+                                     org.aopalliance.intercept.MethodInterceptor[] interceptors) {
+            super(target, method, arguments, interceptors);
             this.methodProxy = methodProxy;
         }
 
         /**
-         * 重写了 ReflectiveMethodInvocation 的 proceed 方法
+         * 修改：重写 ReflectiveMethodInvocation 执行目标方法的 invokeJoinpoint 方法
          * @return
          * @throws Throwable
          */
         @Override
-        public Object proceed() throws Throwable {
+        protected Object invokeJoinpoint() throws Throwable {
             // 通过 cglib 提供的方法代理去执行目标方法
             return this.methodProxy.invoke(this.target, this.arguments);
         }
@@ -4,6 +4,7 @@ import cn.itnxd.springframework.aop.AdvisedSupport;
 import org.aopalliance.intercept.MethodInterceptor;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
@@ -28,21 +29,40 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
      */
     @Override
     public Object getProxy() {
+        Class<?>[] interfaces = advised.getTargetSource().getTargetClass();
+        // 增加：创建代理时对每个接口方法匹配一次切点，结果缓存在 advised 中，调用时只需要按方法取出拦截器链
+        Class<?> targetClass = advised.getTargetSource().getTarget().getClass();
+        for (Class<?> proxiedInterface : interfaces) {
+            for (Method method : proxiedInterface.getMethods()) {
+                advised.getInterceptors(method, targetClass);
+            }
+        }
         // 类加载器，目标类的class，InvocationHandler即本类自己this
-        return Proxy.newProxyInstance(getClass().getClassLoader(), advised.getTargetSource().getTargetClass(), this);
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, this);
     }
 
+    /**
+     * 修改：执行方法匹配的拦截器链，没有匹配的拦截器直接执行目标方法
+     * @param proxy
+     * @param method
+     * @param args
+     * @return
+     * @throws Throwable
+     */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        // 判断切点是否支持该方法
-        if (advised.getMethodMatcher().matches(method, advised.getTargetSource().getTarget().getClass())) {
-            // 拿到方法拦截器
-            MethodInterceptor methodInterceptor = advised.getMethodInterceptor();
-            // 调用拦截器进行方法拦截（传入方法执行器）
-            // 方法拦截器的 invoke 逻辑由用户实现（可以在 method.invoke 增加逻辑）
-            return methodInterceptor.invoke(new ReflectiveMethodInvocation(advised.getTargetSource().getTarget(), method, args));
+        Object target = advised.getTargetSource().getTarget();
+        // 拿到方法匹配的拦截器链（每个方法只匹配一次）
+        MethodInterceptor[] interceptors = advised.getInterceptors(method, target.getClass());
+        if (interceptors.length == 0) {
+            // 没有匹配的拦截器则直接执行目标方法，不创建方法执行器
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
         }
-        // 切点不支持则直接执行 invoke
-        return method.invoke(advised.getTargetSource().getTarget(), args);
+        // 调用拦截器链进行方法拦截（传入方法执行器）
+        return new ReflectiveMethodInvocation(target, method, args, interceptors).proceed();
     }
 }
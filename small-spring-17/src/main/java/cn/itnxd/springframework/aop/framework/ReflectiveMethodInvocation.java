@@ -1,8 +1,10 @@
 package cn.itnxd.springframework.aop.framework;
 
+import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
 import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
@@ -10,9 +12,13 @@ import java.lang.reflect.Method;
  * @Date 2023/5/28 20:55
  * @Version 1.0
  * @Description 方法拦截器 MethodInterceptor 的 MethodInvocation 方法调用器（参数保包装作用，方便使用）
+ *
+ * 修改：持有拦截器链，proceed 按下标依次调用下一个拦截器，所有拦截器都调用过后才执行目标方法
  */
 public class ReflectiveMethodInvocation implements MethodInvocation {
 
+    private static final MethodInterceptor[] NO_INTERCEPTORS = new MethodInterceptor[0];
+
     // 目标对象
     protected final Object target;
 
@@ -22,10 +28,21 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
     // 构造方法参数
     protected final Object[] arguments;
 
+    // 增加：拦截器链
+    private final MethodInterceptor[] interceptors;
+
+    // 增加：当前执行到的拦截器下标
+    private int currentInterceptorIndex = -1;
+
     public ReflectiveMethodInvocation(Object target, Method method, Object[] arguments) {
+        this(target, method, arguments, NO_INTERCEPTORS);
+    }
+
+    public ReflectiveMethodInvocation(Object target, Method method, Object[] arguments, MethodInterceptor[] interceptors) {
         this.target = target;
         this.method = method;
         this.arguments = arguments;
+        this.interceptors = interceptors;
     }
 
     @Override
@@ -39,13 +56,29 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
     }
 
     /**
-     * 执行方法
+     * 修改：执行下一个拦截器，没有则执行目标方法
      * @return
      * @throws Throwable
      */
     @Override
     public Object proceed() throws Throwable {
-        return method.invoke(target, arguments);
+        if (currentInterceptorIndex == interceptors.length - 1) {
+            return invokeJoinpoint();
+        }
+        return interceptors[++currentInterceptorIndex].invoke(this);
+    }
+
+    /**
+     * 增加：执行目标方法，目标方法抛出的异常原样抛出
+     * @return
+     * @throws Throwable
+     */
+    protected Object invokeJoinpoint() throws Throwable {
+        try {
+            return method.invoke(target, arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
     }
 
     /**
@@ -3,48 +3,56 @@ package cn.itnxd.springframework.aop.framework.autoproxy;
 import cn.itnxd.springframework.aop.*;
 import cn.itnxd.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
 import cn.itnxd.springframework.aop.framework.ProxyFactory;
-import cn.itnxd.springframework.beans.PropertyValues;
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.BeanFactory;
 import cn.itnxd.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
 import cn.itnxd.springframework.beans.factory.support.DefaultListableBeanFactory;
+import cn.itnxd.springframework.core.metrics.StartupStep;
 import org.aopalliance.aop.Advice;
 import org.aopalliance.intercept.MethodInterceptor;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @Author niuxudong
  * @Date 2023/6/4 16:02
  * @Version 1.0
  * @Description 特殊的 BeanPostProcessor，处理 aop 的切面逻辑
+ *
+ * 修改：postProcessBeforeInstantiation（废弃的实例化前代理）、postProcessBeforeInitialization、postProcessPropertyValues
+ * 都不做处理，不再重写，容器创建 bean 时不会调用它们
+ *
+ * 修改：所有类过滤器匹配的 advisor 都应用到同一个代理上（原来只使用第一个匹配的 advisor）
+ *
+ * 修改：不再为每个 bean 调用 getBeansOfType 获取 advisor 并逐个匹配类过滤器：
+ *      1、advisor 列表缓存起来，advisor 的 beanName（类型索引中的数组）变化时重新获取
+ *      2、按 bean 的类缓存匹配的 advisor（没有匹配的为空数组），原型 bean 以及同一个类的其他 bean 直接使用，
+ *         同一个类的代理还共享每个方法的拦截器链
+ * 修改：earlyProxyReferences 在 bean 初始化完成后移除，不再一直增长
  */
 public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPostProcessor {
 
     private DefaultListableBeanFactory beanFactory;
 
-    // 保存代理对象的引用
-    private final Set<Object> earlyProxyReferences = new HashSet<>();
+    private static final EligibleAdvisors NO_ADVISORS = new EligibleAdvisors(Collections.emptyList());
+
+    // 保存提前暴露了引用的 bean（修改：单例可能被多个线程并发创建；保存 beanName 到原始 bean，初始化完成后移除）
+    private final Map<String, Object> earlyProxyReferences = new ConcurrentHashMap<>();
+
+    // 增加：缓存的 advisor 以及按类匹配的结果
+    private volatile AdvisorCache advisorCache;
 
     @Override
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
         this.beanFactory = (DefaultListableBeanFactory) beanFactory;
     }
 
-    /**
-     * 废弃：这个在实例化前处理的 代理生成，防止返回 代理对象后影响 createBean 流程的后续操作，造成短路
-     * @param beanClass
-     * @param beanName
-     * @return
-     * @throws BeansException
-     */
-    @Override
-    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
-        return null;
-    }
-
     /**
      * 增加：通过 BeanPostProcessor 的后置处理中，修改 bean 实例，替换为代理对象（若有）
      * @param bean
@@ -56,7 +64,8 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
         // 增加：若有 InstantiationAwareBeanPostProcessor 接口的 getEarlyBeanReference 实现，则这里会进入判断返回 原始 bean
         // 但保存到容器一级缓存的是
-        if (earlyProxyReferences.contains(beanName)) {
+        // 修改：移除记录，初始化过程中 bean 被替换成了其他对象则仍然需要代理
+        if (earlyProxyReferences.remove(beanName) == bean) {
             return bean;
         }
         return wrapIfNecessary(bean, beanName);
@@ -69,31 +78,54 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
             return bean;
         }
 
-        // 获取容器所有的 aspectj 表达式通知
-        Collection<AspectJExpressionPointcutAdvisor> advisors = beanFactory.getBeansOfType(AspectJExpressionPointcutAdvisor.class).values();
-        for (AspectJExpressionPointcutAdvisor advisor : advisors) {
-            ClassFilter classFilter = advisor.getPointcut().getClassFilter();
-            // 类过滤器匹配则进行处理
-            if (classFilter.matches(bean.getClass())) {
-                AdvisedSupport advisedSupport = new AdvisedSupport();
-
-                // 注意：改变自动代理融入时机，则这里的 bean 可能是 cglib 生成的实例，在动态代理获取 interface 时会有问题，
-                // 因此在 targetSource 类中做一下判断处理
-                TargetSource targetSource = new TargetSource(bean);
-
-                // 为 advice 支持类填充需要的信息方便使用
-                advisedSupport.setTargetSource(targetSource);
-                advisedSupport.setMethodMatcher(advisor.getPointcut().getMethodMatcher());
-                // advisor 获取的 advice 就是各类通知，例如我们实现的 MethodBeforeAdvice（用户实现这些接口后）
-                advisedSupport.setMethodInterceptor((MethodInterceptor) advisor.getAdvice());
-                // 默认使用 cglib 动态代理
-                advisedSupport.setProxyTargetClass(true);
-
-                // 使用代理工厂进行创建代理对象
-                return new ProxyFactory(advisedSupport).getProxy();
-            }
+        // 修改：类过滤器匹配的 advisor 按类缓存
+        EligibleAdvisors eligibleAdvisors = getEligibleAdvisors(bean.getClass());
+        if (eligibleAdvisors == NO_ADVISORS) {
+            return bean;
+        }
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+
+        // 注意：改变自动代理融入时机，则这里的 bean 可能是 cglib 生成的实例，在动态代理获取 interface 时会有问题，
+        // 因此在 targetSource 类中做一下判断处理
+        TargetSource targetSource = new TargetSource(bean);
+
+        // 为 advice 支持类填充需要的信息方便使用
+        advisedSupport.setTargetSource(targetSource);
+        // advisor 获取的 advice 就是各类通知，例如我们实现的 MethodBeforeAdvice（用户实现这些接口后）
+        for (Advisor advisor : eligibleAdvisors.advisors) {
+            advisedSupport.addAdvisor(advisor);
+        }
+        // 增加：同一个类的代理共享拦截器链
+        advisedSupport.setMethodCache(eligibleAdvisors.methodCache);
+        // 默认使用 cglib 动态代理
+        advisedSupport.setProxyTargetClass(true);
+
+        // 使用代理工厂进行创建代理对象（增加：记录创建代理的步骤）
+        StartupStep step = beanFactory.getApplicationStartup().start("aop.create-proxy").tag("beanName", beanName);
+        try {
+            return new ProxyFactory(advisedSupport).getProxy();
+        } finally {
+            step.end();
         }
-        return bean;
+    }
+
+    /**
+     * 增加：获取类过滤器匹配的 advisor
+     *
+     * 类型索引中 advisor 的 beanName 数组只有在注册（或者覆盖）advisor 的 BeanDefinition 时才会被替换，
+     * 数组没有变化则缓存的 advisor 列表以及按类的匹配结果仍然有效
+     * @param beanClass
+     * @return 没有匹配的 advisor 返回 NO_ADVISORS
+     */
+    private EligibleAdvisors getEligibleAdvisors(Class<?> beanClass) {
+        String[] advisorNames = beanFactory.getBeanNamesForType(AspectJExpressionPointcutAdvisor.class);
+        AdvisorCache cache = advisorCache;
+        if (cache == null || cache.advisorNames != advisorNames) {
+            // 获取容器所有的 aspectj 表达式通知
+            cache = new AdvisorCache(advisorNames, beanFactory.getBeansOfType(AspectJExpressionPointcutAdvisor.class).values());
+            advisorCache = cache;
+        }
+        return cache.getEligibleAdvisors(beanClass);
     }
 
     /**
@@ -107,23 +139,14 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
                 || Advisor.class.isAssignableFrom(beanClass);
     }
 
-    @Override
-    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
-        return bean;
-    }
-
     /**
-     * 职责分离，本类只处理 aop 切面代理对象的生成。
-     * 本方法直接返回不做处理。
-     * @param pvs
-     * @param bean
-     * @param beanName
+     * 增加：基础 bean 不参与自动代理，创建它们时不会调用本处理器
+     * @param beanClass
      * @return
-     * @throws BeansException
      */
     @Override
-    public PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException {
-        return pvs;
+    public boolean supportsBeanType(Class<?> beanClass) {
+        return !isInfrastructureClass(beanClass);
     }
 
     /**
@@ -137,8 +160,66 @@ public class DefaultAdvisorAutoProxyCreator implements InstantiationAwareBeanPos
     @Override
     public Object getEarlyBeanReference(Object bean, String beanName) throws BeansException {
         // 先向代理对象引用集合中添加 beanName
-        earlyProxyReferences.add(beanName);
+        earlyProxyReferences.put(beanName, bean);
         // 再进行代理对象的创建返回
         return wrapIfNecessary(bean, beanName);
     }
+
+    /**
+     * 增加：一组 advisor 以及它们对每个类的匹配结果
+     */
+    private static final class AdvisorCache {
+
+        // 获取 advisor 时类型索引中的 beanName 数组，用于判断缓存是否失效
+        private final String[] advisorNames;
+
+        private final List<AspectJExpressionPointcutAdvisor> advisors;
+
+        private final Map<Class<?>, EligibleAdvisors> eligibleAdvisorsCache = new ConcurrentHashMap<>();
+
+        private AdvisorCache(String[] advisorNames, Collection<AspectJExpressionPointcutAdvisor> advisors) {
+            this.advisorNames = advisorNames;
+            this.advisors = new ArrayList<>(advisors);
+        }
+
+        private EligibleAdvisors getEligibleAdvisors(Class<?> beanClass) {
+            EligibleAdvisors eligibleAdvisors = eligibleAdvisorsCache.get(beanClass);
+            if (eligibleAdvisors == null) {
+                eligibleAdvisors = findEligibleAdvisors(beanClass);
+                eligibleAdvisorsCache.put(beanClass, eligibleAdvisors);
+            }
+            return eligibleAdvisors;
+        }
+
+        /**
+         * 收集所有类过滤器匹配的 advisor（保持注册顺序），一个代理同时应用多个切面
+         * @param beanClass
+         * @return
+         */
+        private EligibleAdvisors findEligibleAdvisors(Class<?> beanClass) {
+            List<Advisor> eligibleAdvisors = new ArrayList<>();
+            for (AspectJExpressionPointcutAdvisor advisor : advisors) {
+                ClassFilter classFilter = advisor.getPointcut().getClassFilter();
+                // 类过滤器匹配则进行处理
+                if (classFilter.matches(beanClass)) {
+                    eligibleAdvisors.add(advisor);
+                }
+            }
+            return eligibleAdvisors.isEmpty() ? NO_ADVISORS : new EligibleAdvisors(eligibleAdvisors);
+        }
+    }
+
+    /**
+     * 增加：一个类匹配的 advisor，以及这个类的代理共享的拦截器链缓存
+     */
+    private static final class EligibleAdvisors {
+
+        private final List<Advisor> advisors;
+
+        private final Map<Method, MethodInterceptor[]> methodCache = new ConcurrentHashMap<>(32);
+
+        private EligibleAdvisors(List<Advisor> advisors) {
+            this.advisors = advisors;
+        }
+    }
 }
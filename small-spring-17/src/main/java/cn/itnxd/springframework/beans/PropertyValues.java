@@ -26,6 +26,14 @@ public class PropertyValues {
         return this.propertyValueList.toArray(new PropertyValue[0]);
     }
 
+    /**
+     * 增加：属性个数
+     * @return
+     */
+    public int size() {
+        return this.propertyValueList.size();
+    }
+
     /**
      * 根据属性名获取属性映射pv
      * @param propertyName
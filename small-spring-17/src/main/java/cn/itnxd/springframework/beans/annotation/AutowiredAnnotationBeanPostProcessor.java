@@ -1,17 +1,22 @@
 package cn.itnxd.springframework.beans.annotation;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.core.util.TypeUtil;
+import cn.itnxd.springframework.beans.ObjectFactory;
 import cn.itnxd.springframework.beans.PropertyValues;
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.BeanFactory;
 import cn.itnxd.springframework.beans.factory.BeanFactoryAware;
 import cn.itnxd.springframework.beans.factory.ConfigurableListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
 import cn.itnxd.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
-import cn.itnxd.springframework.core.convert.ConversionService;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.LazyLoader;
 
-import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @Author niuxudong
@@ -19,11 +24,18 @@ import java.lang.reflect.Field;
  * @Version 1.0
  * @Description 继承自 InstantiationAwareBeanPostProcessor 特殊的 BeanPostProcessor（之前用它来处理 aop 生成的代理对象）
  *  这里用它来处理 两个注解的解析。在包扫描器 ClassPathBeanDefinitionScanner 中手动注入容器。
+ *
+ *  增加：@Lazy 注入点以及全局延迟注入，注入延迟解析的代理，被注入的 bean 以及它的依赖不会在启动时创建
+ *  增加：注入点按类缓存（InjectionMetadata），没有注入点的类不参与本处理器
+ *  增加：ObjectProvider<T> 类型的注入点注入 provider，使用时才获取 bean
  */
 public class AutowiredAnnotationBeanPostProcessor  implements InstantiationAwareBeanPostProcessor, BeanFactoryAware {
 
     private ConfigurableListableBeanFactory beanFactory;
 
+    // 增加：类 -> 注入点
+    private final Map<Class<?>, InjectionMetadata> injectionMetadataCache = new ConcurrentHashMap<>(256);
+
     @Override
     public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
         this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
@@ -32,6 +44,8 @@ public class AutowiredAnnotationBeanPostProcessor  implements InstantiationAware
     /**
      * 实现 InstantiationAwareBeanPostProcessor 特殊的 BeanPostProcessor 新增的接口
      * 增加对属性 @Value 或 @Autowired 注解的解析设置处理
+     *
+     * 修改：注入点按类缓存（InjectionMetadata），包括父类的字段，每个实例只按缓存的注入点设置字段
      * @param pvs
      * @param bean
      * @param beanName
@@ -40,54 +54,160 @@ public class AutowiredAnnotationBeanPostProcessor  implements InstantiationAware
      */
     @Override
     public PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException {
+        InjectionMetadata metadata = findInjectionMetadata(bean.getClass());
         // 1、处理 @Value 注解
-        Class<?> clazz = bean.getClass();
+        for (InjectionMetadata.ValueElement element : metadata.getValueElements()) {
+            element.inject(bean, beanFactory);
+        }
+        // 2、处理 @Autowired 以及配合使用的 @Qualifier
+        for (InjectionMetadata.AutowiredElement element : metadata.getAutowiredElements()) {
+            Class<?> fieldType = element.getType();
+            String dependentBeanName = element.getDependentBeanName();
+            Object dependentBean;
+            if (element.getProvidedType() != null) {
+                // 增加：注入 ObjectProvider，使用时才解析
+                dependentBean = dependentBeanName != null
+                        ? beanFactory.getBeanProvider(dependentBeanName, element.getProvidedType())
+                        : beanFactory.getBeanProvider(element.getProvidedType());
+            } else if (isLazyInjectionPoint(element)) {
+                // 增加：注入延迟解析的代理
+                dependentBean = buildLazyResolutionProxy(fieldType, () -> getDependentBean(fieldType, dependentBeanName));
+            } else {
+                dependentBean = getDependentBean(fieldType, dependentBeanName);
+            }
+            element.inject(bean, dependentBean);
+        }
+        return pvs;
+    }
+
+    /**
+     * 增加：没有注入点的类不需要本处理器
+     * @param beanClass
+     * @return
+     */
+    @Override
+    public boolean supportsBeanType(Class<?> beanClass) {
+        return !findInjectionMetadata(beanClass).isEmpty();
+    }
+
+    /**
+     * 增加：获取类的注入点，第一次获取时解析并缓存
+     * @param clazz
+     * @return
+     */
+    private InjectionMetadata findInjectionMetadata(Class<?> clazz) {
         // 处理 cglib 的真实 class
         clazz = isCglibClass(clazz) ? clazz.getSuperclass() : clazz;
+        return injectionMetadataCache.computeIfAbsent(clazz, InjectionMetadata::build);
+    }
 
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            Value valueAnnotation = field.getAnnotation(Value.class);
-            if (valueAnnotation != null) {
-                Object value = valueAnnotation.value();
-                // 使用容器中字符串解析器 解析注解的 value 属性返回解析结果
-                value = beanFactory.resolveEmbeddedValue((String) value);
-
-                // 增加：类型转换能力
-                Class<?> sourceType = value.getClass();
-                Class<?> targetType = (Class<?>) TypeUtil.getType(field);
-                ConversionService conversionService = beanFactory.getConversionService();
-                if (conversionService != null) {
-                    if (conversionService.canConvert(sourceType, targetType)) {
-                        value = conversionService.convert(value, targetType);
-                    }
-                }
+    private Object getDependentBean(Class<?> fieldType, String dependentBeanName) {
+        return dependentBeanName != null
+                // 指定 beanName 和 class
+                ? beanFactory.getBean(dependentBeanName, fieldType)
+                // 没有 Qualifier 注解直接按照类型获取
+                : beanFactory.getBean(fieldType);
+    }
 
-                // 为 bean 设置解析后的属性值（配置文件中获取占位符属性对应值）
-                BeanUtil.setFieldValue(bean, field.getName(), value);
+    /**
+     * 增加：判断注入点是否延迟注入
+     *      1、有 @Lazy 注解则按注解（类型无法代理时报错）
+     *      2、开启了全局延迟注入，并且被注入的是懒加载、还没有创建的单例，类型可以代理
+     *
+     * @param element
+     * @return
+     */
+    private boolean isLazyInjectionPoint(InjectionMetadata.AutowiredElement element) {
+        Lazy lazy = element.getLazy();
+        if (lazy != null) {
+            if (lazy.value() && !isProxyable(element.getType())) {
+                throw new BeansException("@Lazy 注入点【" + element.getField() + "】的类型不能被代理（final 类或者没有无参构造器）");
             }
+            return lazy.value();
         }
-        // 2、处理 @Autowired 以及配合使用的 @Qualifier
-        for (Field field : fields) {
-            Autowired autowiredAnnotation = field.getAnnotation(Autowired.class);
-            if (autowiredAnnotation != null) {
-                Class<?> fieldType = field.getType();
-                String dependentBeanName = null;
-                Qualifier qualifierAnnotation = field.getAnnotation(Qualifier.class);
-                Object dependentBean = null;
-                if (qualifierAnnotation != null) {
-                    // 获取 Qualifier 注解指定的 beanName
-                    dependentBeanName = qualifierAnnotation.value();
-                    // 指定 beanName 和 class
-                    dependentBean = beanFactory.getBean(dependentBeanName, fieldType);
-                } else {
-                    // 没有 Qualifier 注解直接按照类型获取
-                    dependentBean = beanFactory.getBean(fieldType);
+        if (!beanFactory.isLazyInjection() || !isProxyable(element.getType())) {
+            return false;
+        }
+        String dependentBeanName = element.getDependentBeanName();
+        String[] beanNames = dependentBeanName != null ? new String[]{dependentBeanName} : beanFactory.getBeanNamesForType(element.getType());
+        // 找不到或者有多个时按原来的方式获取，由 getBean 报错
+        if (beanNames.length != 1) {
+            return false;
+        }
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanNames[0]);
+        return beanDefinition.isSingleton() && beanDefinition.isLazyInit() && beanFactory.getSingleton(beanNames[0]) == null;
+    }
+
+    /**
+     * 接口使用 jdk 代理；类使用 cglib 子类，需要非 final 并且有无参构造器（生成代理时会调用一次）
+     * @param type
+     * @return
+     */
+    private boolean isProxyable(Class<?> type) {
+        if (type.isInterface()) {
+            return true;
+        }
+        if (Modifier.isFinal(type.getModifiers()) || type.isPrimitive() || type.isArray()) {
+            return false;
+        }
+        try {
+            type.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 增加：生成延迟解析的代理，第一次调用方法时才通过 objectFactory 获取真正的 bean，之后直接调用
+     * @param type
+     * @param objectFactory
+     * @return
+     */
+    private Object buildLazyResolutionProxy(Class<?> type, ObjectFactory<Object> objectFactory) {
+        if (type.isInterface()) {
+            LazyTarget lazyTarget = new LazyTarget(objectFactory);
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                try {
+                    return method.invoke(lazyTarget.get(), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+        }
+        // cglib 的 LazyLoader 只会调用一次 loadObject，并且由生成的代码保证线程安全
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(type);
+        enhancer.setCallback((LazyLoader) objectFactory::getObject);
+        return enhancer.create();
+    }
+
+    /**
+     * 延迟解析的目标 bean，只解析一次
+     */
+    private static final class LazyTarget {
+
+        private final ObjectFactory<Object> objectFactory;
+
+        private volatile Object target;
+
+        private LazyTarget(ObjectFactory<Object> objectFactory) {
+            this.objectFactory = objectFactory;
+        }
+
+        private Object get() {
+            Object result = target;
+            if (result == null) {
+                synchronized (this) {
+                    result = target;
+                    if (result == null) {
+                        result = objectFactory.getObject();
+                        target = result;
+                    }
                 }
-                BeanUtil.setFieldValue(bean, field.getName(), dependentBean);
             }
+            return result;
         }
-        return pvs;
     }
 
     /**
@@ -104,25 +224,5 @@ public class AutowiredAnnotationBeanPostProcessor  implements InstantiationAware
         return false;
     }
 
-    @Override
-    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
-        return bean;
-    }
-
-    @Override
-    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
-        return bean;
-    }
-
-    /**
-     * 职责单一：本类只处理两个注解的解析，不处理 DefaultAdvisorAutoProxyCreator 已经实现的 aop 切面逻辑
-     * @param beanClass
-     * @param beanName
-     * @return
-     * @throws BeansException
-     */
-    @Override
-    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
-        return null;
-    }
+    // 修改：职责单一，本类只处理两个注解的解析，初始化前后处理、实例化前处理都使用默认实现，容器不会调用
 }
@@ -0,0 +1,241 @@
+package cn.itnxd.springframework.beans.annotation;
+
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.ConfigurableListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.support.ValueConversions;
+import cn.itnxd.springframework.core.convert.ConversionService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:40
+ * @Version 1.0
+ * @Description 一个类的注解注入点：@Value 和 @Autowired 字段，每个类只解析一次
+ *
+ * 原来每注入一个实例都要 getDeclaredFields、逐个字段查找注解、解析占位符、查找转换器，并且只处理当前类声明的字段。
+ * 这里保存了：
+ *      1、整个继承链（父类在前）上的注入点，以及字段的 setter（MethodHandle）
+ *      2、@Value：解析占位符、选好类型转换，结果不可变时直接保存转换结果
+ *      3、@Autowired：字段类型、@Qualifier 指定的 beanName、@Lazy 注解，ObjectProvider<T> 字段的 T
+ *
+ * @Value 在第一次注入时解析（占位符解析器由 BeanFactoryPostProcessor 在创建 bean 之前注册），类型转换服务变化时重新解析
+ */
+final class InjectionMetadata {
+
+    static final InjectionMetadata EMPTY = new InjectionMetadata(new ValueElement[0], new AutowiredElement[0]);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final ValueElement[] valueElements;
+
+    private final AutowiredElement[] autowiredElements;
+
+    private InjectionMetadata(ValueElement[] valueElements, AutowiredElement[] autowiredElements) {
+        this.valueElements = valueElements;
+        this.autowiredElements = autowiredElements;
+    }
+
+    /**
+     * 解析类的注入点
+     * @param clazz
+     * @return 没有注入点返回 EMPTY
+     */
+    static InjectionMetadata build(Class<?> clazz) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.add(0, current);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<ValueElement> valueElements = new ArrayList<>();
+        List<AutowiredElement> autowiredElements = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Value valueAnnotation = field.getAnnotation(Value.class);
+                Autowired autowiredAnnotation = field.getAnnotation(Autowired.class);
+                if (valueAnnotation == null && autowiredAnnotation == null) {
+                    continue;
+                }
+                MethodHandle setter = setter(lookup, field);
+                if (valueAnnotation != null) {
+                    valueElements.add(new ValueElement(field, setter, valueAnnotation.value()));
+                }
+                if (autowiredAnnotation != null) {
+                    Qualifier qualifierAnnotation = field.getAnnotation(Qualifier.class);
+                    autowiredElements.add(new AutowiredElement(field, setter,
+                            qualifierAnnotation != null ? qualifierAnnotation.value() : null, field.getAnnotation(Lazy.class)));
+                }
+            }
+        }
+        if (valueElements.isEmpty() && autowiredElements.isEmpty()) {
+            return EMPTY;
+        }
+        return new InjectionMetadata(valueElements.toArray(new ValueElement[0]), autowiredElements.toArray(new AutowiredElement[0]));
+    }
+
+    private static MethodHandle setter(MethodHandles.Lookup lookup, Field field) {
+        try {
+            field.setAccessible(true);
+            return lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new BeansException("注入点【" + field + "】无法访问", e);
+        }
+    }
+
+    boolean isEmpty() {
+        return valueElements.length == 0 && autowiredElements.length == 0;
+    }
+
+    ValueElement[] getValueElements() {
+        return valueElements;
+    }
+
+    AutowiredElement[] getAutowiredElements() {
+        return autowiredElements;
+    }
+
+    /**
+     * 为 bean 设置字段
+     * @param bean
+     * @param field
+     * @param setter
+     * @param value
+     */
+    private static void inject(Object bean, Field field, MethodHandle setter, Object value) {
+        try {
+            setter.invokeExact(bean, value);
+        } catch (Throwable e) {
+            throw new BeansException("为注入点【" + field + "】设置值失败", e);
+        }
+    }
+
+    /**
+     * @Value 注入点
+     */
+    static final class ValueElement {
+
+        private final Field field;
+
+        private final MethodHandle setter;
+
+        private final String expression;
+
+        // 解析结果，类型转换服务变化时重新解析
+        private volatile ResolvedValue resolved;
+
+        private ValueElement(Field field, MethodHandle setter, String expression) {
+            this.field = field;
+            this.setter = setter;
+            this.expression = expression;
+        }
+
+        void inject(Object bean, ConfigurableListableBeanFactory beanFactory) {
+            ConversionService conversionService = beanFactory.getConversionService();
+            ResolvedValue resolvedValue = resolved;
+            if (resolvedValue == null || resolvedValue.conversionService != conversionService) {
+                resolvedValue = resolve(beanFactory.resolveEmbeddedValue(expression), conversionService);
+                resolved = resolvedValue;
+            }
+            InjectionMetadata.inject(bean, field, setter, resolvedValue.get());
+        }
+
+        /**
+         * 与原来的规则一致：容器的类型转换服务优先，否则与 BeanUtil.setFieldValue 一样使用 hutool 转换
+         * @param value
+         * @param conversionService
+         * @return
+         */
+        private ResolvedValue resolve(String value, ConversionService conversionService) {
+            Function<Object, Object> converter = ValueConversions.converter(String.class, field.getType(), conversionService);
+            if (converter != null) {
+                Object converted = converter.apply(value);
+                // 转换结果不可变时所有实例共享同一个结果，否则每个实例单独转换
+                if (ValueConversions.isImmutable(converted)) {
+                    return new ResolvedValue(conversionService, converted, null);
+                }
+            }
+            return new ResolvedValue(conversionService, value, converter);
+        }
+    }
+
+    private static final class ResolvedValue {
+
+        private final ConversionService conversionService;
+
+        private final Object value;
+
+        // 不为空则每次注入前转换
+        private final Function<Object, Object> converter;
+
+        private ResolvedValue(ConversionService conversionService, Object value, Function<Object, Object> converter) {
+            this.conversionService = conversionService;
+            this.value = value;
+            this.converter = converter;
+        }
+
+        private Object get() {
+            return converter != null ? converter.apply(value) : value;
+        }
+    }
+
+    /**
+     * @Autowired 注入点
+     */
+    static final class AutowiredElement {
+
+        private final Field field;
+
+        private final MethodHandle setter;
+
+        // @Qualifier 指定的 beanName，没有则按类型获取
+        private final String dependentBeanName;
+
+        private final Lazy lazy;
+
+        // 增加：字段是 ObjectProvider<T> 时为 T，否则为 null
+        private final Class<?> providedType;
+
+        private AutowiredElement(Field field, MethodHandle setter, String dependentBeanName, Lazy lazy) {
+            this.field = field;
+            this.setter = setter;
+            this.dependentBeanName = dependentBeanName;
+            this.lazy = lazy;
+            this.providedType = field.getType() == ObjectProvider.class ? ValueConversions.providedType(field.getGenericType()) : null;
+        }
+
+        void inject(Object bean, Object dependentBean) {
+            InjectionMetadata.inject(bean, field, setter, dependentBean);
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        Class<?> getType() {
+            return field.getType();
+        }
+
+        String getDependentBeanName() {
+            return dependentBeanName;
+        }
+
+        Lazy getLazy() {
+            return lazy;
+        }
+
+        Class<?> getProvidedType() {
+            return providedType;
+        }
+    }
+}
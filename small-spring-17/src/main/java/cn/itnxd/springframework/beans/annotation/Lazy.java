@@ -0,0 +1,19 @@
+package cn.itnxd.springframework.beans.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 19:30
+ * @Version 1.0
+ * @Description 结合 @Autowired 使用，注入延迟解析的代理，第一次调用代理的方法时才获取（创建）真正的 bean
+ *
+ * value 为 false 表示该注入点不使用代理（即使容器开启了全局延迟注入）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+@Documented
+public @interface Lazy {
+
+    boolean value() default true;
+}
@@ -44,6 +44,33 @@ public interface BeanFactory {
      */
     <T> T getBean(Class<T> requiredType) throws BeansException;
 
+    /**
+     * 增加：从对象池借用作用域为 pooled 的 bean，使用完成后通过 handle 归还
+     * @param beanName
+     * @param requiredType
+     * @return
+     * @param <T>
+     * @throws BeansException
+     */
+    <T> PooledBeanHandle<T> borrowBean(String beanName, Class<T> requiredType) throws BeansException;
+
+    /**
+     * 增加：获取绑定到 beanName 的 ObjectProvider，反复获取时不再按名称查找
+     * @param beanName
+     * @param requiredType
+     * @return
+     * @param <T>
+     */
+    <T> ObjectProvider<T> getBeanProvider(String beanName, Class<T> requiredType);
+
+    /**
+     * 增加：获取按类型匹配的 ObjectProvider，获取时才解析 bean
+     * @param requiredType
+     * @return
+     * @param <T>
+     */
+    <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType);
+
     /**
      * 判断容器是否有 bean
      * @param beanName
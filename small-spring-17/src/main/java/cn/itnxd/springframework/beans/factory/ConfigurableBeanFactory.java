@@ -1,8 +1,10 @@
 package cn.itnxd.springframework.beans.factory;
 
 import cn.itnxd.springframework.beans.factory.config.BeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.config.Scope;
 import cn.itnxd.springframework.beans.factory.config.SingletonBeanRegistry;
 import cn.itnxd.springframework.core.convert.ConversionService;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
 import cn.itnxd.springframework.utils.StringValueResolver;
 
 /**
@@ -54,4 +56,42 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
      * @return
      */
     ConversionService getConversionService();
+
+    /**
+     * 增加：注册自定义作用域，同名则覆盖（默认已经注册了 thread 作用域）
+     * @param scopeName
+     * @param scope
+     */
+    void registerScope(String scopeName, Scope scope);
+
+    /**
+     * 增加：获取注册的作用域
+     * @param scopeName
+     * @return 没有注册返回 null
+     */
+    Scope getRegisteredScope(String scopeName);
+
+    /**
+     * 增加：设置启动步骤记录器，bean 的创建、BeanDefinition 的加载等步骤都会记录到其中
+     * @param applicationStartup
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    /**
+     * 增加：获取启动步骤记录器，默认不做记录
+     * @return
+     */
+    ApplicationStartup getApplicationStartup();
+
+    /**
+     * 增加：设置加载 bean 类的类加载器，BeanDefinition 只保存类名时在创建 bean 前使用它加载
+     * @param beanClassLoader 为空则使用默认类加载器
+     */
+    void setBeanClassLoader(ClassLoader beanClassLoader);
+
+    /**
+     * 增加：获取加载 bean 类的类加载器，默认为创建容器时线程的上下文类加载器
+     * @return
+     */
+    ClassLoader getBeanClassLoader();
 }
@@ -26,4 +26,10 @@ public interface ConfigurableListableBeanFactory extends ListableBeanFactory, Au
      * @throws BeansException
      */
     void preInstantiateSingletons() throws BeansException;
+
+    /**
+     * 增加：是否开启全局延迟注入，开启后注入懒加载且还没有创建的单例时注入延迟解析的代理
+     * @return
+     */
+    boolean isLazyInjection();
 }
@@ -22,6 +22,24 @@ public interface ListableBeanFactory extends BeanFactory{
      */
     <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException;
 
+    /**
+     * 增加：根据类型获取所有匹配的 beanName（包括子类），不会创建 bean
+     *
+     * @param type
+     * @return
+     */
+    String[] getBeanNamesForType(Class<?> type);
+
+    /**
+     * 增加：判断 bean 的类型是否是 type 或者是 type 的子类，不会创建 bean，bean 类还没有加载时也不会加载
+     *
+     * @param beanName
+     * @param type
+     * @return
+     * @throws BeansException beanName 没有定义
+     */
+    boolean isTypeMatch(String beanName, Class<?> type) throws BeansException;
+
     /**
      * 返回容器中注册过的所有BeanDefinition信息
      *
@@ -0,0 +1,52 @@
+package cn.itnxd.springframework.beans.factory;
+
+import cn.itnxd.springframework.beans.ObjectFactory;
+import cn.itnxd.springframework.beans.exception.BeansException;
+
+import java.util.stream.Stream;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 01:20
+ * @Version 1.0
+ * @Description 预先解析好的 bean 获取入口，适合反复获取同一个 bean 的场景（例如每个请求获取一次）
+ *
+ * 通过 BeanFactory#getBeanProvider 获取，也可以直接 @Autowired 注入 ObjectProvider<T> 类型的字段或者构造器参数。
+ * 单例在创建完成后缓存在 provider 中，原型直接按 BeanDefinition 创建，不再按名称查找；容器中的 bean 变化后自动重新解析
+ *
+ *      @Autowired
+ *      private ObjectProvider<RequestContext> requestContext;
+ *
+ *      requestContext.getObject().handle(request);
+ */
+public interface ObjectProvider<T> extends ObjectFactory<T> {
+
+    /**
+     * 获取 bean，没有或者有多个时抛出异常
+     * @return
+     * @throws BeansException
+     */
+    @Override
+    T getObject() throws BeansException;
+
+    /**
+     * 获取 bean，没有则返回 null，有多个时抛出异常
+     * @return
+     * @throws BeansException
+     */
+    T getIfAvailable() throws BeansException;
+
+    /**
+     * 获取 bean，没有或者有多个时返回 null
+     * @return
+     * @throws BeansException
+     */
+    T getIfUnique() throws BeansException;
+
+    /**
+     * 按注册顺序获取所有匹配的 bean
+     * @return
+     * @throws BeansException
+     */
+    Stream<T> stream() throws BeansException;
+}
@@ -0,0 +1,26 @@
+package cn.itnxd.springframework.beans.factory;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 17:10
+ * @Version 1.0
+ * @Description 作用域为 pooled 的 bean 可以实现本接口，参与对象池的校验和归还处理
+ *
+ * 被逐出或校验失败的 bean 会按普通的销毁流程（DisposableBean / destroy-method）销毁
+ */
+public interface PoolableBean {
+
+    /**
+     * 归还到对象池时调用（配置了 validateOnBorrow 则借出时也会调用），返回 false 则销毁该 bean
+     * @return
+     */
+    default boolean validate() {
+        return true;
+    }
+
+    /**
+     * 校验通过、放回对象池之前调用，用于重置 bean 的状态
+     */
+    default void passivate() {
+    }
+}
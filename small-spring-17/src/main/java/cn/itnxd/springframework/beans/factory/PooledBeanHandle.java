@@ -0,0 +1,31 @@
+package cn.itnxd.springframework.beans.factory;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 17:10
+ * @Version 1.0
+ * @Description 从对象池借出的 bean，使用完成后 close 归还到对象池，推荐配合 try-with-resources 使用
+ *
+ *      try (PooledBeanHandle<Parser> handle = beanFactory.borrowBean("parser", Parser.class)) {
+ *          handle.getBean().parse(text);
+ *      }
+ */
+public interface PooledBeanHandle<T> extends AutoCloseable {
+
+    /**
+     * 获取借出的 bean，归还之后不能再使用
+     * @return
+     */
+    T getBean();
+
+    /**
+     * 归还到对象池，重复调用只会归还一次
+     */
+    @Override
+    void close();
+
+    /**
+     * 不再归还，直接销毁该 bean（例如使用过程中出现异常，bean 的状态已经不可用）
+     */
+    void invalidate();
+}
@@ -1,26 +1,41 @@
 package cn.itnxd.springframework.beans.factory.config;
 
+import cn.hutool.core.util.ClassUtil;
 import cn.itnxd.springframework.beans.PropertyValues;
+import cn.itnxd.springframework.beans.exception.BeansException;
+
 
 /**
  * @Author niuxudong
  * @Date 2023/4/9 19:24
  * @Version 1.0
  * @Description BeanDefinition 定义
+ *
+ * 增加：可以只保存类名，第一次需要 Class 时才加载并缓存，懒加载和从未使用的 bean 在启动时不会加载类
  */
 public class BeanDefinition {
 
-    private Class beanClass;
+    // 修改：Class 或者还没有加载的类名（String）
+    private volatile Object beanClass;
 
     // 增加bean类型
     public static final String SCOPE_SINGLETON = "singleton";
     public static final String SCOPE_PROTOTYPE = "prototype";
+    // 增加：对象池作用域，通过 borrowBean 借用、用完归还
+    public static final String SCOPE_POOLED = "pooled";
 
     // 默认单例
     private String scope = SCOPE_SINGLETON;
 
     private boolean singleton = true;
     private boolean prototype = false;
+    private boolean pooled = false;
+
+    // 增加：对象池配置，作用域为 pooled 时使用
+    private BeanPoolConfig poolConfig;
+
+    // 增加：自定义作用域的 bean 是否通过作用域代理注入（代理本身是单例，每次调用方法时从作用域中获取真正的 bean）
+    private boolean scopedProxy = false;
 
     // 增加：懒加载，默认不开启
     private boolean lazyInit = false;
@@ -45,6 +60,15 @@ public class BeanDefinition {
         this.propertyValues = new PropertyValues();
     }
 
+    /**
+     * 增加：只保存类名，不加载类
+     * @param beanClassName
+     */
+    public BeanDefinition(String beanClassName){
+        this.beanClass = beanClassName;
+        this.propertyValues = new PropertyValues();
+    }
+
     /**
      * BeanDefinition 构造函数增加 PV属性值集合
      *
@@ -58,14 +82,69 @@ public class BeanDefinition {
         this.propertyValues = propertyValues == null ? new PropertyValues() : propertyValues;
     }
 
-    public Class getBeanClass() {
-        return beanClass;
+    /**
+     * 修改：只保存了类名时使用默认类加载器加载
+     * 修改：默认类加载器加载的结果不缓存，容器之后仍然通过 resolveBeanClass 使用自己的 beanClassLoader 加载
+     * @return
+     * @throws BeansException 类不存在
+     */
+    public Class getBeanClass() throws BeansException {
+        Object beanClassObject = this.beanClass;
+        if (beanClassObject instanceof Class) {
+            return (Class) beanClassObject;
+        }
+        return loadClass((String) beanClassObject, ClassUtil.getClassLoader());
     }
 
     public void setBeanClass(Class beanClass) {
         this.beanClass = beanClass;
     }
 
+    /**
+     * 增加：获取类名，不会加载类
+     * @return
+     */
+    public String getBeanClassName() {
+        Object beanClassObject = this.beanClass;
+        return beanClassObject instanceof Class ? ((Class<?>) beanClassObject).getName() : (String) beanClassObject;
+    }
+
+    public void setBeanClassName(String beanClassName) {
+        this.beanClass = beanClassName;
+    }
+
+    /**
+     * 增加：类是否已经加载
+     * @return
+     */
+    public boolean hasBeanClass() {
+        return beanClass instanceof Class;
+    }
+
+    /**
+     * 增加：使用指定的类加载器加载类并缓存（不执行静态初始化，创建实例时才初始化），已经加载过则直接返回
+     * @param classLoader
+     * @return
+     * @throws BeansException 类不存在
+     */
+    public Class<?> resolveBeanClass(ClassLoader classLoader) throws BeansException {
+        Object beanClassObject = this.beanClass;
+        if (beanClassObject instanceof Class) {
+            return (Class<?>) beanClassObject;
+        }
+        Class<?> resolvedClass = loadClass((String) beanClassObject, classLoader);
+        this.beanClass = resolvedClass;
+        return resolvedClass;
+    }
+
+    private static Class<?> loadClass(String className, ClassLoader classLoader) throws BeansException {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new BeansException("【" + className + "】不存在", e);
+        }
+    }
+
     public PropertyValues getPropertyValues() {
         return propertyValues;
     }
@@ -99,10 +178,50 @@ public class BeanDefinition {
         return prototype;
     }
 
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * 增加：是否是 singleton、prototype、pooled 之外的自定义作用域
+     * @return
+     */
+    public boolean isCustomScope() {
+        return !singleton && !prototype && !pooled;
+    }
+
+    public boolean isScopedProxy() {
+        return scopedProxy;
+    }
+
+    public void setScopedProxy(boolean scopedProxy) {
+        this.scopedProxy = scopedProxy;
+    }
+
     public void setScope(String scope) {
         this.scope = scope;
         this.singleton = SCOPE_SINGLETON.equals(scope);
         this.prototype = SCOPE_PROTOTYPE.equals(scope);
+        this.pooled = SCOPE_POOLED.equals(scope);
+    }
+
+    /**
+     * 获取对象池配置，没有配置则使用默认配置
+     * @return
+     */
+    public BeanPoolConfig getPoolConfig() {
+        if (poolConfig == null) {
+            poolConfig = new BeanPoolConfig();
+        }
+        return poolConfig;
+    }
+
+    public void setPoolConfig(BeanPoolConfig poolConfig) {
+        this.poolConfig = poolConfig;
     }
 
     public boolean isLazyInit() {
@@ -0,0 +1,76 @@
+package cn.itnxd.springframework.beans.factory.config;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 17:10
+ * @Version 1.0
+ * @Description 作用域为 pooled 的 bean 的对象池配置
+ */
+public class BeanPoolConfig {
+
+    // 最少空闲数量，对象池创建以及逐出空闲 bean 之后会补足
+    private int minIdle = 0;
+
+    // 最多空闲数量，归还时超出则直接销毁
+    private int maxIdle = 8;
+
+    // 最多同时存在的数量（借出的 + 空闲的）
+    private int maxTotal = 8;
+
+    // 达到 maxTotal 时借用的最长等待时间，小于 0 表示一直等待
+    private long maxWaitMillis = -1;
+
+    // 空闲超过该时间的 bean 会被逐出（仍会保留 minIdle 个），小于等于 0 表示不逐出
+    private long idleTimeoutMillis = -1;
+
+    // 借出时是否校验（归还时总是校验）
+    private boolean validateOnBorrow = false;
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public void setMaxIdle(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public boolean isValidateOnBorrow() {
+        return validateOnBorrow;
+    }
+
+    public void setValidateOnBorrow(boolean validateOnBorrow) {
+        this.validateOnBorrow = validateOnBorrow;
+    }
+}
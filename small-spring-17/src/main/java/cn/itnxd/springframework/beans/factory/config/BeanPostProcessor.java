@@ -7,6 +7,9 @@ import cn.itnxd.springframework.beans.exception.BeansException;
  * @Date 2023/4/17 22:47
  * @Version 1.0
  * @Description 在 Bean 实例化之后，提供修改Bean实例的机制（定义接口，没有具体实现类，由使用框架的人来实现）
+ *
+ * 修改：两个处理方法提供默认实现（直接返回 bean），没有重写的方法容器不会调用
+ * 增加：supportsBeanType 声明只处理哪些类型的 bean，容器为每个 bean 类缓存只包含相关处理器的处理链
  */
 public interface BeanPostProcessor {
 
@@ -18,7 +21,9 @@ public interface BeanPostProcessor {
      * @return 返回处理完成的bean
      * @throws BeansException
      */
-    Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException;
+    default Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
 
     /**
      * 见名知意，即在 Bean 实例化完成之后执行初始化方法之后（属性填充，非空Bean）进行修改Bean实例的机制
@@ -28,5 +33,18 @@ public interface BeanPostProcessor {
      * @return 返回处理完成的bean
      * @throws BeansException
      */
-    Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException;
+    default Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    /**
+     * 增加：是否处理该类型的 bean，返回 false 则创建该类型的 bean 时不会调用本处理器的任何方法。
+     * 结果按 bean 类缓存，只能根据类型判断
+     *
+     * @param beanClass BeanDefinition 中的类（通过 applyBeanPostProcessors 方法直接处理时为 bean 实例的类）
+     * @return 默认处理所有 bean
+     */
+    default boolean supportsBeanType(Class<?> beanClass) {
+        return true;
+    }
 }
@@ -9,6 +9,8 @@ import cn.itnxd.springframework.beans.factory.BeanFactoryAware;
  * @Date 2023/6/4 15:59
  * @Version 1.0
  * @Description 添加 BeanPostProcessor 来将自动代理融入 bean 生命周期
+ *
+ * 修改：方法都提供默认实现，没有重写的方法容器不会调用
  */
 public interface InstantiationAwareBeanPostProcessor extends BeanPostProcessor, BeanFactoryAware {
 
@@ -22,7 +24,9 @@ public interface InstantiationAwareBeanPostProcessor extends BeanPostProcessor,
      * @return
      * @throws BeansException
      */
-    Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException;
+    default Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        return null;
+    }
 
     /**
      * 增加对属性 @Value 或 @Autowired 注解的解析设置处理
@@ -35,7 +39,9 @@ public interface InstantiationAwareBeanPostProcessor extends BeanPostProcessor,
      * @return
      * @throws BeansException
      */
-    PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException;
+    default PropertyValues postProcessPropertyValues(PropertyValues pvs, Object bean, String beanName) throws BeansException {
+        return pvs;
+    }
 
     /**
      * 若被代理，则提前暴露代理引用（默认实现，具体由子类实现 DefaultAdvisorAutoProxyCreator）
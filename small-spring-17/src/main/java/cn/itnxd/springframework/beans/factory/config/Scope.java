@@ -0,0 +1,37 @@
+package cn.itnxd.springframework.beans.factory.config;
+
+import cn.itnxd.springframework.beans.ObjectFactory;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 18:20
+ * @Version 1.0
+ * @Description 自定义作用域 SPI，通过 ConfigurableBeanFactory#registerScope 注册
+ *
+ * singleton、prototype、pooled 由容器直接处理，其他作用域的 bean 都交给注册的 Scope 管理，
+ * 由 Scope 决定什么时候复用已有的 bean、什么时候创建新的 bean
+ */
+public interface Scope {
+
+    /**
+     * 获取作用域中的 bean，不存在则通过 objectFactory 创建并保存到作用域中
+     * @param name
+     * @param objectFactory
+     * @return
+     */
+    Object get(String name, ObjectFactory<?> objectFactory);
+
+    /**
+     * 从作用域中移除 bean（不执行销毁回调）
+     * @param name
+     * @return 被移除的 bean，不存在返回 null
+     */
+    Object remove(String name);
+
+    /**
+     * 注册 bean 的销毁回调，作用域结束时执行
+     * @param name
+     * @param callback
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+}
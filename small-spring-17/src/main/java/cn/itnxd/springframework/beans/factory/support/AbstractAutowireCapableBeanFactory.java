@@ -12,10 +12,16 @@ import cn.itnxd.springframework.beans.factory.DisposableBean;
 import cn.itnxd.springframework.beans.factory.InitializingBean;
 import cn.itnxd.springframework.beans.factory.config.*;
 import cn.itnxd.springframework.core.convert.ConversionService;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
+import cn.itnxd.springframework.core.metrics.StartupStep;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @Author niuxudong
@@ -24,12 +30,26 @@ import java.lang.reflect.Method;
  * @Description AbstractBeanFactory 的实现类，同样是抽象类，只实现 createBean 方法
  *
  *  增加实现接口AutowireCapableBeanFactory，实现beanPostProcessor
+ *
+ *  增加：每个 BeanDefinition 编译一份创建配方 BeanRecipe，属性填充、init/destroy 方法直接按配方执行，不再反射查找
+ *
+ *  增加：创建 bean 的每个阶段（实例化、属性填充、初始化前处理、初始化、初始化后处理）记录为启动步骤
+ *
+ *  增加：BeanPostProcessor 按能力和 bean 类预先划分为处理链（BeanPostProcessorPipeline），每个阶段只调用相关的处理器
+ *
+ *  增加：构造器按参数类型匹配，支持 @Autowired 构造器注入（ConstructorResolver）
  */
 public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFactory implements AutowireCapableBeanFactory {
 
     // 添加：持有实例化策略来根据策略实例化对象(默认为cglib策略)
     private InstantiationStrategy instantiationStrategy = new CglibSubclassingInstantiationStrategy();
 
+    // 增加：BeanDefinition -> 创建配方（BeanDefinition 没有重写 equals，按对象区分）
+    private final Map<BeanDefinition, BeanRecipe> beanRecipes = new ConcurrentHashMap<>(256);
+
+    // 增加：构造器解析
+    private final ConstructorResolver constructorResolver = new ConstructorResolver(this);
+
     /**
      * 实现父抽奖类 AbstractBeanFactory 其中一个抽象方法 createBean
      *
@@ -43,60 +63,85 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     @Override
     protected Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args) throws BeansException {
         Object bean = null;
+        BeanRecipe recipe;
+        // 增加：BeanDefinition 只保存了类名时在这里加载类，类不存在直接抛出
+        resolveBeanClass(beanDefinition);
+        // 增加：记录创建 bean 的步骤，创建过程中触发的依赖 bean 的创建嵌套在其中
+        ApplicationStartup applicationStartup = getApplicationStartup();
+        StartupStep createStep = applicationStartup.start("bean.create").tag("beanName", beanName);
         try {
+            // 增加：获取创建配方，本次创建的各个阶段都使用同一份配方
+            recipe = getBeanRecipe(beanName, beanDefinition);
+            BeanRecipe creationRecipe = recipe;
+
             // 1. 根据 BeanDefinition 创建 Bean
-            bean = createBeanInstance(beanName, beanDefinition, args);
+            StartupStep step = applicationStartup.start("bean.instantiate");
+            try {
+                bean = createBeanInstance(beanName, beanDefinition, args);
+            } finally {
+                step.end();
+            }
 
             // 修改：循环依赖解决
             if (beanDefinition.isSingleton()) {
                 Object finalBean = bean;
                 // 实例化完成需要先将代理对象引用保存到三级缓存（若有：提前暴露代理对象的引用即可）
                 // 将获取到的代理对象引用（类似工厂Bean）保存到 singletonFactories 三级缓存中
-                addSingletonFactory(beanName, () -> getEarlyBeanReference(beanName, beanDefinition, finalBean));
+                addSingletonFactory(beanName, () -> getEarlyBeanReference(beanName, finalBean, creationRecipe));
             }
 
-            // 增加：实例化之后，设置属性之前通过特殊的 BeanPostProcessor 处理 @value 和 @Autowired 注解的解析
-            applyBeanPostProcessorsBeforeApplyingPropertyValues(beanName, bean, beanDefinition);
+            step = applicationStartup.start("bean.populate");
+            try {
+                // 增加：实例化之后，设置属性之前通过特殊的 BeanPostProcessor 处理 @value 和 @Autowired 注解的解析
+                PropertyValues pvs = applyBeanPostProcessorsBeforeApplyingPropertyValues(beanName, bean, beanDefinition, recipe);
 
-            // 2. 对 Bean 进行属性填充
-            applyPropertyValues(beanName, beanDefinition, bean);
+                // 2. 对 Bean 进行属性填充
+                applyPropertyValues(beanName, beanDefinition, bean, pvs, recipe);
+            } finally {
+                step.end();
+            }
             // 3. bean实例化完成，执行初始化方法以及在初始化前后分别执行BeanPostProcessor
-            bean = initializeBean(beanName, beanDefinition, bean);
+            bean = initializeBean(beanName, beanDefinition, bean, recipe);
         } catch (BeansException e) {
             throw new BeansException("初始化Bean失败: ", e);
+        } finally {
+            createStep.end();
         }
 
         // 4. 增加：初始化完成注册实现了销毁接口的对象
-        registerDisposableBeanIfNecessary(bean, beanName, beanDefinition);
+        registerDisposableBeanIfNecessary(bean, beanName, beanDefinition, recipe);
 
         Object exposedObject = bean;
         // 增加：bean类型判断，单例才添加到单例map中
         if (beanDefinition.isSingleton()) {
-            // 若是代理对象获取代理对象
-            exposedObject = getSingleton(beanName);
-            // 5. 添加到单例缓存 map
-            addSingleton(beanName, exposedObject);
+            // 若提前暴露过引用（循环依赖时可能是代理对象），则使用提前暴露的引用
+            // 只读取二级缓存，不再通过三级缓存的工厂重复生成代理对象
+            Object earlySingletonReference = getEarlySingletonReference(beanName);
+            if (earlySingletonReference != null) {
+                exposedObject = earlySingletonReference;
+            }
+            // 5. 添加到单例缓存 map（修改：由 getSingleton(beanName, singletonFactory) 在创建锁内统一添加）
         }
         return exposedObject;
     }
 
     /**
      * 若为代理对象，获取代理对象引用；否则获取原 Bean
+     *
+     * 修改：使用本次创建的配方，不再重新获取
      * @param beanName
-     * @param beanDefinition
      * @param bean
+     * @param recipe
      * @return
      */
-    protected Object getEarlyBeanReference(String beanName, BeanDefinition beanDefinition, Object bean) {
+    private Object getEarlyBeanReference(String beanName, Object bean, BeanRecipe recipe) {
         Object exposedObject = bean;
-        for (BeanPostProcessor bp : getBeanPostProcessors()) {
-            // 如果当前 bean 被代理了，即实现了 InstantiationAwareBeanPostProcessor 接口
-            if (bp instanceof InstantiationAwareBeanPostProcessor) {
-                // 则获取到代理对象的引用返回
-                exposedObject = ((InstantiationAwareBeanPostProcessor) bp).getEarlyBeanReference(exposedObject, beanName);
-                if (exposedObject == null) {
-                    return exposedObject;
-                }
+        // 修改：只遍历该 bean 类处理链中重写了 getEarlyBeanReference 的处理器
+        for (InstantiationAwareBeanPostProcessor bp : recipe.getPostProcessors().getEarlyBeanReference()) {
+            // 则获取到代理对象的引用返回
+            exposedObject = bp.getEarlyBeanReference(exposedObject, beanName);
+            if (exposedObject == null) {
+                return exposedObject;
             }
         }
         return exposedObject;
@@ -106,24 +151,33 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * 实例化之后，设置属性之前通过特殊的 BeanPostProcessor 处理 @value 和 @Autowired 注解的解析
      * 同样是将新的属性对 propertyValue 增加到 propertyValues 属性集合，统一在 applyPropertyValues 时候进行赋值，这里赋值是新值覆盖旧值
      *
+     * 修改：返回的新属性只对当前实例生效，不再追加到 BeanDefinition 中（原来处理器返回传入的集合时，每创建一次属性集合就翻倍一次）
+     *
      * @param beanName
      * @param bean
      * @param beanDefinition
+     * @param recipe 本次创建的配方
+     * @return 需要为当前实例设置的属性集合，没有新属性时就是 BeanDefinition 的属性集合
      */
-    protected void applyBeanPostProcessorsBeforeApplyingPropertyValues(String beanName, Object bean, BeanDefinition beanDefinition) {
-
-        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
-            if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
-                // 特殊的 BeanPostProcessor 则执行 postProcessPropertyValues 方法进行解析
-                PropertyValues pvs = ((InstantiationAwareBeanPostProcessor) beanPostProcessor).postProcessPropertyValues(beanDefinition.getPropertyValues(), bean, beanName);
-                if (pvs != null) {
-                    for (PropertyValue propertyValue : pvs.getPropertyValues()) {
-                        // 追加到 BeanDefinition 集合中进行保存
-                        beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
-                    }
+    private PropertyValues applyBeanPostProcessorsBeforeApplyingPropertyValues(String beanName, Object bean, BeanDefinition beanDefinition,
+                                                                              BeanRecipe recipe) {
+        PropertyValues pvs = beanDefinition.getPropertyValues();
+        for (InstantiationAwareBeanPostProcessor beanPostProcessor : recipe.getPostProcessors().getPropertyValues()) {
+            // 特殊的 BeanPostProcessor 则执行 postProcessPropertyValues 方法进行解析
+            PropertyValues result = beanPostProcessor.postProcessPropertyValues(pvs, bean, beanName);
+            if (result != null && result != pvs) {
+                // 新属性追加到原有属性之后
+                PropertyValues merged = new PropertyValues();
+                for (PropertyValue propertyValue : pvs.getPropertyValues()) {
+                    merged.addPropertyValue(propertyValue);
                 }
+                for (PropertyValue propertyValue : result.getPropertyValues()) {
+                    merged.addPropertyValue(propertyValue);
+                }
+                pvs = merged;
             }
         }
+        return pvs;
     }
 
     /**
@@ -134,7 +188,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     protected Object resolveBeforeInstantiation(String beanName, BeanDefinition beanDefinition) {
         // 如果有切面则返回处理过后的代理对象，没有切面处理直接返回 null
-        Object bean = applyBeanPostProcessorsBeforeInstantiation(beanDefinition.getBeanClass(), beanName);
+        Object bean = applyBeanPostProcessorsBeforeInstantiation(resolveBeanClass(beanDefinition), beanName);
         if (bean != null) {
             // 代理对象生成之后，执行 BeanPostProcessor 的后置处理方法（前置处理方法由 InstantiationAwareBeanPostProcessor 进行替换处理了）
             bean = applyBeanPostProcessorsAfterInitialization(bean, beanName);
@@ -150,15 +204,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @return
      */
     protected Object applyBeanPostProcessorsBeforeInstantiation(Class<?> beanClass, String beanName) {
-        // 获取所有 BeanPostProcessor
-        for (BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
-            // 找到实现了接口 InstantiationAwareBeanPostProcessor 的 processor
-            if (beanPostProcessor instanceof InstantiationAwareBeanPostProcessor) {
-                // 执行 InstantiationAwareBeanPostProcessor 专门定义的接口 postProcessBeforeInstantiation（处理aop的通知）
-                Object result = ((InstantiationAwareBeanPostProcessor) beanPostProcessor).postProcessBeforeInstantiation(beanClass, beanName);
-                if (result != null) {
-                    return result;
-                }
+        // 修改：只遍历该 bean 类处理链中重写了 postProcessBeforeInstantiation 的处理器
+        for (InstantiationAwareBeanPostProcessor beanPostProcessor : getBeanPostProcessorPipeline().forBeanType(beanClass).getBeforeInstantiation()) {
+            // 执行 InstantiationAwareBeanPostProcessor 专门定义的接口 postProcessBeforeInstantiation（处理aop的通知）
+            Object result = beanPostProcessor.postProcessBeforeInstantiation(beanClass, beanName);
+            if (result != null) {
+                return result;
             }
         }
         return null;
@@ -175,49 +226,114 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @param beanName
      * @param beanDefinition
      */
-    private void registerDisposableBeanIfNecessary(Object bean, String beanName, BeanDefinition beanDefinition) {
+    private void registerDisposableBeanIfNecessary(Object bean, String beanName, BeanDefinition beanDefinition, BeanRecipe recipe) {
         // 增加非单例bean不需要执行销毁方法
         if (beanDefinition.isSingleton()) {
             // 接口 或 xml 两种
             if (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
-                registerDisposableBean(beanName, new DisposableBeanAdapter(bean, beanName, beanDefinition));
+                // 修改：配方中解析好的 destroy-method 只能用于 bean 类型的实例（例如 jdk 代理对象就不是）
+                MethodHandle destroyMethod = recipe.getBeanClass().isInstance(bean) ? recipe.getDestroyMethod() : null;
+                registerDisposableBean(beanName, new DisposableBeanAdapter(bean, beanName, beanDefinition, destroyMethod));
+            }
+        } else if (beanDefinition.isCustomScope()) {
+            // 增加：自定义作用域的 bean 由作用域在结束时执行销毁
+            Scope scope = getRegisteredScope(beanDefinition.getScope());
+            if (scope != null && (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName()))) {
+                MethodHandle destroyMethod = recipe.getBeanClass().isInstance(bean) ? recipe.getDestroyMethod() : null;
+                DisposableBeanAdapter adapter = new DisposableBeanAdapter(bean, beanName, beanDefinition, destroyMethod);
+                scope.registerDestructionCallback(beanName, adapter::destroy);
             }
         }
     }
 
+    /**
+     * 修改：使用配方中解析好的 destroy-method
+     * @param beanName
+     * @param beanDefinition
+     * @param bean
+     */
+    @Override
+    protected void destroyBean(String beanName, BeanDefinition beanDefinition, Object bean) {
+        if (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
+            BeanRecipe recipe = getBeanRecipe(beanName, beanDefinition);
+            MethodHandle destroyMethod = recipe.getBeanClass().isInstance(bean) ? recipe.getDestroyMethod() : null;
+            new DisposableBeanAdapter(bean, beanName, beanDefinition, destroyMethod).destroy();
+        }
+    }
+
     /**
      * 抽取创建Bean的逻辑，调用本类持有的实例化策略进行实例化
      *
+     * 修改：没有入参直接使用无参构造器；有入参时解析到的构造器缓存到 BeanDefinition，之后不再反射查找
+     *
+     * 修改：有入参时按参数类型选择构造器（必要时通过类型转换服务转换参数）；没有入参时有 @Autowired 构造器则自动注入，
+     *      解析结果按 BeanDefinition 缓存在构造器解析器中
+     *
      * @param beanName
      * @param beanDefinition
      * @param args
      * @return
      */
     private Object createBeanInstance(String beanName, BeanDefinition beanDefinition, Object[] args) throws BeansException{
-        // 1. 获取所有构造器
-        Constructor ctor = null;
-        Constructor[] declaredConstructors = beanDefinition.getBeanClass().getDeclaredConstructors();
-        for (Constructor constructor : declaredConstructors) {
-            // 2. 简单比较参数数量即可（忽略类型比较）
-            if(args != null && args.length == constructor.getParameterCount()) {
-                ctor = constructor;
-                break;
-            }
+        ConstructorResolver.ConstructorPlan plan = constructorResolver.resolve(beanName, beanDefinition, args);
+        Constructor ctor = plan.getConstructor();
+        // 根据实例化策略创建对象
+        return getInstantiationStrategy().instantiate(beanDefinition, beanName, ctor,
+                ctor == null ? args : plan.resolveArguments(this, args));
+    }
+
+    /**
+     * 增加：获取 BeanDefinition 的创建配方，没有或者已经失效则重新编译
+     * @param beanName
+     * @param beanDefinition
+     * @return
+     */
+    BeanRecipe getBeanRecipe(String beanName, BeanDefinition beanDefinition) {
+        ConversionService conversionService = getConversionService();
+        BeanPostProcessorPipeline beanPostProcessorPipeline = getBeanPostProcessorPipeline();
+        BeanRecipe recipe = beanRecipes.get(beanDefinition);
+        if (recipe == null || recipe.isStale(beanDefinition, conversionService, beanPostProcessorPipeline)) {
+            // 并发编译出的配方是等价的，后放入的覆盖先放入的即可
+            recipe = BeanRecipe.compile(beanName, beanDefinition, conversionService, beanPostProcessorPipeline);
+            beanRecipes.put(beanDefinition, recipe);
         }
-        // 3. 根据实例化策略创建对象
-        return getInstantiationStrategy().instantiate(beanDefinition, beanName, ctor, args);
+        return recipe;
+    }
+
+    /**
+     * 增加：移除 BeanDefinition 的创建配方以及构造器计划（BeanDefinition 被覆盖时调用）
+     * @param beanDefinition
+     */
+    void removeBeanRecipe(BeanDefinition beanDefinition) {
+        beanRecipes.remove(beanDefinition);
+        constructorResolver.removeConstructorPlan(beanDefinition);
     }
 
     /**
      * 对实例化完成的 Bean 进行属性填充
+     *
+     * 修改：属性集合就是 BeanDefinition 的属性集合时按配方填充，否则（处理器返回了新的属性）逐个解析填充
+     *
      * @param beanName
      * @param beanDefinition
      * @param bean
+     * @param pvs
+     * @param recipe 本次创建的配方
      */
-    protected void applyPropertyValues(String beanName, BeanDefinition beanDefinition, Object bean) {
+    private void applyPropertyValues(String beanName, BeanDefinition beanDefinition, Object bean, PropertyValues pvs, BeanRecipe recipe) {
+        if (pvs == beanDefinition.getPropertyValues()) {
+            try {
+                recipe.applyPropertyValues(this, bean);
+            } catch (BeansException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new BeansException("为 Bean 【" + beanName + "】设置属性失败！", e);
+            }
+            return;
+        }
         try {
-            // 1. 获取 BeanDefinition 保存的 PV 集合
-            PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+            // 1. 获取 PV 集合
+            PropertyValue[] propertyValues = pvs.getPropertyValues();
             for (PropertyValue pv : propertyValues) {
                 String name = pv.getName();
                 Object value = pv.getValue();
@@ -249,6 +365,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
     /**
      * 实现父接口 AutowireCapableBeanFactory 的bean初始化前processor
+     *
+     * 修改：使用 bean 实例的类对应的处理链
      * @param bean
      * @param beanName
      * @return
@@ -256,9 +374,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     @Override
     public Object applyBeanPostProcessorsBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return applyBeanPostProcessorsBeforeInitialization(bean, beanName, getBeanPostProcessorPipeline().forBeanType(bean.getClass()));
+    }
+
+    private Object applyBeanPostProcessorsBeforeInitialization(Object bean, String beanName, BeanPostProcessorPipeline pipeline) {
         Object resultBean = bean;
-        // 1. 获取到所有的 BeanPostProcessor
-        for(BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
+        // 1. 修改：只遍历处理链中重写了 postProcessBeforeInitialization 的处理器
+        for(BeanPostProcessor beanPostProcessor : pipeline.getBeforeInitialization()) {
             // 2. 依次执行所有的处理方法
             Object dealFinishBean = beanPostProcessor.postProcessBeforeInitialization(resultBean, beanName);
             if (dealFinishBean == null) {
@@ -272,6 +394,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 
     /**
      * 实现父接口 AutowireCapableBeanFactory 的bean初始化后processor
+     *
+     * 修改：使用 bean 实例的类对应的处理链
      * @param bean
      * @param beanName
      * @return
@@ -279,9 +403,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      */
     @Override
     public Object applyBeanPostProcessorsAfterInitialization(Object bean, String beanName) throws BeansException {
+        return applyBeanPostProcessorsAfterInitialization(bean, beanName, getBeanPostProcessorPipeline().forBeanType(bean.getClass()));
+    }
+
+    private Object applyBeanPostProcessorsAfterInitialization(Object bean, String beanName, BeanPostProcessorPipeline pipeline) {
         Object resultBean = bean;
-        // 1. 获取到所有的 BeanPostProcessor
-        for(BeanPostProcessor beanPostProcessor : getBeanPostProcessors()) {
+        // 1. 修改：只遍历处理链中重写了 postProcessAfterInitialization 的处理器
+        for(BeanPostProcessor beanPostProcessor : pipeline.getAfterInitialization()) {
             // 2. 依次执行所有的处理方法
             Object dealFinishBean = beanPostProcessor.postProcessAfterInitialization(resultBean, beanName);
             if (dealFinishBean == null) {
@@ -301,26 +429,43 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @param beanName
      * @param beanDefinition
      * @param bean
+     * @param recipe 本次创建的配方
      * @return
      */
-    protected Object initializeBean(String beanName, BeanDefinition beanDefinition, Object bean) {
+    private Object initializeBean(String beanName, BeanDefinition beanDefinition, Object bean, BeanRecipe recipe) {
         // 增加：实现BeanFactoryAware接口则向bean设置BeanFactory，即this即可
         if (bean instanceof BeanFactoryAware) {
             ((BeanFactoryAware) bean).setBeanFactory(this);
         }
 
-        // 1. BeanPostProcessor前置处理
-        Object wrapperBean = applyBeanPostProcessorsBeforeInitialization(bean, beanName);
+        // 1. BeanPostProcessor前置处理（修改：使用 bean 类的处理链）
+        BeanPostProcessorPipeline pipeline = recipe.getPostProcessors();
+        ApplicationStartup applicationStartup = getApplicationStartup();
+        StartupStep step = applicationStartup.start("bean.bpp-before");
+        Object wrapperBean;
+        try {
+            wrapperBean = applyBeanPostProcessorsBeforeInitialization(bean, beanName, pipeline);
+        } finally {
+            step.end();
+        }
 
         // 2. bean 初始化方法执行
+        step = applicationStartup.start("bean.init");
         try {
-            invokeInitMethods(beanName, wrapperBean, beanDefinition);
+            invokeInitMethods(beanName, wrapperBean, beanDefinition, recipe);
         } catch (BeansException e) {
             throw new BeansException("执行 bean 初始化方法失败，e: {}", e);
+        } finally {
+            step.end();
         }
 
         // 3. BeanPostProcessor后置处理
-        wrapperBean = applyBeanPostProcessorsAfterInitialization(bean, beanName);
+        step = applicationStartup.start("bean.bpp-after");
+        try {
+            wrapperBean = applyBeanPostProcessorsAfterInitialization(bean, beanName, pipeline);
+        } finally {
+            step.end();
+        }
         return wrapperBean;
     }
 
@@ -334,23 +479,38 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
      * @param beanName
      * @param bean
      * @param beanDefinition
+     * @param recipe 本次创建的配方
      */
-    protected void invokeInitMethods(String beanName, Object bean, BeanDefinition beanDefinition) throws BeansException{
+    private void invokeInitMethods(String beanName, Object bean, BeanDefinition beanDefinition, BeanRecipe recipe) throws BeansException{
         // 1. 实现了初始化 bean 接口则可以调用 afterPropertiesSet 方法
         if (bean instanceof InitializingBean) {
             ((InitializingBean) bean).afterPropertiesSet();
         }
-        // 2. xml 中的 init-method 属性
-        String initMethodName = beanDefinition.getInitMethodName();
-        if (StrUtil.isNotEmpty(initMethodName)) {
+        // 2. xml 中的 init-method 属性（修改：直接调用配方中解析好的方法）
+        if (!recipe.hasInitMethod()) {
+            return;
+        }
+        // 初始化前处理器可能返回了其他类的对象，此时在它实际的类上反射查找（与 DisposableBeanAdapter 一致）
+        if (!recipe.getBeanClass().isInstance(bean)) {
+            Method initMethod;
             try {
-                // 2.1 反射获取初始化方法
-                Method initMethod = beanDefinition.getBeanClass().getMethod(initMethodName);
-                // 2.2 反射调用初始化方法
-                initMethod.invoke(bean);
-            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+                initMethod = bean.getClass().getMethod(beanDefinition.getInitMethodName());
+            } catch (NoSuchMethodException e) {
                 throw new BeansException("找不到xml中定义的 init-method 方法");
             }
+            try {
+                initMethod.invoke(bean);
+            } catch (InvocationTargetException | IllegalAccessException e) {
+                throw new BeansException("执行 bean【" + beanName + "】的 init-method 方法失败", e);
+            }
+            return;
+        }
+        try {
+            recipe.invokeInitMethod(bean);
+        } catch (BeansException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new BeansException("执行 bean【" + beanName + "】的 init-method 方法失败", e);
         }
     }
 
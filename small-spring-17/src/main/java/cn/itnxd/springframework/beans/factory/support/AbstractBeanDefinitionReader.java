@@ -1,8 +1,10 @@
 package cn.itnxd.springframework.beans.factory.support;
 
 import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.ConfigurableBeanFactory;
 import cn.itnxd.springframework.core.io.DefaultResourceLoader;
 import cn.itnxd.springframework.core.io.ResourceLoader;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
 
 /**
  * @Author niuxudong
@@ -53,4 +55,15 @@ public abstract class AbstractBeanDefinitionReader implements BeanDefinitionRead
     public ResourceLoader getResourceLoader() {
         return resourceLoader;
     }
+
+    /**
+     * 增加：注册中心是 BeanFactory 时使用它的启动步骤记录器，否则不做记录
+     * @return
+     */
+    protected ApplicationStartup getApplicationStartup() {
+        if (registry instanceof ConfigurableBeanFactory) {
+            return ((ConfigurableBeanFactory) registry).getApplicationStartup();
+        }
+        return ApplicationStartup.DEFAULT;
+    }
 }
@@ -1,17 +1,27 @@
 package cn.itnxd.springframework.beans.factory.support;
 
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.ConfigurableBeanFactory;
+import cn.itnxd.springframework.beans.factory.DisposableBean;
 import cn.itnxd.springframework.beans.factory.FactoryBean;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.PooledBeanHandle;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
 import cn.itnxd.springframework.beans.factory.config.BeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.config.Scope;
 import cn.itnxd.springframework.core.convert.ConversionService;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
 import cn.itnxd.springframework.utils.StringValueResolver;
+import net.sf.cglib.proxy.Dispatcher;
+import net.sf.cglib.proxy.Enhancer;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @Author niuxudong
@@ -22,16 +32,46 @@ import java.util.Map;
 public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry implements ConfigurableBeanFactory {
 
     // 增加：持有 beanPostProcessors
-    private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    // 修改：创建 bean 时会被多个线程并发遍历，使用写时复制集合
+    private final List<BeanPostProcessor> beanPostProcessors = new CopyOnWriteArrayList<>();
 
-    private final Map<String, Object> factoryBeanObjectCache = new HashMap<>();
+    // 增加：按能力划分好的处理链，处理器列表变化时置空，下次使用时重新划分
+    private volatile BeanPostProcessorPipeline beanPostProcessorPipeline;
+
+    private final Map<String, Object> factoryBeanObjectCache = new ConcurrentHashMap<>(16);
+
+    // 增加：创建完成的单例最终返回给调用方的对象（FactoryBean 则为它的单例产品），getBean 只需要一次 map 读取
+    private final Map<String, Object> exposedSingletons = new ConcurrentHashMap<>(256);
+
+    // 增加：单例或者 BeanDefinition 变化时递增，ObjectProvider 据此判断缓存的解析结果是否失效
+    private final AtomicInteger registryVersion = new AtomicInteger();
+
+    // 增加：作用域为 pooled 的 bean 的对象池
+    private final Map<String, BeanPool> beanPools = new ConcurrentHashMap<>(16);
+
+    // 增加：注册的自定义作用域
+    private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+
+    // 增加：自定义作用域 bean 的作用域代理（单例）
+    private final Map<String, Object> scopedProxies = new ConcurrentHashMap<>(16);
 
     // 增加存储 value 解析器的集合
-    private final List<StringValueResolver> embeddedValueResolvers = new ArrayList<>();
+    private final List<StringValueResolver> embeddedValueResolvers = new CopyOnWriteArrayList<>();
 
     // 增加类型转换器服务
     private ConversionService conversionService;
 
+    // 增加：启动步骤记录器
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+    // 增加：加载 bean 类的类加载器
+    private ClassLoader beanClassLoader = ClassUtil.getClassLoader();
+
+    public AbstractBeanFactory() {
+        // 内置 thread 作用域
+        registerScope(ThreadScope.SCOPE_THREAD, new ThreadScope());
+    }
+
     /**
      * 1. 实现顶层 BeanFactory 接口的唯一方法 <br>
      * 2. 这也是本抽象类 AbstractBeanFactory 的模板方法模式的体现，本方法即为模板方法，定义了整个骨架 <br>
@@ -68,20 +108,147 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
      * @param <T>
      */
     protected <T> T doGetBean(String beanName, Object[] args) {
+        // 增加：快速路径，创建完成的单例（包括单例 FactoryBean 的产品）直接返回
+        Object exposedObject = exposedSingletons.get(beanName);
+        if (exposedObject != null) {
+            return (T) exposedObject;
+        }
         // 1. 获取单例 Bean
         Object bean = getSingleton(beanName);
         if (bean != null) {
             // 1.1 获取到的bean非空则需要判断是否实现了工厂bean接口（包装一个方法进行实现）
-            return getObjectForBeanInstance(bean, beanName);
+            return exposeSingleton(beanName, bean);
         }
         // 2. 单例 Bean 不存在则创建 Bean
         BeanDefinition beanDefinition = getBeanDefinition(beanName);
         // 3. 根据 beanDefinition 创建 Bean
-        bean = createBean(beanName, beanDefinition, args);
+        if (beanDefinition.isSingleton()) {
+            // 修改：单例在 beanName 对应的创建锁内创建，并发获取时只会创建一次
+            bean = getSingleton(beanName, () -> createBean(beanName, beanDefinition, args));
+            return exposeSingleton(beanName, bean);
+        } else if (beanDefinition.isPooled()) {
+            // 增加：对象池中的 bean 需要归还，不能直接获取
+            throw new BeansException("bean【" + beanName + "】的作用域为 pooled，需要通过 borrowBean 借用");
+        } else if (beanDefinition.isCustomScope()) {
+            // 增加：自定义作用域交给注册的 Scope 管理，配置了作用域代理则返回代理
+            if (beanDefinition.isScopedProxy()) {
+                bean = getScopedProxy(beanName, beanDefinition);
+            } else {
+                bean = getScopedBean(beanName, beanDefinition, args);
+            }
+        } else {
+            bean = createBean(beanName, beanDefinition, args);
+        }
         // 3.1 bean 为空且创建完成后，同样需要判断是否实现了工厂bean接口
         return getObjectForBeanInstance(bean, beanName);
     }
 
+    /**
+     * 增加：从 bean 的作用域中获取 bean，不存在则由作用域决定是否创建
+     * @param beanName
+     * @param beanDefinition
+     * @param args
+     * @return
+     */
+    protected Object getScopedBean(String beanName, BeanDefinition beanDefinition, Object[] args) {
+        Scope scope = scopes.get(beanDefinition.getScope());
+        if (scope == null) {
+            throw new BeansException("bean【" + beanName + "】的作用域【" + beanDefinition.getScope() + "】没有注册");
+        }
+        return scope.get(beanName, () -> createBean(beanName, beanDefinition, args));
+    }
+
+    /**
+     * 增加：获取作用域代理。代理是 bean 的 cglib 子类，通过 Dispatcher 将每次方法调用转发给当前作用域中的 bean，
+     * 不经过拦截器链，转发的开销只有一次作用域查找（thread 作用域即一次 ThreadLocal 读取）
+     *
+     * 注意：生成代理时会调用一次 bean 的无参构造器
+     * @param beanName
+     * @param beanDefinition
+     * @return
+     */
+    private Object getScopedProxy(String beanName, BeanDefinition beanDefinition) {
+        return scopedProxies.computeIfAbsent(beanName, name -> {
+            Enhancer enhancer = new Enhancer();
+            enhancer.setSuperclass(resolveBeanClass(beanDefinition));
+            enhancer.setCallback((Dispatcher) () -> getScopedBean(name, beanDefinition, null));
+            return enhancer.create();
+        });
+    }
+
+    /**
+     * 增加：获取单例最终返回的对象，单例已经创建完成则放入快速路径的缓存
+     *
+     * 创建过程中提前暴露的引用（二级、三级缓存）以及非单例 FactoryBean 的产品不会放入
+     * @param beanName
+     * @param bean
+     * @return
+     * @param <T>
+     */
+    private <T> T exposeSingleton(String beanName, Object bean) {
+        Object obj = getObjectForBeanInstance(bean, beanName);
+        if (obj != null && isSingletonCompleted(beanName, bean)
+                && (!(bean instanceof FactoryBean) || ((FactoryBean<?>) bean).isSingleton())) {
+            exposedSingletons.put(beanName, obj);
+            // 放入期间单例被移除或者替换，则撤销
+            if (!isSingletonCompleted(beanName, bean)) {
+                exposedSingletons.remove(beanName, obj);
+            }
+        }
+        return (T) obj;
+    }
+
+    /**
+     * 增加：单例被替换或者移除时同时移除快速路径的缓存
+     * @param beanName
+     * @param singletonObject
+     */
+    @Override
+    public void addSingleton(String beanName, Object singletonObject) {
+        super.addSingleton(beanName, singletonObject);
+        exposedSingletons.remove(beanName);
+        factoryBeanObjectCache.remove(beanName);
+        registryChanged();
+    }
+
+    @Override
+    protected void removeSingleton(String beanName) {
+        super.removeSingleton(beanName);
+        exposedSingletons.remove(beanName);
+        factoryBeanObjectCache.remove(beanName);
+        registryChanged();
+    }
+
+    /**
+     * 增加：创建完成的单例最终返回的对象，没有（未创建、创建中或者非单例 FactoryBean）返回 null
+     * @param beanName
+     * @return
+     */
+    Object getExposedSingleton(String beanName) {
+        return exposedSingletons.get(beanName);
+    }
+
+    /**
+     * 增加：直接按 BeanDefinition 创建原型 bean，跳过按名称查找 BeanDefinition 以及作用域判断
+     * @param beanName
+     * @param beanDefinition
+     * @return
+     */
+    Object createPrototypeBean(String beanName, BeanDefinition beanDefinition) {
+        return getObjectForBeanInstance(createBean(beanName, beanDefinition, null), beanName);
+    }
+
+    int getRegistryVersion() {
+        return registryVersion.get();
+    }
+
+    /**
+     * 增加：单例或者 BeanDefinition 发生变化
+     */
+    void registryChanged() {
+        registryVersion.incrementAndGet();
+    }
+
     private <T> T getObjectForBeanInstance(Object bean, String beanName) {
         Object obj = bean;
         if (bean instanceof FactoryBean) {
@@ -91,9 +258,14 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
                 if (factoryBean.isSingleton()) {
                     obj = this.factoryBeanObjectCache.get(beanName);
                     if (obj == null) {
-                        // 2. 缓存中没有，则调用getObject来获取并存到缓存中
-                        obj = factoryBean.getObject();
-                        this.factoryBeanObjectCache.put(beanName, obj);
+                        // 2. 缓存中没有，则调用getObject来获取并存到缓存中（加锁双重检查，保证只调用一次 getObject）
+                        synchronized (factoryBean) {
+                            obj = this.factoryBeanObjectCache.get(beanName);
+                            if (obj == null) {
+                                obj = factoryBean.getObject();
+                                this.factoryBeanObjectCache.put(beanName, obj);
+                            }
+                        }
                     }
                 } else {
                     // 3. 工厂bean是prototype，则无需添加到缓存
@@ -120,6 +292,106 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
         return (T) getBean(beanName);
     }
 
+    /**
+     * 增加：获取绑定到 beanName 的 ObjectProvider
+     * @param beanName
+     * @param requiredType
+     * @return
+     * @param <T>
+     */
+    @Override
+    public <T> ObjectProvider<T> getBeanProvider(String beanName, Class<T> requiredType) {
+        return new BeanHandle<>(this, beanName, requiredType);
+    }
+
+    /**
+     * 增加：从对象池借用作用域为 pooled 的 bean，使用完成后通过 handle 归还
+     *
+     * @param beanName
+     * @param requiredType
+     * @return
+     * @param <T>
+     * @throws BeansException
+     */
+    @Override
+    public <T> PooledBeanHandle<T> borrowBean(String beanName, Class<T> requiredType) throws BeansException {
+        PooledBeanHandle<?> handle = getBeanPool(beanName).borrow();
+        if (!requiredType.isInstance(handle.getBean())) {
+            handle.close();
+            throw new BeansException("bean【" + beanName + "】不是 " + requiredType.getName() + " 类型");
+        }
+        return (PooledBeanHandle<T>) handle;
+    }
+
+    /**
+     * 增加：获取 bean 的对象池，第一次获取时创建并补足 minIdle
+     * @param beanName
+     * @return
+     */
+    public BeanPool getBeanPool(String beanName) throws BeansException {
+        BeanPool beanPool = beanPools.get(beanName);
+        if (beanPool != null) {
+            return beanPool;
+        }
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (!beanDefinition.isPooled()) {
+            throw new BeansException("bean【" + beanName + "】的作用域不是 pooled，不能借用");
+        }
+        beanPool = beanPools.computeIfAbsent(beanName, name -> new BeanPool(name, beanDefinition.getPoolConfig(),
+                () -> createBean(name, beanDefinition, null), bean -> destroyBean(name, beanDefinition, bean)));
+        beanPool.prefill();
+        return beanPool;
+    }
+
+    /**
+     * 增加：销毁不由单例注册中心管理的 bean（例如对象池逐出的 bean）
+     * @param beanName
+     * @param beanDefinition
+     * @param bean
+     */
+    protected void destroyBean(String beanName, BeanDefinition beanDefinition, Object bean) {
+        if (bean instanceof DisposableBean || StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
+            new DisposableBeanAdapter(bean, beanName, beanDefinition).destroy();
+        }
+    }
+
+    /**
+     * 修改：销毁单例的同时关闭所有对象池
+     */
+    @Override
+    public void destroySingletons() {
+        super.destroySingletons();
+        for (BeanPool beanPool : beanPools.values()) {
+            beanPool.close();
+        }
+        beanPools.clear();
+        // 增加：销毁作用域中的 bean
+        for (Scope scope : scopes.values()) {
+            if (scope instanceof DisposableBean) {
+                ((DisposableBean) scope).destroy();
+            }
+        }
+    }
+
+    /**
+     * 增加：注册自定义作用域
+     * @param scopeName
+     * @param scope
+     */
+    @Override
+    public void registerScope(String scopeName, Scope scope) {
+        if (BeanDefinition.SCOPE_SINGLETON.equals(scopeName) || BeanDefinition.SCOPE_PROTOTYPE.equals(scopeName)
+                || BeanDefinition.SCOPE_POOLED.equals(scopeName)) {
+            throw new BeansException("不能替换内置的作用域【" + scopeName + "】");
+        }
+        scopes.put(scopeName, scope);
+    }
+
+    @Override
+    public Scope getRegisteredScope(String scopeName) {
+        return scopes.get(scopeName);
+    }
+
     /**
      * 本抽象类只单纯实现getBean
      * 创建 Bean 由子类实现
@@ -150,6 +422,20 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
         // 有则覆盖
         this.beanPostProcessors.remove(beanPostProcessor);
         this.beanPostProcessors.add(beanPostProcessor);
+        this.beanPostProcessorPipeline = null;
+    }
+
+    /**
+     * 增加：获取按能力划分好的处理链
+     * @return
+     */
+    BeanPostProcessorPipeline getBeanPostProcessorPipeline() {
+        BeanPostProcessorPipeline pipeline = this.beanPostProcessorPipeline;
+        if (pipeline == null) {
+            pipeline = BeanPostProcessorPipeline.of(beanPostProcessors);
+            this.beanPostProcessorPipeline = pipeline;
+        }
+        return pipeline;
     }
 
     public List<BeanPostProcessor> getBeanPostProcessors() {
@@ -204,4 +490,34 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
     public void setConversionService(ConversionService conversionService) {
         this.conversionService = conversionService;
     }
+
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup == null ? ApplicationStartup.DEFAULT : applicationStartup;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader beanClassLoader) {
+        this.beanClassLoader = beanClassLoader == null ? ClassUtil.getClassLoader() : beanClassLoader;
+    }
+
+    @Override
+    public ClassLoader getBeanClassLoader() {
+        return beanClassLoader;
+    }
+
+    /**
+     * 增加：使用 beanClassLoader 加载 BeanDefinition 的类，已经加载过则直接返回
+     * @param beanDefinition
+     * @return
+     * @throws BeansException
+     */
+    protected Class<?> resolveBeanClass(BeanDefinition beanDefinition) throws BeansException {
+        return beanDefinition.resolveBeanClass(beanClassLoader);
+    }
 }
@@ -0,0 +1,265 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.itnxd.springframework.beans.PropertyValue;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanPoolConfig;
+import cn.itnxd.springframework.beans.factory.config.BeanReference;
+import cn.itnxd.springframework.core.io.Resource;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 20:50
+ * @Version 1.0
+ * @Description BeanDefinition 快照：加载完成后的 BeanDefinition 保存为紧凑的二进制文件，下次启动校验和一致时直接读取，跳过 xml 解析和包扫描
+ *
+ * 1、校验和 = 所有配置资源的内容 + classpath 中每个文件的路径、大小、修改时间（SHA-256），任何一项变化都会重新完整加载
+ * 2、快照中保存：beanName、类名、作用域（以及对象池配置）、懒加载、作用域代理、init/destroy 方法名、属性值（字符串或者 bean 引用）
+ * 3、属性值含有其他类型的对象时不能保存快照，下次启动仍然完整加载
+ *
+ * 快照只是缓存：读取失败、格式版本不一致都视为没有快照
+ */
+public class BeanDefinitionSnapshot {
+
+    private static final int MAGIC = 0x53534244;
+
+    private static final int VERSION = 1;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_REFERENCE = 2;
+
+    private final File file;
+
+    public BeanDefinitionSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 计算配置资源和 classpath 的校验和
+     * @param resources
+     * @return
+     * @throws BeansException
+     */
+    public static String checksum(Resource[] resources) throws BeansException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new BeansException("不支持 SHA-256", e);
+        }
+        for (Resource resource : resources) {
+            try (InputStream is = resource.getInputStream()) {
+                digest.update(IoUtil.readBytes(is));
+            } catch (IOException e) {
+                throw new BeansException("读取资源【" + resource + "】失败", e);
+            }
+        }
+        String classPath = System.getProperty("java.class.path", "");
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                digestClassPathEntry(digest, Paths.get(entry));
+            }
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    private static void digestClassPathEntry(MessageDigest digest, Path entry) {
+        if (!Files.isDirectory(entry)) {
+            digestFile(digest, entry);
+            return;
+        }
+        // 目录中的文件按路径排序，保证遍历顺序稳定
+        try (Stream<Path> files = Files.walk(entry)) {
+            files.filter(Files::isRegularFile).sorted().forEach(path -> digestFile(digest, path));
+        } catch (IOException | UncheckedIOException e) {
+            // 读取不到的目录只记录路径
+            digest.update(entry.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void digestFile(MessageDigest digest, Path path) {
+        digest.update(path.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            digest.update(longToBytes(attributes.size()));
+            digest.update(longToBytes(attributes.lastModifiedTime().toMillis()));
+        } catch (IOException e) {
+            // 不存在的 classpath 条目只记录路径
+        }
+    }
+
+    private static byte[] longToBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * 校验和一致时将快照中的 BeanDefinition 注册到容器
+     * @param checksum
+     * @param registry
+     * @return 是否从快照加载
+     * @throws BeansException
+     */
+    public boolean load(String checksum, BeanDefinitionRegistry registry) throws BeansException {
+        if (!file.isFile()) {
+            return false;
+        }
+        List<String> beanNames = new ArrayList<>();
+        List<BeanDefinition> beanDefinitions = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !checksum.equals(in.readUTF())) {
+                return false;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                beanNames.add(in.readUTF());
+                beanDefinitions.add(readBeanDefinition(in));
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        // 全部读取成功才注册，避免注册一半再完整加载时 beanName 重复
+        for (int i = 0; i < beanNames.size(); i++) {
+            registry.registerBeanDefinition(beanNames.get(i), beanDefinitions.get(i));
+        }
+        return true;
+    }
+
+    private BeanDefinition readBeanDefinition(DataInputStream in) throws IOException {
+        // 修改：只保存类名，创建 bean 时才加载类
+        BeanDefinition beanDefinition = new BeanDefinition(in.readUTF());
+        beanDefinition.setScope(in.readUTF());
+        beanDefinition.setLazyInit(in.readBoolean());
+        beanDefinition.setScopedProxy(in.readBoolean());
+        beanDefinition.setInitMethodName(readNullableString(in));
+        beanDefinition.setDestroyMethodName(readNullableString(in));
+        if (beanDefinition.isPooled()) {
+            BeanPoolConfig poolConfig = new BeanPoolConfig();
+            poolConfig.setMinIdle(in.readInt());
+            poolConfig.setMaxIdle(in.readInt());
+            poolConfig.setMaxTotal(in.readInt());
+            poolConfig.setMaxWaitMillis(in.readLong());
+            poolConfig.setIdleTimeoutMillis(in.readLong());
+            poolConfig.setValidateOnBorrow(in.readBoolean());
+            beanDefinition.setPoolConfig(poolConfig);
+        }
+        int propertyCount = in.readInt();
+        for (int i = 0; i < propertyCount; i++) {
+            String name = in.readUTF();
+            Object value;
+            byte type = in.readByte();
+            if (type == VALUE_STRING) {
+                value = in.readUTF();
+            } else if (type == VALUE_REFERENCE) {
+                value = new BeanReference(in.readUTF());
+            } else {
+                value = null;
+            }
+            beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue(name, value));
+        }
+        return beanDefinition;
+    }
+
+    /**
+     * 保存容器中所有的 BeanDefinition，先写入临时文件再替换，不会留下写了一半的快照
+     * @param checksum
+     * @param beanFactory
+     * @return 含有不能保存的属性值时返回 false
+     */
+    public boolean write(String checksum, DefaultListableBeanFactory beanFactory) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            String[] beanNames = beanFactory.getBeanDefinitionNames();
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(checksum);
+            out.writeInt(beanNames.length);
+            for (String beanName : beanNames) {
+                out.writeUTF(beanName);
+                if (!writeBeanDefinition(out, beanFactory.getBeanDefinition(beanName))) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            Path dir = file.getAbsoluteFile().getParentFile().toPath();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getName(), ".tmp");
+            Files.write(tmp, bytes.toByteArray());
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean writeBeanDefinition(DataOutputStream out, BeanDefinition beanDefinition) throws IOException {
+        out.writeUTF(beanDefinition.getBeanClassName());
+        out.writeUTF(beanDefinition.getScope());
+        out.writeBoolean(beanDefinition.isLazyInit());
+        out.writeBoolean(beanDefinition.isScopedProxy());
+        writeNullableString(out, beanDefinition.getInitMethodName());
+        writeNullableString(out, beanDefinition.getDestroyMethodName());
+        if (beanDefinition.isPooled()) {
+            BeanPoolConfig poolConfig = beanDefinition.getPoolConfig();
+            out.writeInt(poolConfig.getMinIdle());
+            out.writeInt(poolConfig.getMaxIdle());
+            out.writeInt(poolConfig.getMaxTotal());
+            out.writeLong(poolConfig.getMaxWaitMillis());
+            out.writeLong(poolConfig.getIdleTimeoutMillis());
+            out.writeBoolean(poolConfig.isValidateOnBorrow());
+        }
+        PropertyValue[] propertyValues = beanDefinition.getPropertyValues().getPropertyValues();
+        out.writeInt(propertyValues.length);
+        for (PropertyValue pv : propertyValues) {
+            out.writeUTF(pv.getName());
+            Object value = pv.getValue();
+            if (value == null) {
+                out.writeByte(VALUE_NULL);
+            } else if (value instanceof String) {
+                out.writeByte(VALUE_STRING);
+                out.writeUTF((String) value);
+            } else if (value instanceof BeanReference) {
+                out.writeByte(VALUE_REFERENCE);
+                out.writeUTF(((BeanReference) value).getBeanName());
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,117 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+
+import java.util.stream.Stream;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 01:30
+ * @Version 1.0
+ * @Description 绑定到一个 beanName 的 ObjectProvider
+ *
+ * 第一次获取时解析 BeanDefinition：
+ *      1、单例：创建完成后缓存最终返回的对象（FactoryBean 则为单例产品），之后只需要一次 volatile 读取
+ *      2、原型：直接按 BeanDefinition 创建（创建配方已经编译好），不再经过按名称查找以及作用域判断
+ *      3、其他作用域：交给 getBean
+ * 容器的单例或者 BeanDefinition 变化（registryVersion 递增）后重新解析
+ */
+final class BeanHandle<T> implements ObjectProvider<T> {
+
+    private final AbstractBeanFactory beanFactory;
+
+    private final String beanName;
+
+    private final Class<T> requiredType;
+
+    private volatile Resolution resolution;
+
+    BeanHandle(AbstractBeanFactory beanFactory, String beanName, Class<T> requiredType) {
+        this.beanFactory = beanFactory;
+        this.beanName = beanName;
+        this.requiredType = requiredType;
+    }
+
+    @Override
+    public T getObject() throws BeansException {
+        int version = beanFactory.getRegistryVersion();
+        Resolution current = resolution;
+        if (current == null || current.version != version) {
+            current = resolve(version);
+        }
+        if (current.singletonObject != null) {
+            return current.singletonObject;
+        }
+        Object bean = current.beanDefinition.isPrototype()
+                ? beanFactory.createPrototypeBean(beanName, current.beanDefinition)
+                : beanFactory.getBean(beanName);
+        return checkType(bean);
+    }
+
+    /**
+     * 解析 BeanDefinition，单例会在这里创建
+     * @param version 解析开始前的版本，解析期间容器变化（例如创建了单例）则下次调用重新解析
+     * @return
+     */
+    private Resolution resolve(int version) {
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+        T singletonObject = null;
+        if (beanDefinition.isSingleton()) {
+            Object bean = checkType(beanFactory.getBean(beanName));
+            // 只缓存创建完成的单例，非单例 FactoryBean 的产品每次重新获取
+            if (beanFactory.getExposedSingleton(beanName) == bean) {
+                singletonObject = (T) bean;
+            }
+        }
+        Resolution current = new Resolution(version, beanDefinition, singletonObject);
+        resolution = current;
+        return current;
+    }
+
+    private T checkType(Object bean) {
+        if (!requiredType.isInstance(bean)) {
+            throw new BeansException("bean【" + beanName + "】不是 " + requiredType.getName() + " 类型");
+        }
+        return (T) bean;
+    }
+
+    @Override
+    public T getIfAvailable() throws BeansException {
+        return beanFactory.containsBean(beanName) ? getObject() : null;
+    }
+
+    @Override
+    public T getIfUnique() throws BeansException {
+        return getIfAvailable();
+    }
+
+    @Override
+    public Stream<T> stream() throws BeansException {
+        return beanFactory.containsBean(beanName) ? Stream.of(getObject()) : Stream.empty();
+    }
+
+    String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * 解析结果，不可变
+     */
+    private final class Resolution {
+
+        private final int version;
+
+        private final BeanDefinition beanDefinition;
+
+        // 不为空则直接返回
+        private final T singletonObject;
+
+        private Resolution(int version, BeanDefinition beanDefinition, T singletonObject) {
+            this.version = version;
+            this.beanDefinition = beanDefinition;
+            this.singletonObject = singletonObject;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.itnxd.springframework.beans.ObjectFactory;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.PoolableBean;
+import cn.itnxd.springframework.beans.factory.PooledBeanHandle;
+import cn.itnxd.springframework.beans.factory.config.BeanPoolConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 17:10
+ * @Version 1.0
+ * @Description 作用域为 pooled 的 bean 的对象池，每个 beanName 一个
+ *
+ * 1、借用时优先复用空闲的 bean（后进先出，最近归还的最热），没有空闲且未达到 maxTotal 才创建新的 bean
+ * 2、归还时先校验（PoolableBean#validate），再重置状态（PoolableBean#passivate），空闲数量超过 maxIdle 则直接销毁
+ * 3、空闲超过 idleTimeoutMillis 的 bean 会被逐出，逐出之后补足 minIdle；归还时到期会顺带执行一次，也可以由外部定时调用 evict
+ *
+ * 创建、校验、销毁 bean 都在锁外执行，锁内只维护计数和空闲队列
+ * 修改：校验、重置状态抛出异常的 bean 同样被销毁并释放名额，异常包装为 BeansException 抛给调用方
+ */
+public class BeanPool {
+
+    private final String beanName;
+
+    private final BeanPoolConfig config;
+
+    private final ObjectFactory<Object> beanCreator;
+
+    private final Consumer<Object> beanDestroyer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // 有 bean 归还或者名额释放时唤醒等待借用的线程
+    private final Condition available = lock.newCondition();
+
+    // 空闲的 bean，头部是最近归还的
+    private final Deque<IdleBean> idleBeans = new ArrayDeque<>();
+
+    // 借出的 + 空闲的 + 正在创建的
+    private int totalCount;
+
+    private volatile long lastEvictionNanos = System.nanoTime();
+
+    private volatile boolean closed;
+
+    public BeanPool(String beanName, BeanPoolConfig config, ObjectFactory<Object> beanCreator, Consumer<Object> beanDestroyer) {
+        if (config.getMaxTotal() <= 0 || config.getMaxIdle() < 0 || config.getMinIdle() > config.getMaxIdle()) {
+            throw new BeansException("bean【" + beanName + "】的对象池配置不合法，需要 maxTotal > 0 且 0 <= minIdle <= maxIdle");
+        }
+        this.beanName = beanName;
+        this.config = config;
+        this.beanCreator = beanCreator;
+        this.beanDestroyer = beanDestroyer;
+    }
+
+    /**
+     * 借用 bean
+     * @return
+     * @throws BeansException 等待超时或者对象池已关闭
+     */
+    public PooledBeanHandle<Object> borrow() throws BeansException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+        while (true) {
+            IdleBean idleBean = null;
+            lock.lock();
+            try {
+                while (true) {
+                    checkOpen();
+                    idleBean = idleBeans.pollFirst();
+                    if (idleBean != null) {
+                        break;
+                    }
+                    if (totalCount < config.getMaxTotal()) {
+                        // 先占用名额，在锁外创建
+                        totalCount++;
+                        break;
+                    }
+                    if (config.getMaxWaitMillis() < 0) {
+                        available.await();
+                    } else {
+                        if (remainingNanos <= 0) {
+                            throw new BeansException("bean【" + beanName + "】的对象池已耗尽，等待 " + config.getMaxWaitMillis() + " ms 超时");
+                        }
+                        remainingNanos = available.awaitNanos(remainingNanos);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BeansException("等待借用 bean【" + beanName + "】时线程被中断", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (idleBean == null) {
+                return new Handle(create());
+            }
+            boolean valid;
+            try {
+                valid = !config.isValidateOnBorrow() || validate(idleBean.bean);
+            } catch (RuntimeException e) {
+                destroyAfterFailure(idleBean.bean, e);
+                throw new BeansException("借用 bean【" + beanName + "】时校验失败，该 bean 已销毁", e);
+            }
+            if (valid) {
+                return new Handle(idleBean.bean);
+            }
+            // 校验失败则销毁，重新借用
+            destroy(idleBean.bean);
+        }
+    }
+
+    /**
+     * 归还 bean
+     * @param bean
+     */
+    private void giveBack(Object bean) {
+        boolean reusable;
+        try {
+            reusable = validate(bean);
+            if (reusable && bean instanceof PoolableBean) {
+                ((PoolableBean) bean).passivate();
+            }
+        } catch (RuntimeException e) {
+            // 修改：校验或者重置状态失败时不能放回，销毁 bean 并释放名额，否则名额一直被占用
+            destroyAfterFailure(bean, e);
+            throw new BeansException("归还 bean【" + beanName + "】时校验或重置状态失败，该 bean 已销毁", e);
+        }
+        if (!reusable) {
+            destroy(bean);
+            return;
+        }
+        boolean keep;
+        lock.lock();
+        try {
+            keep = !closed && idleBeans.size() < config.getMaxIdle();
+            if (keep) {
+                idleBeans.addFirst(new IdleBean(bean, System.nanoTime()));
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!keep) {
+            destroy(bean);
+        }
+        if (config.getIdleTimeoutMillis() > 0
+                && System.nanoTime() - lastEvictionNanos >= TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis())) {
+            evict();
+        }
+    }
+
+    /**
+     * 逐出空闲超时的 bean（保留 minIdle 个），之后补足 minIdle
+     */
+    public void evict() {
+        lastEvictionNanos = System.nanoTime();
+        if (config.getIdleTimeoutMillis() > 0) {
+            long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(config.getIdleTimeoutMillis());
+            List<Object> evicted = new ArrayList<>();
+            lock.lock();
+            try {
+                // 尾部是最久没有被使用的
+                while (idleBeans.size() > config.getMinIdle() && idleBeans.peekLast().returnedNanos - deadline < 0) {
+                    evicted.add(idleBeans.pollLast().bean);
+                }
+            } finally {
+                lock.unlock();
+            }
+            evicted.forEach(this::destroy);
+        }
+        prefill();
+    }
+
+    /**
+     * 创建 bean 直到空闲数量达到 minIdle
+     *
+     * 修改：bean 在锁外创建，放入空闲队列前再次检查对象池是否已经关闭，已关闭则直接销毁
+     */
+    public void prefill() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || idleBeans.size() >= config.getMinIdle() || totalCount >= config.getMaxTotal()) {
+                    return;
+                }
+                totalCount++;
+            } finally {
+                lock.unlock();
+            }
+            Object bean = create();
+            boolean closedWhileCreating;
+            lock.lock();
+            try {
+                closedWhileCreating = closed;
+                if (!closedWhileCreating) {
+                    idleBeans.addFirst(new IdleBean(bean, System.nanoTime()));
+                    available.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (closedWhileCreating) {
+                destroy(bean);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 关闭对象池：销毁所有空闲的 bean，借出的 bean 归还时直接销毁
+     */
+    public void close() {
+        List<IdleBean> idle;
+        lock.lock();
+        try {
+            closed = true;
+            idle = new ArrayList<>(idleBeans);
+            idleBeans.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (IdleBean idleBean : idle) {
+            destroy(idleBean.bean);
+        }
+    }
+
+    /**
+     * 在已占用的名额上创建 bean，失败则释放名额
+     * @return
+     */
+    private Object create() {
+        try {
+            return beanCreator.getObject();
+        } catch (RuntimeException e) {
+            releaseSlot();
+            throw e;
+        }
+    }
+
+    private boolean validate(Object bean) {
+        return !(bean instanceof PoolableBean) || ((PoolableBean) bean).validate();
+    }
+
+    /**
+     * 销毁 bean 并释放名额
+     * @param bean
+     */
+    private void destroy(Object bean) {
+        try {
+            beanDestroyer.accept(bean);
+        } finally {
+            releaseSlot();
+        }
+    }
+
+    /**
+     * 增加：校验、重置状态失败后销毁 bean，销毁时的异常附加到原来的异常上
+     * @param bean
+     * @param failure
+     */
+    private void destroyAfterFailure(Object bean, RuntimeException failure) {
+        try {
+            destroy(bean);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void releaseSlot() {
+        lock.lock();
+        try {
+            totalCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new BeansException("bean【" + beanName + "】的对象池已关闭");
+        }
+    }
+
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idleBeans.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return totalCount - idleBeans.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    private static final class IdleBean {
+
+        private final Object bean;
+
+        private final long returnedNanos;
+
+        private IdleBean(Object bean, long returnedNanos) {
+            this.bean = bean;
+            this.returnedNanos = returnedNanos;
+        }
+    }
+
+    /**
+     * 借出的 bean，只能归还或者销毁一次
+     */
+    private final class Handle implements PooledBeanHandle<Object> {
+
+        private final Object bean;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Handle(Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public Object getBean() {
+            if (released.get()) {
+                throw new BeansException("bean【" + beanName + "】已经归还到对象池，不能再使用");
+            }
+            return bean;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                giveBack(bean);
+            }
+        }
+
+        @Override
+        public void invalidate() {
+            if (released.compareAndSet(false, true)) {
+                destroy(bean);
+            }
+        }
+    }
+}
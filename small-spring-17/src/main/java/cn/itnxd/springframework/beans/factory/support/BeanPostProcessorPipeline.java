@@ -0,0 +1,166 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.itnxd.springframework.beans.PropertyValues;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.config.BeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:10
+ * @Version 1.0
+ * @Description BeanPostProcessor 处理链：按能力把处理器分到不同的数组中，每个阶段只遍历真正实现了该阶段方法的处理器
+ *
+ * 1、处理器没有重写的方法（使用 BeanPostProcessor、InstantiationAwareBeanPostProcessor 中的默认实现）不会出现在对应阶段的数组中
+ * 2、forBeanType 按 bean 类缓存过滤后的处理链，supportsBeanType 返回 false 的处理器不参与该类 bean 的任何阶段
+ *
+ * 处理器列表变化时容器创建新的 BeanPostProcessorPipeline，旧的连同按类缓存的处理链一起丢弃
+ */
+final class BeanPostProcessorPipeline {
+
+    private static final BeanPostProcessor[] NO_PROCESSORS = new BeanPostProcessor[0];
+
+    private static final InstantiationAwareBeanPostProcessor[] NO_INSTANTIATION_AWARE_PROCESSORS = new InstantiationAwareBeanPostProcessor[0];
+
+    // 参与任一阶段的处理器（注册顺序）
+    private final List<BeanPostProcessor> processors;
+
+    private final BeanPostProcessor[] beforeInitialization;
+
+    private final BeanPostProcessor[] afterInitialization;
+
+    private final InstantiationAwareBeanPostProcessor[] beforeInstantiation;
+
+    private final InstantiationAwareBeanPostProcessor[] propertyValues;
+
+    private final InstantiationAwareBeanPostProcessor[] earlyBeanReference;
+
+    // bean 类 -> 只包含相关处理器的处理链，只有未过滤的处理链才有
+    private final Map<Class<?>, BeanPostProcessorPipeline> pipelinesByType;
+
+    private BeanPostProcessorPipeline(List<BeanPostProcessor> processors,
+                                      List<BeanPostProcessor> beforeInitialization, List<BeanPostProcessor> afterInitialization,
+                                      List<InstantiationAwareBeanPostProcessor> beforeInstantiation,
+                                      List<InstantiationAwareBeanPostProcessor> propertyValues,
+                                      List<InstantiationAwareBeanPostProcessor> earlyBeanReference,
+                                      Map<Class<?>, BeanPostProcessorPipeline> pipelinesByType) {
+        this.processors = processors;
+        this.beforeInitialization = beforeInitialization.toArray(NO_PROCESSORS);
+        this.afterInitialization = afterInitialization.toArray(NO_PROCESSORS);
+        this.beforeInstantiation = beforeInstantiation.toArray(NO_INSTANTIATION_AWARE_PROCESSORS);
+        this.propertyValues = propertyValues.toArray(NO_INSTANTIATION_AWARE_PROCESSORS);
+        this.earlyBeanReference = earlyBeanReference.toArray(NO_INSTANTIATION_AWARE_PROCESSORS);
+        this.pipelinesByType = pipelinesByType;
+    }
+
+    /**
+     * 按能力划分处理器，保持注册顺序
+     * @param beanPostProcessors
+     * @return
+     */
+    static BeanPostProcessorPipeline of(List<BeanPostProcessor> beanPostProcessors) {
+        return build(beanPostProcessors, null);
+    }
+
+    /**
+     * 获取 beanClass 的处理链，第一次获取时过滤并缓存
+     * @param beanClass
+     * @return
+     */
+    BeanPostProcessorPipeline forBeanType(Class<?> beanClass) {
+        if (pipelinesByType == null) {
+            throw new IllegalStateException("只有未过滤的处理链可以按类型获取");
+        }
+        return pipelinesByType.computeIfAbsent(beanClass, type -> build(processors, type));
+    }
+
+    /**
+     * @param beanPostProcessors
+     * @param beanClass 为 null 则不过滤
+     * @return
+     */
+    private static BeanPostProcessorPipeline build(List<BeanPostProcessor> beanPostProcessors, Class<?> beanClass) {
+        List<BeanPostProcessor> beforeInitialization = new ArrayList<>();
+        List<BeanPostProcessor> afterInitialization = new ArrayList<>();
+        List<InstantiationAwareBeanPostProcessor> beforeInstantiation = new ArrayList<>();
+        List<InstantiationAwareBeanPostProcessor> propertyValues = new ArrayList<>();
+        List<InstantiationAwareBeanPostProcessor> earlyBeanReference = new ArrayList<>();
+        List<BeanPostProcessor> processors = new ArrayList<>();
+        for (BeanPostProcessor processor : beanPostProcessors) {
+            if (beanClass != null && !processor.supportsBeanType(beanClass)) {
+                continue;
+            }
+            Class<?> processorClass = processor.getClass();
+            boolean participates = false;
+            if (overrides(processorClass, "postProcessBeforeInitialization", Object.class, String.class)) {
+                beforeInitialization.add(processor);
+                participates = true;
+            }
+            if (overrides(processorClass, "postProcessAfterInitialization", Object.class, String.class)) {
+                afterInitialization.add(processor);
+                participates = true;
+            }
+            if (processor instanceof InstantiationAwareBeanPostProcessor) {
+                InstantiationAwareBeanPostProcessor instantiationAware = (InstantiationAwareBeanPostProcessor) processor;
+                if (overrides(processorClass, "postProcessBeforeInstantiation", Class.class, String.class)) {
+                    beforeInstantiation.add(instantiationAware);
+                    participates = true;
+                }
+                if (overrides(processorClass, "postProcessPropertyValues", PropertyValues.class, Object.class, String.class)) {
+                    propertyValues.add(instantiationAware);
+                    participates = true;
+                }
+                if (overrides(processorClass, "getEarlyBeanReference", Object.class, String.class)) {
+                    earlyBeanReference.add(instantiationAware);
+                    participates = true;
+                }
+            }
+            if (participates) {
+                processors.add(processor);
+            }
+        }
+        return new BeanPostProcessorPipeline(processors, beforeInitialization, afterInitialization, beforeInstantiation, propertyValues,
+                earlyBeanReference, beanClass == null ? new ConcurrentHashMap<>(256) : null);
+    }
+
+    /**
+     * 处理器是否重写了方法，使用 BeanPostProcessor、InstantiationAwareBeanPostProcessor 中的默认实现则没有重写
+     * @param processorClass
+     * @param methodName
+     * @param parameterTypes
+     * @return
+     */
+    private static boolean overrides(Class<?> processorClass, String methodName, Class<?>... parameterTypes) {
+        try {
+            Class<?> declaringClass = processorClass.getMethod(methodName, parameterTypes).getDeclaringClass();
+            return declaringClass != BeanPostProcessor.class && declaringClass != InstantiationAwareBeanPostProcessor.class;
+        } catch (NoSuchMethodException e) {
+            throw new BeansException("【" + processorClass.getName() + "】没有方法 " + methodName, e);
+        }
+    }
+
+    BeanPostProcessor[] getBeforeInitialization() {
+        return beforeInitialization;
+    }
+
+    BeanPostProcessor[] getAfterInitialization() {
+        return afterInitialization;
+    }
+
+    InstantiationAwareBeanPostProcessor[] getBeforeInstantiation() {
+        return beforeInstantiation;
+    }
+
+    InstantiationAwareBeanPostProcessor[] getPropertyValues() {
+        return propertyValues;
+    }
+
+    InstantiationAwareBeanPostProcessor[] getEarlyBeanReference() {
+        return earlyBeanReference;
+    }
+}
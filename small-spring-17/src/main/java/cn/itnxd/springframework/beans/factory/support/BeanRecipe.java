@@ -0,0 +1,258 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.ReflectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.itnxd.springframework.beans.PropertyValue;
+import cn.itnxd.springframework.beans.PropertyValues;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.BeanFactory;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanReference;
+import cn.itnxd.springframework.core.convert.ConversionService;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 16:05
+ * @Version 1.0
+ * @Description bean 的创建配方：每个 BeanDefinition 编译一次，之后每次创建 bean 直接按配方执行
+ *
+ * 原来每创建一个实例，每个属性都要通过 hutool 反射查找字段类型、查找转换器、设置字段，init/destroy 方法也要按名字查找一次。
+ * 配方中预先保存了：
+ *      1、每个属性的字段 setter（MethodHandle）以及选好的类型转换（结果不可变的常量直接转换一次）
+ *      2、init-method 和 destroy-method 的 MethodHandle
+ *      3、修改：该 bean 类的 BeanPostProcessor 处理链（只包含相关的处理器）
+ *
+ * BeanDefinition 的属性集合、类型转换服务或者 BeanPostProcessor 发生变化时配方失效，重新编译
+ */
+final class BeanRecipe {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType LIFECYCLE_TYPE = MethodType.methodType(void.class, Object.class);
+
+    // 编译配方时的依据，用于判断配方是否失效
+    private final PropertyValues propertyValues;
+    private final int propertyCount;
+    private final ConversionService conversionService;
+    private final BeanPostProcessorPipeline beanPostProcessorPipeline;
+
+    private final PropertyInjection[] injections;
+
+    // 修改：只包含该 bean 类相关处理器的处理链
+    private final BeanPostProcessorPipeline postProcessors;
+
+    private final Class<?> beanClass;
+
+    private final MethodHandle initMethod;
+
+    private final MethodHandle destroyMethod;
+
+    private BeanRecipe(BeanDefinition beanDefinition, ConversionService conversionService, BeanPostProcessorPipeline beanPostProcessorPipeline,
+                       PropertyInjection[] injections, BeanPostProcessorPipeline postProcessors,
+                       MethodHandle initMethod, MethodHandle destroyMethod) {
+        this.propertyValues = beanDefinition.getPropertyValues();
+        this.propertyCount = propertyValues.size();
+        this.conversionService = conversionService;
+        this.beanPostProcessorPipeline = beanPostProcessorPipeline;
+        this.injections = injections;
+        this.postProcessors = postProcessors;
+        this.beanClass = beanDefinition.getBeanClass();
+        this.initMethod = initMethod;
+        this.destroyMethod = destroyMethod;
+    }
+
+    /**
+     * 编译 BeanDefinition 的创建配方
+     * @param beanName
+     * @param beanDefinition
+     * @param conversionService
+     * @param beanPostProcessorPipeline 容器的处理链（未按类型过滤）
+     * @return
+     */
+    static BeanRecipe compile(String beanName, BeanDefinition beanDefinition, ConversionService conversionService,
+                              BeanPostProcessorPipeline beanPostProcessorPipeline) {
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        // 1. 属性：同名属性后面的覆盖前面的（例如占位符解析后追加的属性），只保留最后一个
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (PropertyValue pv : beanDefinition.getPropertyValues().getPropertyValues()) {
+            values.remove(pv.getName());
+            values.put(pv.getName(), pv.getValue());
+        }
+        List<PropertyInjection> injections = new ArrayList<>(values.size());
+        try {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                Field field = ReflectUtil.getField(beanClass, entry.getKey());
+                if (field == null) {
+                    throw new NoSuchFieldException(entry.getKey());
+                }
+                field.setAccessible(true);
+                MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+                injections.add(compileInjection(entry.getValue(), field.getType(), setter, conversionService));
+            }
+        } catch (Exception e) {
+            throw new BeansException("为 Bean 【" + beanName + "】设置属性失败！", e);
+        }
+
+        // 2. 修改：该 bean 类的处理链
+        BeanPostProcessorPipeline postProcessors = beanPostProcessorPipeline.forBeanType(beanClass);
+
+        // 3. init-method 和 destroy-method
+        MethodHandle initMethod = null;
+        if (StrUtil.isNotEmpty(beanDefinition.getInitMethodName())) {
+            initMethod = lifecycleMethod(lookup, beanClass, beanDefinition.getInitMethodName());
+            if (initMethod == null) {
+                throw new BeansException("找不到xml中定义的 init-method 方法");
+            }
+        }
+        MethodHandle destroyMethod = null;
+        if (StrUtil.isNotEmpty(beanDefinition.getDestroyMethodName())) {
+            // 找不到时不报错，销毁时由 DisposableBeanAdapter 按实际对象的类型再查找
+            destroyMethod = lifecycleMethod(lookup, beanClass, beanDefinition.getDestroyMethodName());
+        }
+
+        return new BeanRecipe(beanDefinition, conversionService, beanPostProcessorPipeline,
+                injections.toArray(new PropertyInjection[0]), postProcessors, initMethod, destroyMethod);
+    }
+
+    /**
+     * 选择属性值的处理方式：bean 引用每次获取；常量按与原来相同的规则预先选好转换方式
+     * @param value
+     * @param fieldType
+     * @param setter
+     * @param conversionService
+     * @return
+     */
+    private static PropertyInjection compileInjection(Object value, Class<?> fieldType, MethodHandle setter,
+                                                      ConversionService conversionService) {
+        if (value instanceof BeanReference) {
+            return new PropertyInjection(setter, ((BeanReference) value).getBeanName(), null, null);
+        }
+        if (value == null) {
+            return new PropertyInjection(setter, null, ClassUtil.getDefaultValue(fieldType), null);
+        }
+        Function<Object, Object> converter = ValueConversions.converter(value.getClass(), fieldType, conversionService);
+        if (converter != null) {
+            Object converted = converter.apply(value);
+            // 转换结果不可变时所有实例共享同一个结果，否则每个实例单独转换
+            if (ValueConversions.isImmutable(converted)) {
+                return new PropertyInjection(setter, null, converted, null);
+            }
+        }
+        return new PropertyInjection(setter, null, value, converter);
+    }
+
+    /**
+     * 获取无参的 public 方法（与原来的 getMethod 查找规则一致）
+     * @param lookup
+     * @param beanClass
+     * @param methodName
+     * @return 没有该方法返回 null
+     */
+    private static MethodHandle lifecycleMethod(MethodHandles.Lookup lookup, Class<?> beanClass, String methodName) {
+        try {
+            Method method = beanClass.getMethod(methodName);
+            // bean 的类不一定是 public 的
+            method.setAccessible(true);
+            return lookup.unreflect(method).asType(LIFECYCLE_TYPE);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException e) {
+            throw new BeansException("【" + beanClass.getName() + "】的方法 " + methodName + " 无法访问", e);
+        }
+    }
+
+    /**
+     * 配方是否失效
+     * @param beanDefinition
+     * @param conversionService
+     * @param beanPostProcessorPipeline
+     * @return
+     */
+    boolean isStale(BeanDefinition beanDefinition, ConversionService conversionService, BeanPostProcessorPipeline beanPostProcessorPipeline) {
+        return propertyValues != beanDefinition.getPropertyValues()
+                || propertyCount != propertyValues.size()
+                || this.conversionService != conversionService
+                || this.beanPostProcessorPipeline != beanPostProcessorPipeline
+                || beanClass != beanDefinition.getBeanClass();
+    }
+
+    /**
+     * 按配方为 bean 设置属性
+     * @param beanFactory
+     * @param bean
+     * @throws Throwable
+     */
+    void applyPropertyValues(BeanFactory beanFactory, Object bean) throws Throwable {
+        for (PropertyInjection injection : injections) {
+            injection.setter.invokeExact(bean, injection.resolveValue(beanFactory));
+        }
+    }
+
+    BeanPostProcessorPipeline getPostProcessors() {
+        return postProcessors;
+    }
+
+    boolean hasInitMethod() {
+        return initMethod != null;
+    }
+
+    void invokeInitMethod(Object bean) throws Throwable {
+        initMethod.invokeExact(bean);
+    }
+
+    /**
+     * destroy-method 的 MethodHandle，没有或者找不到返回 null
+     * @return
+     */
+    MethodHandle getDestroyMethod() {
+        return destroyMethod;
+    }
+
+    Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * 单个属性的注入步骤
+     */
+    private static final class PropertyInjection {
+
+        private final MethodHandle setter;
+
+        // 不为空则注入该 bean
+        private final String referenceBeanName;
+
+        private final Object value;
+
+        // 不为空则每次注入前转换
+        private final Function<Object, Object> converter;
+
+        private PropertyInjection(MethodHandle setter, String referenceBeanName, Object value, Function<Object, Object> converter) {
+            this.setter = setter;
+            this.referenceBeanName = referenceBeanName;
+            this.value = value;
+            this.converter = converter;
+        }
+
+        private Object resolveValue(BeanFactory beanFactory) {
+            if (referenceBeanName != null) {
+                return beanFactory.getBean(referenceBeanName);
+            }
+            return converter != null ? converter.apply(value) : value;
+        }
+    }
+}
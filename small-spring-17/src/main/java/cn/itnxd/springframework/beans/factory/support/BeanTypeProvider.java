@@ -0,0 +1,111 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 01:30
+ * @Version 1.0
+ * @Description 按类型获取 bean 的 ObjectProvider
+ *
+ * 通过类型索引找到匹配的 beanName（不遍历 BeanDefinition），为每个 beanName 保存一个 BeanHandle；
+ * 容器的单例或者 BeanDefinition 变化（registryVersion 递增）后重新查找，名称没有变化的 BeanHandle 继续使用
+ */
+final class BeanTypeProvider<T> implements ObjectProvider<T> {
+
+    private final DefaultListableBeanFactory beanFactory;
+
+    private final Class<T> requiredType;
+
+    private volatile Resolution<T> resolution;
+
+    BeanTypeProvider(DefaultListableBeanFactory beanFactory, Class<T> requiredType) {
+        this.beanFactory = beanFactory;
+        this.requiredType = requiredType;
+    }
+
+    @Override
+    public T getObject() throws BeansException {
+        BeanHandle<T>[] handles = getHandles();
+        if (handles.length != 1) {
+            throw new BeansException(requiredType + "期待单例Bean，但是发现了 " + handles.length + ": " + describe(handles));
+        }
+        return handles[0].getObject();
+    }
+
+    @Override
+    public T getIfAvailable() throws BeansException {
+        BeanHandle<T>[] handles = getHandles();
+        if (handles.length == 0) {
+            return null;
+        }
+        if (handles.length > 1) {
+            throw new BeansException(requiredType + "期待单例Bean，但是发现了 " + handles.length + ": " + describe(handles));
+        }
+        return handles[0].getObject();
+    }
+
+    @Override
+    public T getIfUnique() throws BeansException {
+        BeanHandle<T>[] handles = getHandles();
+        return handles.length == 1 ? handles[0].getObject() : null;
+    }
+
+    @Override
+    public Stream<T> stream() throws BeansException {
+        return Arrays.stream(getHandles()).map(BeanHandle::getObject);
+    }
+
+    private BeanHandle<T>[] getHandles() {
+        int version = beanFactory.getRegistryVersion();
+        Resolution<T> current = resolution;
+        if (current == null || current.version != version) {
+            current = new Resolution<>(version, resolveHandles(current));
+            resolution = current;
+        }
+        return current.handles;
+    }
+
+    /**
+     * 按类型查找 beanName，复用上次解析中同名的 BeanHandle
+     * @param previous
+     * @return
+     */
+    private BeanHandle<T>[] resolveHandles(Resolution<T> previous) {
+        String[] beanNames = beanFactory.getBeanNamesForType(requiredType);
+        BeanHandle<T>[] handles = new BeanHandle[beanNames.length];
+        for (int i = 0; i < beanNames.length; i++) {
+            BeanHandle<T> handle = null;
+            if (previous != null) {
+                for (BeanHandle<T> previousHandle : previous.handles) {
+                    if (previousHandle.getBeanName().equals(beanNames[i])) {
+                        handle = previousHandle;
+                        break;
+                    }
+                }
+            }
+            handles[i] = handle != null ? handle : new BeanHandle<>(beanFactory, beanNames[i], requiredType);
+        }
+        return handles;
+    }
+
+    private static String describe(BeanHandle<?>[] handles) {
+        return Arrays.toString(Arrays.stream(handles).map(BeanHandle::getBeanName).toArray());
+    }
+
+    private static final class Resolution<T> {
+
+        private final int version;
+
+        private final BeanHandle<T>[] handles;
+
+        private Resolution(int version, BeanHandle<T>[] handles) {
+            this.version = version;
+            this.handles = handles;
+        }
+    }
+}
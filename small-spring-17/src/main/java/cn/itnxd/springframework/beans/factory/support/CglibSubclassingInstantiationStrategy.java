@@ -3,19 +3,53 @@ package cn.itnxd.springframework.beans.factory.support;
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
 import cn.itnxd.springframework.beans.factory.config.InstantiationStrategy;
+import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.NoOp;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 
 /**
  * @Author niuxudong
  * @Date 2023/4/11 21:39
  * @Version 1.0
  * @Description Cglib 实例化策略
+ *
+ * 修改：每个 bean 的 class 只生成一次子类并缓存，之后通过 cglib 的 Factory#newInstance 直接创建实例，
+ * 不再每次实例化都创建 Enhancer 去查找或生成子类
  */
 public class CglibSubclassingInstantiationStrategy implements InstantiationStrategy {
 
+    /*
+      CGLIB的NoOp接口是一个空的方法拦截器，它可以在创建代理类时作为回调函数，用于对目标类的方法进行空处理，即不做任何操作，直接返回原方法的返回值。
+      使用NoOp接口作为回调函数，可以在某些情况下提高代理类的性能，避免不必要的方法拦截和处理。
+
+      注意：NoOp.INSTANCE是NoOp接口的一个实例，表示空的方法拦截器。
+      使用NoOp接口作为回调函数时，目标类的方法必须是非final的，否则代理类无法覆盖该方法。
+     */
+    private static final Callback[] CALLBACKS = new Callback[]{NoOp.INSTANCE};
+
+    // 增加：每个 bean 的 class 对应生成的子类
+    private final ClassValue<GeneratedSubclass> generatedSubclasses = new ClassValue<GeneratedSubclass>() {
+        @Override
+        protected GeneratedSubclass computeValue(Class<?> beanClass) {
+            return new GeneratedSubclass(createSubclass(beanClass));
+        }
+    };
+
+    // 增加：跳过生成子类时直接实例化原始类
+    private final InstantiationStrategy directInstantiationStrategy = new MethodHandleInstantiationStrategy();
+
+    /*
+      增加：是否跳过生成子类，默认关闭保持原有行为（实例都是 cglib 子类）
+      回调只有 NoOp，生成的子类不会拦截任何方法（容器也不支持 lookup-method、replaced-method 这类需要子类实现的配置），
+      所以开启后对所有 bean 都直接实例化原始类
+     */
+    private boolean skipSubclassingIfPossible = false;
+
     /**
      * 引入Cglib依赖实现（根据父类实现子类）
      *
@@ -33,21 +67,89 @@ public class CglibSubclassingInstantiationStrategy implements InstantiationStrat
      */
     @Override
     public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor ctor, Object[] args) throws BeansException {
+        if (skipSubclassingIfPossible) {
+            return directInstantiationStrategy.instantiate(beanDefinition, beanName, ctor, args);
+        }
+        GeneratedSubclass subclass = generatedSubclasses.get(beanDefinition.getBeanClass());
+        Factory template = subclass.getTemplate();
+        if (template != null) {
+            // 通过已有实例的 Factory 接口创建新实例，等同于直接 new 生成的子类
+            if (ctor == null) {
+                return template.newInstance(CALLBACKS);
+            }
+            return template.newInstance(ctor.getParameterTypes(), args, CALLBACKS);
+        }
+        Object instance = subclass.newInstance(ctor, args);
+        subclass.setTemplate((Factory) instance);
+        return instance;
+    }
+
+    /**
+     * 生成 bean 的子类（只设置回调类型，实例化时再绑定回调）
+     * @param beanClass
+     * @return
+     */
+    private static Class<?> createSubclass(Class<?> beanClass) {
         // 1. 创建Enhancer对象，用于生成代理类
         Enhancer enhancer = new Enhancer();
         // 2. 设置代理类的父类或接口
-        enhancer.setSuperclass(beanDefinition.getBeanClass());
-        // 3. 设置回调函数，即拦截方法的逻辑处理
-        /*
-          CGLIB的NoOp接口是一个空的方法拦截器，它可以在创建代理类时作为回调函数，用于对目标类的方法进行空处理，即不做任何操作，直接返回原方法的返回值。
-          使用NoOp接口作为回调函数，可以在某些情况下提高代理类的性能，避免不必要的方法拦截和处理。
-
-          注意：NoOp.INSTANCE是NoOp接口的一个实例，表示空的方法拦截器。
-          使用NoOp接口作为回调函数时，目标类的方法必须是非final的，否则代理类无法覆盖该方法。
+        enhancer.setSuperclass(beanClass);
+        // 3. 设置回调函数类型，即拦截方法的逻辑处理
+        enhancer.setCallbackType(NoOp.class);
+        // 4. 生成代理类
+        return enhancer.createClass();
+    }
+
+    public boolean isSkipSubclassingIfPossible() {
+        return skipSubclassingIfPossible;
+    }
+
+    public void setSkipSubclassingIfPossible(boolean skipSubclassingIfPossible) {
+        this.skipSubclassingIfPossible = skipSubclassingIfPossible;
+    }
+
+    /**
+     * 生成的子类，第一次实例化的对象作为模板，之后通过模板的 Factory 接口创建新实例
+     *
+     * 修改：模板是用户的 bean，只保存弱引用，不会让 bean（例如已经销毁的原型）一直存活；被回收后下一次实例化的对象作为新的模板
+     */
+    private static final class GeneratedSubclass {
+
+        private final Class<?> subclass;
+
+        private volatile WeakReference<Factory> template;
+
+        private GeneratedSubclass(Class<?> subclass) {
+            this.subclass = subclass;
+        }
+
+        private Factory getTemplate() {
+            WeakReference<Factory> reference = template;
+            return reference != null ? reference.get() : null;
+        }
+
+        private void setTemplate(Factory template) {
+            this.template = new WeakReference<>(template);
+        }
+
+        /**
+         * 第一次实例化：通过反射调用子类构造器，构造期间绑定回调
+         * @param ctor
+         * @param args
+         * @return
          */
-        enhancer.setCallback(NoOp.INSTANCE);
-        // 4. 生成代理类实例
-        if (ctor == null) return enhancer.create();
-        return enhancer.create(ctor.getParameterTypes(), args);
+        private Object newInstance(Constructor<?> ctor, Object[] args) {
+            Enhancer.registerCallbacks(subclass, CALLBACKS);
+            try {
+                if (ctor == null) {
+                    return subclass.getDeclaredConstructor().newInstance();
+                }
+                return subclass.getDeclaredConstructor(ctor.getParameterTypes()).newInstance(args);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                throw new BeansException("cglib实例化【" + subclass.getSuperclass().getName() + "】失败。", e);
+            } finally {
+                Enhancer.registerCallbacks(subclass, null);
+            }
+        }
     }
 }
@@ -0,0 +1,332 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.hutool.core.convert.BasicType;
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Qualifier;
+import cn.itnxd.springframework.beans.annotation.Value;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.core.convert.ConversionService;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:56
+ * @Version 1.0
+ * @Description 构造器解析：选择实例化使用的构造器，并准备每个参数的获取方式
+ *
+ * 1、getBean 传入了参数：参数个数相同并且每个参数的类型可以赋值（或者可以通过类型转换服务转换）的构造器，需要转换的参数越少越优先
+ * 2、没有传入参数：有 @Autowired 构造器则使用它；没有则只有一个有参构造器时使用它；否则使用无参构造器
+ *      自动注入的参数：有 @Value 则解析占位符并转换，ObjectProvider<T> 注入 provider，否则按类型获取 bean（有 @Qualifier 则按名称）
+ *
+ * 解析结果（ConstructorPlan）按 BeanDefinition 缓存在容器中，之后创建 bean 不再反射查找构造器，
+ * bean 的类、类型转换服务变化或者传入参数的类型不同时重新解析
+ */
+final class ConstructorResolver {
+
+    private final AbstractAutowireCapableBeanFactory beanFactory;
+
+    // BeanDefinition -> 构造器计划（BeanDefinition 没有重写 equals，按对象区分）
+    private final Map<BeanDefinition, ConstructorPlan> constructorPlans = new ConcurrentHashMap<>(256);
+
+    ConstructorResolver(AbstractAutowireCapableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * 获取构造器计划，缓存的计划可用则直接返回
+     * @param beanName
+     * @param beanDefinition
+     * @param args getBean 传入的参数
+     * @return
+     */
+    ConstructorPlan resolve(String beanName, BeanDefinition beanDefinition, Object[] args) {
+        ConversionService conversionService = beanFactory.getConversionService();
+        Class<?> beanClass = beanFactory.resolveBeanClass(beanDefinition);
+        ConstructorPlan plan = constructorPlans.get(beanDefinition);
+        if (plan != null && plan.matches(beanClass, args, conversionService)) {
+            return plan;
+        }
+        plan = args != null
+                ? resolveExplicit(beanName, beanClass, args, conversionService)
+                : resolveAutowired(beanName, beanClass, conversionService);
+        // 并发解析出的计划是等价的，后放入的覆盖先放入的即可
+        constructorPlans.put(beanDefinition, plan);
+        return plan;
+    }
+
+    /**
+     * 移除 BeanDefinition 的构造器计划（BeanDefinition 被覆盖时调用）
+     * @param beanDefinition
+     */
+    void removeConstructorPlan(BeanDefinition beanDefinition) {
+        constructorPlans.remove(beanDefinition);
+    }
+
+    /**
+     * 按传入参数的类型选择构造器
+     * @param beanName
+     * @param beanClass
+     * @param args
+     * @param conversionService
+     * @return
+     */
+    private ConstructorPlan resolveExplicit(String beanName, Class<?> beanClass, Object[] args, ConversionService conversionService) {
+        Constructor<?> candidate = null;
+        Function<Object, Object>[] candidateConverters = null;
+        int minConversions = Integer.MAX_VALUE;
+        boolean ambiguous = false;
+        for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() != args.length) {
+                continue;
+            }
+            Function<Object, Object>[] converters = matchArguments(constructor.getParameterTypes(), args, conversionService);
+            if (converters == null) {
+                continue;
+            }
+            int conversions = (int) Arrays.stream(converters).filter(converter -> converter != null).count();
+            if (conversions < minConversions) {
+                candidate = constructor;
+                candidateConverters = converters;
+                minConversions = conversions;
+                ambiguous = false;
+            } else if (conversions == minConversions) {
+                ambiguous = true;
+            }
+        }
+        if (candidate == null) {
+            throw new BeansException("Bean【" + beanName + "】没有与参数 " + describe(args) + " 匹配的构造器");
+        }
+        if (ambiguous) {
+            throw new BeansException("Bean【" + beanName + "】有多个与参数 " + describe(args) + " 匹配的构造器");
+        }
+        Class<?>[] argumentClasses = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            argumentClasses[i] = args[i] == null ? null : args[i].getClass();
+        }
+        return new ConstructorPlan(beanClass, candidate, argumentClasses, candidateConverters, null, conversionService);
+    }
+
+    /**
+     * 判断参数能否传给构造器
+     * @param parameterTypes
+     * @param args
+     * @param conversionService
+     * @return 不匹配返回 null；否则返回每个参数的转换方式，不需要转换的为 null
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object>[] matchArguments(Class<?>[] parameterTypes, Object[] args, ConversionService conversionService) {
+        Function<Object, Object>[] converters = new Function[args.length];
+        for (int i = 0; i < args.length; i++) {
+            Class<?> parameterType = parameterTypes[i];
+            Object arg = args[i];
+            if (arg == null) {
+                if (parameterType.isPrimitive()) {
+                    return null;
+                }
+            } else if (!BasicType.wrap(parameterType).isInstance(arg)) {
+                if (conversionService == null || !conversionService.canConvert(arg.getClass(), parameterType)) {
+                    return null;
+                }
+                converters[i] = source -> conversionService.convert(source, parameterType);
+            }
+        }
+        return converters;
+    }
+
+    /**
+     * 自动注入的构造器
+     * @param beanName
+     * @param beanClass
+     * @param conversionService
+     * @return
+     */
+    private ConstructorPlan resolveAutowired(String beanName, Class<?> beanClass, ConversionService conversionService) {
+        Constructor<?> candidate = findAutowiredConstructor(beanName, beanClass);
+        if (candidate == null) {
+            return new ConstructorPlan(beanClass, null, null, null, null, null);
+        }
+        Parameter[] parameters = candidate.getParameters();
+        ArgumentResolver[] resolvers = new ArgumentResolver[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            resolvers[i] = argumentResolver(parameters[i], conversionService);
+        }
+        return new ConstructorPlan(beanClass, candidate, null, null, resolvers, conversionService);
+    }
+
+    /**
+     * 增加：自动注入使用的构造器：@Autowired 构造器，没有则只有一个有参构造器时使用它
+     * @param beanName
+     * @param beanClass
+     * @return 使用无参构造器时返回 null
+     */
+    static Constructor<?> findAutowiredConstructor(String beanName, Class<?> beanClass) {
+        Constructor<?>[] constructors = beanClass.getDeclaredConstructors();
+        Constructor<?> candidate = null;
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.isAnnotationPresent(Autowired.class)) {
+                if (candidate != null) {
+                    throw new BeansException("Bean【" + beanName + "】有多个 @Autowired 构造器");
+                }
+                candidate = constructor;
+            }
+        }
+        if (candidate == null && constructors.length == 1 && constructors[0].getParameterCount() > 0) {
+            candidate = constructors[0];
+        }
+        return candidate;
+    }
+
+    /**
+     * 准备自动注入参数的获取方式
+     * @param parameter
+     * @param conversionService
+     * @return
+     */
+    private static ArgumentResolver argumentResolver(Parameter parameter, ConversionService conversionService) {
+        Class<?> parameterType = parameter.getType();
+        Value valueAnnotation = parameter.getAnnotation(Value.class);
+        if (valueAnnotation != null) {
+            String expression = valueAnnotation.value();
+            // 与 @Value 字段一致：容器的类型转换服务优先，否则使用 hutool 转换
+            Function<Object, Object> converter = ValueConversions.converter(String.class, parameterType, conversionService);
+            if (converter == null) {
+                return factory -> factory.resolveEmbeddedValue(expression);
+            }
+            return factory -> converter.apply(factory.resolveEmbeddedValue(expression));
+        }
+        Qualifier qualifierAnnotation = parameter.getAnnotation(Qualifier.class);
+        if (parameterType == ObjectProvider.class) {
+            // ObjectProvider<T> 参数注入 provider，使用时才获取 bean
+            Class<?> providedType = ValueConversions.providedType(parameter.getParameterizedType());
+            String dependentBeanName = qualifierAnnotation != null ? qualifierAnnotation.value() : null;
+            return factory -> dependentBeanName != null
+                    ? factory.getBeanProvider(dependentBeanName, providedType)
+                    : factory.getBeanProvider(providedType);
+        }
+        if (qualifierAnnotation != null) {
+            String dependentBeanName = qualifierAnnotation.value();
+            return factory -> factory.getBean(dependentBeanName, parameterType);
+        }
+        return factory -> factory.getBean(parameterType);
+    }
+
+    private static String describe(Object[] args) {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(args[i] == null ? "null" : args[i].getClass().getName());
+        }
+        return sb.append(")").toString();
+    }
+
+    /**
+     * 自动注入参数的获取方式
+     */
+    @FunctionalInterface
+    private interface ArgumentResolver {
+
+        Object resolve(AbstractAutowireCapableBeanFactory beanFactory);
+    }
+
+    /**
+     * 解析好的构造器以及参数的获取方式
+     */
+    static final class ConstructorPlan {
+
+        // 解析时 bean 的类，BeanDefinition 换了类后不能复用
+        private final Class<?> beanClass;
+
+        // 为 null 则使用无参构造器
+        private final Constructor<?> constructor;
+
+        // 传入参数时：解析时参数的类型（null 参数为 null），类型相同才能复用
+        private final Class<?>[] argumentClasses;
+
+        // 传入参数时：每个参数的转换方式，不需要转换的为 null
+        private final Function<Object, Object>[] converters;
+
+        // 自动注入时：每个参数的获取方式
+        private final ArgumentResolver[] resolvers;
+
+        private final ConversionService conversionService;
+
+        private ConstructorPlan(Class<?> beanClass, Constructor<?> constructor, Class<?>[] argumentClasses,
+                                Function<Object, Object>[] converters, ArgumentResolver[] resolvers, ConversionService conversionService) {
+            this.beanClass = beanClass;
+            this.constructor = constructor;
+            this.argumentClasses = argumentClasses;
+            this.converters = converters;
+            this.resolvers = resolvers;
+            this.conversionService = conversionService;
+        }
+
+        /**
+         * 计划能否用于本次创建
+         * @param beanClass
+         * @param args
+         * @param conversionService
+         * @return
+         */
+        private boolean matches(Class<?> beanClass, Object[] args, ConversionService conversionService) {
+            if (this.beanClass != beanClass) {
+                return false;
+            }
+            if (args == null) {
+                // 无参构造器与类型转换服务无关
+                return argumentClasses == null && (constructor == null || this.conversionService == conversionService);
+            }
+            if (argumentClasses == null || argumentClasses.length != args.length || this.conversionService != conversionService) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if ((args[i] == null ? null : args[i].getClass()) != argumentClasses[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Constructor<?> getConstructor() {
+            return constructor;
+        }
+
+        /**
+         * 准备传给构造器的参数
+         * @param beanFactory
+         * @param args getBean 传入的参数
+         * @return
+         */
+        Object[] resolveArguments(AbstractAutowireCapableBeanFactory beanFactory, Object[] args) {
+            if (resolvers != null) {
+                Object[] arguments = new Object[resolvers.length];
+                for (int i = 0; i < resolvers.length; i++) {
+                    arguments[i] = resolvers[i].resolve(beanFactory);
+                }
+                return arguments;
+            }
+            if (converters == null) {
+                return args;
+            }
+            Object[] arguments = args;
+            for (int i = 0; i < converters.length; i++) {
+                if (converters[i] != null) {
+                    if (arguments == args) {
+                        arguments = args.clone();
+                    }
+                    arguments[i] = converters[i].apply(args[i]);
+                }
+            }
+            return arguments;
+        }
+    }
+}
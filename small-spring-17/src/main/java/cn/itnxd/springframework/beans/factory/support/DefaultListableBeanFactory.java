@@ -1,10 +1,26 @@
 package cn.itnxd.springframework.beans.factory.support;
 
+import cn.itnxd.springframework.beans.PropertyValue;
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Lazy;
+import cn.itnxd.springframework.beans.annotation.Qualifier;
+import cn.itnxd.springframework.beans.annotation.Value;
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.ConfigurableListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanReference;
+import cn.itnxd.springframework.core.type.classreading.ClassMetadata;
+import cn.itnxd.springframework.core.type.classreading.ClassMetadataReader;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @Author niuxudong
@@ -13,10 +29,35 @@ import java.util.*;
  * @Description BeanFactory 的核心实现类，继承抽象类 AbstractAutowireCapableBeanFactory（具有了 BeanFactory 和 AbstractBeanFactory 等一连串的功能实现），
  *
  *              本类具有了获取 BeanDefinition 和注册 BeanDefinition 的能力
+ *
+ *              增加：维护 类型 -> beanName 的索引，按类型获取 bean 时不再遍历所有 BeanDefinition
+ *              增加：索引以类名为 key，还没有加载的 bean 类通过读取 class 文件得到父类和接口，按类型查找不会加载类
  */
 public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFactory implements BeanDefinitionRegistry, ConfigurableListableBeanFactory {
 
-    private Map<String, BeanDefinition> beanDefinitionMap = new HashMap<>();
+    private static final String[] EMPTY_NAMES = new String[0];
+
+    private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
+
+    // 增加：按注册顺序保存的 beanName
+    private final List<String> beanDefinitionNames = new ArrayList<>(256);
+
+    /**
+     * 增加：类型索引，key 为 bean 的类型以及它的所有父类和接口，value 为该类型下的所有 beanName（按注册顺序）
+     *
+     * 为 null 表示索引失效，下次按类型查找时重新构建；索引中不存在的类型即没有匹配的 bean，直接返回空数组
+     * 修改：key 改为类的二进制名称
+     */
+    private volatile Map<String, String[]> beanNamesByType;
+
+    // 增加：类名 -> 直接父类和接口的类名，读取 class 文件得到
+    private final Map<String, String[]> supertypeNames = new ConcurrentHashMap<>(256);
+
+    // 增加：并行提前实例化单例使用的线程池，为空则按注册顺序依次创建（默认）
+    private ForkJoinPool preInstantiationPool;
+
+    // 增加：全局延迟注入，默认关闭
+    private boolean lazyInjection = false;
 
     /**
      * 实现抽象类 AbstractBeanFactory 定义的抽象方法获取 BeanDefinition
@@ -35,17 +76,171 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     /**
      * 实现 BeanDefinitionRegistry 的接口，注册 BeanDefinition
+     *
+     * 增加：新注册的 bean 直接追加到已构建的类型索引中；覆盖已有的 BeanDefinition 时类型可能变化，让索引失效
+     * 增加：覆盖已有的 BeanDefinition 时移除旧的创建配方
+     * 增加：通知 ObjectProvider 重新解析
      * @param beanName
      * @param beanDefinition
      */
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
-        beanDefinitionMap.put(beanName, beanDefinition);
+        synchronized (beanDefinitionNames) {
+            BeanDefinition existing = beanDefinitionMap.put(beanName, beanDefinition);
+            if (existing == null) {
+                beanDefinitionNames.add(beanName);
+            } else if (existing != beanDefinition) {
+                removeBeanRecipe(existing);
+            }
+            Map<String, String[]> index = this.beanNamesByType;
+            if (index != null) {
+                if (existing == null) {
+                    addToTypeIndex(index, beanName, beanDefinition);
+                } else {
+                    this.beanNamesByType = null;
+                }
+            }
+            registryChanged();
+        }
+    }
+
+    /**
+     * 增加：按类型获取所有匹配的 beanName（beanClass 是 type 或者是 type 的子类）
+     *
+     * @param type
+     * @return
+     */
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        String[] beanNames = getTypeIndex().get(type.getName());
+        return beanNames != null ? beanNames : EMPTY_NAMES;
+    }
+
+    /**
+     * 增加：beanName 对应的 bean 类是否是 type 或者是 type 的子类，类还没有加载时按类名判断，不会加载类
+     * @param beanName
+     * @param type
+     * @return
+     * @throws BeansException
+     */
+    @Override
+    public boolean isTypeMatch(String beanName, Class<?> type) throws BeansException {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        if (beanDefinition.hasBeanClass()) {
+            return type.isAssignableFrom(beanDefinition.getBeanClass());
+        }
+        return collectTypeNames(beanDefinition).contains(type.getName());
+    }
+
+    /**
+     * 获取类型索引，失效则重新构建（一次遍历所有 BeanDefinition）
+     * @return
+     */
+    private Map<String, String[]> getTypeIndex() {
+        Map<String, String[]> index = this.beanNamesByType;
+        if (index == null) {
+            synchronized (beanDefinitionNames) {
+                index = this.beanNamesByType;
+                if (index == null) {
+                    index = new ConcurrentHashMap<>(256);
+                    for (String beanName : beanDefinitionNames) {
+                        addToTypeIndex(index, beanName, beanDefinitionMap.get(beanName));
+                    }
+                    this.beanNamesByType = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 将 beanName 添加到 beanClass 以及它的所有父类和接口下
+     * @param index
+     * @param beanName
+     * @param beanDefinition
+     */
+    private void addToTypeIndex(Map<String, String[]> index, String beanName, BeanDefinition beanDefinition) {
+        for (String type : collectTypeNames(beanDefinition)) {
+            // 每次替换为新数组，并发读取的线程拿到的始终是完整的数组
+            index.merge(type, new String[]{beanName}, (oldNames, newNames) -> {
+                String[] merged = Arrays.copyOf(oldNames, oldNames.length + 1);
+                merged[oldNames.length] = newNames[0];
+                return merged;
+            });
+        }
+    }
+
+    /**
+     * 增加：bean 类以及它的所有父类和接口的类名
+     * @param beanDefinition
+     * @return
+     */
+    private Set<String> collectTypeNames(BeanDefinition beanDefinition) {
+        Set<String> types = new LinkedHashSet<>();
+        if (beanDefinition.hasBeanClass()) {
+            collectTypes(beanDefinition.getBeanClass(), types);
+        } else {
+            collectTypeNames(beanDefinition.getBeanClassName(), types);
+        }
+        return types;
+    }
+
+    private void collectTypes(Class<?> clazz, Set<String> types) {
+        if (clazz == null || !types.add(clazz.getName())) {
+            return;
+        }
+        collectTypes(clazz.getSuperclass(), types);
+        for (Class<?> ifc : clazz.getInterfaces()) {
+            collectTypes(ifc, types);
+        }
+    }
+
+    private void collectTypeNames(String className, Set<String> types) {
+        if (!types.add(className)) {
+            return;
+        }
+        for (String supertype : supertypeNames.computeIfAbsent(className, this::readSupertypeNames)) {
+            collectTypeNames(supertype, types);
+        }
+    }
+
+    /**
+     * 增加：读取 class 文件得到直接父类和接口，找不到 class 文件（例如运行时生成的类）时才加载类
+     * @param className
+     * @return
+     */
+    private String[] readSupertypeNames(String className) {
+        ClassMetadata metadata = ClassMetadataReader.read(getBeanClassLoader(), className);
+        List<String> supertypes = new ArrayList<>();
+        if (metadata != null) {
+            if (metadata.getSuperClassName() != null) {
+                supertypes.add(metadata.getSuperClassName());
+            }
+            supertypes.addAll(metadata.getInterfaceNames());
+        } else {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(className, false, getBeanClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 类不存在时只按类名匹配，获取 bean 时再报错
+                return new String[0];
+            }
+            if (clazz.getSuperclass() != null) {
+                supertypes.add(clazz.getSuperclass().getName());
+            }
+            for (Class<?> ifc : clazz.getInterfaces()) {
+                supertypes.add(ifc.getName());
+            }
+        }
+        return supertypes.toArray(new String[0]);
     }
 
     /**
      * 实现顶层BeanFactory的根据类型获取bean的方法
      *
+     * 修改：通过类型索引拿到 beanName，不再遍历 beanDefinitionMap
+     * 增加：作用域为 pooled 的 bean 只能借用，不包含在结果中
+     *
      * @param type
      * @return
      * @param <T>
@@ -53,15 +248,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     @Override
     public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
-            Class beanClass = beanDefinition.getBeanClass();
-            // beanClass 是 type 或者是 type 的子类为true
-            if (type.isAssignableFrom(beanClass)) {
-                T bean = (T) getBean(beanName);
-                result.put(beanName, bean);
-            }
-        });
+        Map<String, T> result = new LinkedHashMap<>();
+        for (String beanName : getBeanNamesForType(type)) {
+            if (beanDefinitionMap.get(beanName).isPooled()) {
+                continue;
+            }
+            T bean = (T) getBean(beanName);
+            result.put(beanName, bean);
+        }
         return result;
     }
 
@@ -71,26 +265,238 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      */
     @Override
     public String[] getBeanDefinitionNames() {
-        Set<String> beanNames = beanDefinitionMap.keySet();
-        return beanNames.toArray(new String[beanNames.size()]);
+        synchronized (beanDefinitionNames) {
+            return beanDefinitionNames.toArray(new String[0]);
+        }
     }
 
     /**
      * 实现ConfigurableListableBeanFactory的创建单实例方法
      *
      * 增加：支持懒加载
+     * 增加：设置了 preInstantiationPool 则按依赖关系并行创建
+     * 增加：非懒加载、配置了 minIdle 的对象池提前创建并补足空闲 bean
      *
      * @throws BeansException
      */
     @Override
     public void preInstantiateSingletons() throws BeansException {
-        // 对每个beanName都调用一次get方法即可，从一无所有到全都有
-        beanDefinitionMap.forEach((beanName, beanDefinition) -> {
+        List<String> beanNames = new ArrayList<>();
+        List<String> pooledBeanNames = new ArrayList<>();
+        for (String beanName : getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanDefinitionMap.get(beanName);
             // 单例且非懒加载才会在容器启动进行创建
             if (beanDefinition.isSingleton() && !beanDefinition.isLazyInit()) {
-                this.getBean(beanName);
+                beanNames.add(beanName);
+            } else if (beanDefinition.isPooled() && !beanDefinition.isLazyInit() && beanDefinition.getPoolConfig().getMinIdle() > 0) {
+                pooledBeanNames.add(beanName);
             }
-        });
+        }
+        if (preInstantiationPool == null) {
+            // 对每个beanName都调用一次get方法即可，从一无所有到全都有
+            for (String beanName : beanNames) {
+                getBean(beanName);
+            }
+        } else {
+            parallelPreInstantiateSingletons(beanNames);
+        }
+        // 对象池中的 bean 可能依赖单例，放到单例之后创建
+        for (String beanName : pooledBeanNames) {
+            getBeanPool(beanName);
+        }
+    }
+
+    /**
+     * 增加：并行提前实例化单例
+     *
+     * 1. 根据 BeanReference 属性、自动注入构造器的参数以及 @Autowired 字段构建单例之间的依赖图
+     * 2. 每个单例在它依赖的单例创建完成后提交到线程池创建，互不依赖的单例同时创建
+     * 3. 循环依赖的边直接忽略，仍然由三级缓存解决（单例的创建锁保证同一个 bean 不会被并发创建两次）
+     *    构造器循环依赖无法提前暴露引用，由单例创建锁的等待环检测抛出异常
+     *
+     * 修改：被依赖的懒加载单例也加入依赖图，由一个任务先创建，不再由多个依赖它的任务同时触发创建
+     *
+     * @param beanNames
+     */
+    private void parallelPreInstantiateSingletons(List<String> beanNames) {
+        Map<String, CompletableFuture<Void>> futures = scheduleCreations(buildDependencyGraph(beanNames));
+        try {
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof BeansException) {
+                throw (BeansException) cause;
+            }
+            throw new BeansException("并行实例化单例失败", cause);
+        }
+    }
+
+    /**
+     * 构建依赖图：提前实例化的单例以及它们（直接或间接）依赖的单例 -> 依赖的单例
+     *
+     * 原型等非单例 bean 每次获取都会新建，不需要等待，创建时按需获取
+     *
+     * @param beanNames
+     * @return
+     */
+    private Map<String, Set<String>> buildDependencyGraph(List<String> beanNames) {
+        Map<String, Set<String>> dependencyGraph = new LinkedHashMap<>();
+        Deque<String> pending = new ArrayDeque<>(beanNames);
+        while (!pending.isEmpty()) {
+            String beanName = pending.poll();
+            if (dependencyGraph.containsKey(beanName)) {
+                continue;
+            }
+            Set<String> dependencies = new LinkedHashSet<>();
+            for (String dependency : resolveDependencies(beanName, beanDefinitionMap.get(beanName))) {
+                BeanDefinition dependencyDefinition = beanDefinitionMap.get(dependency);
+                if (dependencyDefinition != null && dependencyDefinition.isSingleton()) {
+                    dependencies.add(dependency);
+                    pending.add(dependency);
+                }
+            }
+            dependencyGraph.put(beanName, dependencies);
+        }
+        return dependencyGraph;
+    }
+
+    /**
+     * 按拓扑顺序（Kahn 算法）为每个 bean 创建任务：等待所有依赖的任务完成后再创建自身
+     *
+     * 修改：不再按依赖边递归，依赖链很长时也不会栈溢出
+     * 剩下的 bean 都在循环依赖上（或者依赖循环上的 bean）时，取注册顺序最靠前的一个，
+     * 忽略它还没有任务的依赖（即循环依赖的边）
+     *
+     * @param dependencyGraph
+     * @return
+     */
+    private Map<String, CompletableFuture<Void>> scheduleCreations(Map<String, Set<String>> dependencyGraph) {
+        // beanName -> 还没有创建任务的依赖个数
+        Map<String, Integer> pendingDependencies = new HashMap<>();
+        // beanName -> 依赖它的 beanName
+        Map<String, List<String>> dependents = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        for (Map.Entry<String, Set<String>> entry : dependencyGraph.entrySet()) {
+            pendingDependencies.put(entry.getKey(), entry.getValue().size());
+            for (String dependency : entry.getValue()) {
+                dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(entry.getKey());
+            }
+            if (entry.getValue().isEmpty()) {
+                ready.add(entry.getKey());
+            }
+        }
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+        Iterator<String> registrationOrder = dependencyGraph.keySet().iterator();
+        while (futures.size() < dependencyGraph.size()) {
+            if (ready.isEmpty()) {
+                // 剩下的都在循环依赖上，打破一条循环
+                String cycleMember = registrationOrder.next();
+                while (futures.containsKey(cycleMember)) {
+                    cycleMember = registrationOrder.next();
+                }
+                ready.add(cycleMember);
+            }
+            String beanName = ready.poll();
+            if (futures.containsKey(beanName)) {
+                // 打破循环时已经创建了任务
+                continue;
+            }
+            List<CompletableFuture<Void>> dependencyFutures = new ArrayList<>();
+            for (String dependency : dependencyGraph.get(beanName)) {
+                CompletableFuture<Void> dependencyFuture = futures.get(dependency);
+                if (dependencyFuture != null) {
+                    dependencyFutures.add(dependencyFuture);
+                }
+            }
+            futures.put(beanName, CompletableFuture.allOf(dependencyFutures.toArray(new CompletableFuture[0]))
+                    .thenRunAsync(() -> getBean(beanName), preInstantiationPool));
+            for (String dependent : dependents.getOrDefault(beanName, Collections.emptyList())) {
+                if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * 解析 bean 依赖的 beanName：xml 中 ref 引用的 bean 以及 @Autowired 注解的字段（包括父类字段）
+     *
+     * 增加：自动注入构造器的参数（@Value 和 ObjectProvider 参数不需要等待依赖创建）
+     *
+     * @param beanName
+     * @param beanDefinition
+     * @return
+     */
+    private Set<String> resolveDependencies(String beanName, BeanDefinition beanDefinition) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+            if (propertyValue.getValue() instanceof BeanReference) {
+                dependencies.add(((BeanReference) propertyValue.getValue()).getBeanName());
+            }
+        }
+        Constructor<?> constructor = ConstructorResolver.findAutowiredConstructor(beanName, resolveBeanClass(beanDefinition));
+        if (constructor != null) {
+            for (Parameter parameter : constructor.getParameters()) {
+                if (parameter.getAnnotation(Value.class) != null || parameter.getType() == ObjectProvider.class) {
+                    continue;
+                }
+                Qualifier qualifier = parameter.getAnnotation(Qualifier.class);
+                if (qualifier != null) {
+                    dependencies.add(qualifier.value());
+                } else {
+                    dependencies.addAll(Arrays.asList(getBeanNamesForType(parameter.getType())));
+                }
+            }
+        }
+        for (Class<?> clazz = resolveBeanClass(beanDefinition); clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.getAnnotation(Autowired.class) == null) {
+                    continue;
+                }
+                // 增加：延迟注入的字段不需要等待依赖创建
+                Lazy lazy = field.getAnnotation(Lazy.class);
+                if (lazy != null && lazy.value()) {
+                    continue;
+                }
+                Qualifier qualifier = field.getAnnotation(Qualifier.class);
+                String[] candidates = qualifier != null ? new String[]{qualifier.value()} : getBeanNamesForType(field.getType());
+                for (String candidate : candidates) {
+                    // 修改：开启全局延迟注入时懒加载的单例可能注入代理，不提前创建
+                    BeanDefinition candidateDefinition = beanDefinitionMap.get(candidate);
+                    if (lazyInjection && candidateDefinition != null && candidateDefinition.isLazyInit()) {
+                        continue;
+                    }
+                    dependencies.add(candidate);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    public ForkJoinPool getPreInstantiationPool() {
+        return preInstantiationPool;
+    }
+
+    /**
+     * 增加：设置并行提前实例化单例的线程池，为空则依次创建
+     * @param preInstantiationPool
+     */
+    public void setPreInstantiationPool(ForkJoinPool preInstantiationPool) {
+        this.preInstantiationPool = preInstantiationPool;
+    }
+
+    @Override
+    public boolean isLazyInjection() {
+        return lazyInjection;
+    }
+
+    /**
+     * 增加：设置全局延迟注入，开启后 @Autowired 注入懒加载且还没有创建的单例时注入延迟解析的代理
+     * @param lazyInjection
+     */
+    public void setLazyInjection(boolean lazyInjection) {
+        this.lazyInjection = lazyInjection;
     }
 
     @Override
@@ -99,17 +505,21 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
 
     public <T> T getBean(Class<T> requiredType) throws BeansException {
-        List<String> beanNames = new ArrayList<>();
-        for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-            Class<?> beanClass = entry.getValue().getBeanClass();
-            // beanClass 是需求类型或子类
-            if (requiredType.isAssignableFrom(beanClass)) {
-                beanNames.add(entry.getKey());
-            }
-        }
-        if (beanNames.size() == 1) {
-            return getBean(beanNames.get(0), requiredType);
+        String[] beanNames = getBeanNamesForType(requiredType);
+        if (beanNames.length == 1) {
+            return getBean(beanNames[0], requiredType);
         }
-        throw new BeansException(requiredType + "期待单例Bean，但是发现了 " + beanNames.size() + ": " + beanNames);
+        throw new BeansException(requiredType + "期待单例Bean，但是发现了 " + beanNames.length + ": " + Arrays.toString(beanNames));
+    }
+
+    /**
+     * 增加：按类型获取 ObjectProvider，通过类型索引查找 beanName
+     * @param requiredType
+     * @return
+     * @param <T>
+     */
+    @Override
+    public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+        return new BeanTypeProvider<>(this, requiredType);
     }
 }
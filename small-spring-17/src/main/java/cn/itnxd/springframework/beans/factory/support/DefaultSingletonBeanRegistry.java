@@ -6,35 +6,70 @@ import cn.itnxd.springframework.beans.factory.DisposableBean;
 import cn.itnxd.springframework.beans.factory.config.SingletonBeanRegistry;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @Author niuxudong
  * @Date 2023/4/9 19:31
  * @Version 1.0
  * @Description 本类实现顶层单例接口 SingletonBeanRegistry
+ *
+ * 修改：支持多线程并发获取单例 bean
+ *      1、一级缓存使用 ConcurrentHashMap，创建完成的单例直接无锁读取
+ *      2、每个 beanName 持有一把创建锁，保证同一个单例只会被创建一次，不同 bean 之间可以并行创建
+ *      3、二级三级缓存只在 bean 创建过程中才会访问
+ *      4、增加：创建完成的单例由 AbstractBeanFactory 的快速路径直接返回，不再经过本类
  */
 public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
+    // 嵌套创建时等待创建锁的间隔，超时后重新检查是否与其他线程互相等待（锁释放时会直接唤醒，不依赖这个间隔）
+    private static final long CYCLE_CHECK_MILLIS = 200;
+
+    // 发现互相等待之后再次确认的间隔，避免读到各线程状态变化中间的结果
+    private static final long CYCLE_CONFIRM_MILLIS = 10;
+
     // 存放单例对象（一级缓存）
-    private final Map<String, Object> singletonObjects = new HashMap<>();
+    private final Map<String, Object> singletonObjects = new ConcurrentHashMap<>(256);
 
     // 增加二级缓存 earlySingletonObjects
-    private final Map<String, Object> earlySingletonObjects = new HashMap<>();
+    private final Map<String, Object> earlySingletonObjects = new ConcurrentHashMap<>(16);
 
     // 增加三级缓存 singletonFactories
-    private final Map<String, ObjectFactory<?>> singletonFactories = new HashMap<>();
+    private final Map<String, ObjectFactory<?>> singletonFactories = new ConcurrentHashMap<>(16);
+
+    // 增加：存放 disposableBean（按注册顺序保存，访问时加锁）
+    private final Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+
+    // 增加：正在创建中的单例 beanName
+    private final Set<String> singletonsCurrentlyInCreation = ConcurrentHashMap.newKeySet(16);
+
+    // 增加：每个 beanName 一把创建锁
+    private final Map<String, ReentrantLock> singletonLocks = new ConcurrentHashMap<>(256);
+
+    // 增加：持有创建锁的线程
+    private final Map<String, Thread> singletonCreators = new ConcurrentHashMap<>(16);
 
-    // 增加：存放 disposableBean
-    private final Map<String, DisposableBean> disposableBeans = new HashMap<>();
+    // 增加：嵌套创建时正在等待其他线程创建完成的 beanName
+    private final Map<Thread, String> waitingSingletons = new ConcurrentHashMap<>(16);
+
+    // 增加：当前线程正在创建的单例数量，大于 0 说明当前是在创建其他 bean 的过程中获取依赖
+    private final ThreadLocal<int[]> creationDepth = ThreadLocal.withInitial(() -> new int[1]);
 
     /**
      * 实现顶层单例接口的唯一个获取单例对象的方法
      *
      * 修改，先获取一级缓存 singletonObjects（设置属性之后的 Bean）
      * 空则再获取二级缓存获取 earlySingletonObjects（未设置属性的 Bean）
+     *
+     * 修改：只有 bean 正在创建中时才会去访问二级三级缓存，创建完成的单例只需要一次无锁的 map 读取
+     * 修改：只有正在创建这个 bean 的线程（循环依赖）才能拿到提前暴露的引用，其他线程拿到 null，
+     * 之后通过 getSingleton(beanName, singletonFactory) 等待创建完成，不会拿到未初始化完成的 bean
      * @param beanName
      * @return
      */
@@ -42,32 +77,203 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
     public Object getSingleton(String beanName) {
         // 先获取一级缓存（完整对象）
         Object singletonObject = singletonObjects.get(beanName);
+        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName) && isCreatedByCurrentThread(beanName)) {
+            singletonObject = getEarlySingleton(beanName);
+        }
+        return singletonObject;
+    }
+
+    /**
+     * 增加：当前线程是否持有 beanName 的创建锁
+     * @param beanName
+     * @return
+     */
+    private boolean isCreatedByCurrentThread(String beanName) {
+        ReentrantLock lock = singletonLocks.get(beanName);
+        return lock != null && lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * 增加：获取提前暴露的引用（二级缓存，没有则通过三级缓存的工厂生成）
+     * @param beanName
+     * @return
+     */
+    private Object getEarlySingleton(String beanName) {
+        // 为空获取二级缓存（未设置属性的对象）
+        Object singletonObject = earlySingletonObjects.get(beanName);
         if (singletonObject == null) {
-            // 为空获取二级缓存（未设置属性的对象）
-            singletonObject = earlySingletonObjects.get(beanName);
-            if (singletonObject == null) {
-                // 仍空则获取三级缓存（代理对象的引用）
-                ObjectFactory<?> singletonFactory = singletonFactories.get(beanName);
-                if (singletonFactory != null) {
-                    // 三级缓存不空则获取代理对象引用返回
-                    singletonObject = singletonFactory.getObject();
-                    // 将三级缓存代理对象引用放进二级缓存
-                    earlySingletonObjects.put(beanName, singletonObject);
-                    // 删除三级缓存代理对象引用
-                    singletonFactories.remove(beanName);
+            // 仍空则获取三级缓存（代理对象的引用）
+            ObjectFactory<?> singletonFactory = singletonFactories.get(beanName);
+            if (singletonFactory != null) {
+                // 以三级缓存中的工厂为锁，保证多个线程同时获取时提前暴露的引用只会生成一次
+                synchronized (singletonFactory) {
+                    singletonObject = earlySingletonObjects.get(beanName);
+                    if (singletonObject == null && singletonFactories.get(beanName) == singletonFactory) {
+                        // 三级缓存不空则获取代理对象引用返回
+                        singletonObject = singletonFactory.getObject();
+                        // 将三级缓存代理对象引用放进二级缓存
+                        earlySingletonObjects.put(beanName, singletonObject);
+                        // 删除三级缓存代理对象引用
+                        singletonFactories.remove(beanName);
+                    }
                 }
             }
         }
         return singletonObject;
     }
 
+    /**
+     * 增加：获取单例，不存在则在 beanName 对应的创建锁内通过 singletonFactory 创建
+     *
+     * 不在创建流程中的线程直接阻塞等待创建锁；而在创建其他 bean 过程中获取依赖的线程（嵌套创建）自身已经持有锁，
+     * 若直接阻塞可能会与另一个线程互相等待对方持有的锁（A 依赖 B，B 依赖 A 分别在两个线程创建）。
+     * 修改：嵌套创建时同样阻塞等待创建锁，只有等待关系成环（对方也在等待当前线程持有的锁）时才使用对方提前暴露的引用，
+     * 与单线程下的循环依赖处理方式一致；没有成环时一直等到对方创建完成，不会拿到还没有初始化完成的 bean。
+     * 成环而对方还没有暴露引用（例如构造器互相依赖）时任何一方都不会再有进展，放弃等待并抛出异常
+     *
+     * @param beanName
+     * @param singletonFactory
+     * @return
+     */
+    public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+        Object singletonObject = singletonObjects.get(beanName);
+        if (singletonObject != null) {
+            return singletonObject;
+        }
+        ReentrantLock lock = singletonLocks.computeIfAbsent(beanName, k -> new ReentrantLock());
+        if (lock.isHeldByCurrentThread()) {
+            // 同一线程再次进入说明出现了无法通过提前暴露引用解决的循环依赖（例如实例化阶段就依赖了自己）
+            throw new BeansException("单例 bean【" + beanName + "】正在创建中，存在无法解决的循环依赖");
+        }
+        Thread currentThread = Thread.currentThread();
+        if (creationDepth.get()[0] > 0) {
+            waitingSingletons.put(currentThread, beanName);
+            try {
+                // 先登记等待再检查：两个线程同时开始互相等待时，至少有一方能看到对方的登记
+                boolean waitCycleSeen = !lock.tryLock() && isWaitCycle(beanName, currentThread);
+                while (!lock.isHeldByCurrentThread()
+                        && !lock.tryLock(waitCycleSeen ? CYCLE_CONFIRM_MILLIS : CYCLE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                    boolean waitCycle = isWaitCycle(beanName, currentThread);
+                    if (waitCycle && waitCycleSeen) {
+                        // 连续两次检测到成环：使用对方提前暴露的引用，没有则放弃
+                        singletonObject = singletonObjects.get(beanName);
+                        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+                            singletonObject = getEarlySingleton(beanName);
+                        }
+                        if (singletonObject != null) {
+                            return singletonObject;
+                        }
+                        throw new BeansException("单例 bean【" + beanName + "】正在被其他线程创建，且与当前线程互相等待，存在无法解决的循环依赖");
+                    }
+                    waitCycleSeen = waitCycle;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BeansException("等待单例 bean【" + beanName + "】创建时线程被中断", e);
+            } finally {
+                waitingSingletons.remove(currentThread);
+            }
+        } else {
+            lock.lock();
+        }
+        singletonCreators.put(beanName, currentThread);
+        try {
+            // 双重检查：等待锁期间可能已经被其他线程创建完成
+            singletonObject = singletonObjects.get(beanName);
+            if (singletonObject != null) {
+                return singletonObject;
+            }
+            beforeSingletonCreation(beanName);
+            try {
+                singletonObject = singletonFactory.getObject();
+                // 先放入一级缓存再移除创建中标记，其他线程不会看到既不在缓存也不在创建中的空窗期
+                addSingleton(beanName, singletonObject);
+            } catch (RuntimeException e) {
+                // 创建失败则清理掉提前暴露的引用，避免其他线程拿到半成品
+                removeSingleton(beanName);
+                throw e;
+            } finally {
+                afterSingletonCreation(beanName);
+            }
+            return singletonObject;
+        } finally {
+            singletonCreators.remove(beanName);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 增加：从 beanName 的创建线程开始沿着“等待的 bean -> 创建它的线程”查找，回到当前线程说明互相等待
+     * @param beanName 当前线程等待的 bean
+     * @param currentThread
+     * @return
+     */
+    private boolean isWaitCycle(String beanName, Thread currentThread) {
+        String waitingFor = beanName;
+        for (int i = 0, max = waitingSingletons.size(); i <= max; i++) {
+            Thread creator = singletonCreators.get(waitingFor);
+            if (creator == null) {
+                return false;
+            }
+            if (creator == currentThread) {
+                return true;
+            }
+            waitingFor = waitingSingletons.get(creator);
+            if (waitingFor == null) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 增加：只获取二级缓存中提前暴露的引用，不触发三级缓存的工厂
+     * @param beanName
+     * @return
+     */
+    protected Object getEarlySingletonReference(String beanName) {
+        return earlySingletonObjects.get(beanName);
+    }
+
+    /**
+     * 增加：单例是否已经创建完成并且就是 singletonObject（在一级缓存中并且不在创建中）
+     * @param beanName
+     * @param singletonObject
+     * @return
+     */
+    protected boolean isSingletonCompleted(String beanName, Object singletonObject) {
+        return singletonObjects.get(beanName) == singletonObject && !isSingletonCurrentlyInCreation(beanName);
+    }
+
+    /**
+     * 增加：判断单例是否正在创建中
+     * @param beanName
+     * @return
+     */
+    public boolean isSingletonCurrentlyInCreation(String beanName) {
+        return singletonsCurrentlyInCreation.contains(beanName);
+    }
+
+    protected void beforeSingletonCreation(String beanName) {
+        singletonsCurrentlyInCreation.add(beanName);
+        creationDepth.get()[0]++;
+    }
+
+    protected void afterSingletonCreation(String beanName) {
+        singletonsCurrentlyInCreation.remove(beanName);
+        creationDepth.get()[0]--;
+    }
+
     /**
      * 添加三级缓存
      * @param beanName
      * @param singletonFactory
      */
     protected void addSingletonFactory(String beanName, ObjectFactory<?> singletonFactory) {
-        singletonFactories.put(beanName, singletonFactory);
+        if (!singletonObjects.containsKey(beanName)) {
+            singletonFactories.put(beanName, singletonFactory);
+            earlySingletonObjects.remove(beanName);
+        }
     }
 
     /**
@@ -84,22 +290,43 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
         singletonFactories.remove(beanName);
     }
 
+    /**
+     * 增加：从各级缓存中移除单例
+     * @param beanName
+     */
+    protected void removeSingleton(String beanName) {
+        singletonObjects.remove(beanName);
+        earlySingletonObjects.remove(beanName);
+        singletonFactories.remove(beanName);
+    }
+
     /**
      * 注册 disposableBean 到单例bean注册中心保存
      * @param beanName
      * @param disposableBean
      */
     public void registerDisposableBean(String beanName, DisposableBean disposableBean) {
-        disposableBeans.put(beanName, disposableBean);
+        synchronized (disposableBeans) {
+            disposableBeans.put(beanName, disposableBean);
+        }
     }
 
     /**
      * 通过接口 disposableBean 方式销毁单例 bean 的方法
      */
     public void destroySingletons() {
-        List<String> beanNames = new ArrayList<>(disposableBeans.keySet());
+        List<String> beanNames;
+        synchronized (disposableBeans) {
+            beanNames = new ArrayList<>(disposableBeans.keySet());
+        }
         for (String beanName : beanNames) {
-            DisposableBean disposableBean = disposableBeans.remove(beanName);
+            DisposableBean disposableBean;
+            synchronized (disposableBeans) {
+                disposableBean = disposableBeans.remove(beanName);
+            }
+            if (disposableBean == null) {
+                continue;
+            }
             try {
                 disposableBean.destroy();
             } catch (BeansException e) {
@@ -5,6 +5,7 @@ import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.DisposableBean;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
@@ -20,6 +21,8 @@ import java.lang.reflect.Method;
  *   所有 init 方法即可，包括 xml 中的以及 实现了接口方式的。
  *   而 销毁方法则不同，销毁只需要执行一次即可，因此，需要做一下特殊处理，由于我们并不需要关注要
  *   执行哪些销毁方法，因此，可以定义个适配器 adapter 来适配两种类型的销毁方法。
+ *
+ *   增加：可以传入 bean 配方中已经解析好的 destroy-method，销毁时不再按名字查找
  */
 public class DisposableBeanAdapter implements DisposableBean {
 
@@ -27,10 +30,18 @@ public class DisposableBeanAdapter implements DisposableBean {
     private final String beanName;
     private final String destroyMethodName;
 
+    // 增加：已经解析好的 destroy-method，为空则销毁时反射查找
+    private final MethodHandle destroyMethod;
+
     public DisposableBeanAdapter(Object bean, String beanName, BeanDefinition beanDefinition) {
+        this(bean, beanName, beanDefinition, null);
+    }
+
+    public DisposableBeanAdapter(Object bean, String beanName, BeanDefinition beanDefinition, MethodHandle destroyMethod) {
         this.bean = bean;
         this.beanName = beanName;
         this.destroyMethodName = beanDefinition.getDestroyMethodName();
+        this.destroyMethod = destroyMethod;
     }
 
     /**
@@ -48,6 +59,14 @@ public class DisposableBeanAdapter implements DisposableBean {
         // （没有实现接口时执行这里 或者 实现了接口但是 销毁方法不是 destroy 时执行）
         // 这里其实保证了接口中定义的 destroy 方法只执行一次
         if (StrUtil.isNotEmpty(destroyMethodName) && !(bean instanceof DisposableBean && "destroy".equals(destroyMethodName))) {
+            if (destroyMethod != null) {
+                try {
+                    destroyMethod.invokeExact(bean);
+                } catch (Throwable e) {
+                    throw new BeansException("执行 bean【" + beanName + "】的 destroy-method 方法失败", e);
+                }
+                return;
+            }
             try {
                 Method destroyMethod = bean.getClass().getMethod(destroyMethodName);
                 destroyMethod.invoke(bean);
@@ -0,0 +1,115 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.InstantiationStrategy;
+
+import java.lang.invoke.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 14:20
+ * @Version 1.0
+ * @Description 编译构造器的实例化策略
+ *
+ * SimpleInstantiationStrategy 每次实例化都要反射查找构造器再 newInstance，
+ * 本策略每个构造器只解析一次，编译成可以直接调用的实例化器缓存起来：
+ *      1、public 类的 public 无参构造器：通过 LambdaMetafactory 生成 Supplier，调用等同于直接 new
+ *         （生成的 lambda 类由本类的类加载器解析 bean 类，bean 类只能由其他类加载器加载到时使用第 2 种方式）
+ *      2、其他构造器：生成 MethodHandle，参数统一为 Object[]，调用时 invokeExact
+ */
+public class MethodHandleInstantiationStrategy implements InstantiationStrategy {
+
+    private static final MethodType SUPPLIER_TYPE = MethodType.methodType(Supplier.class);
+
+    private static final MethodType INSTANTIATOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    // 无参构造器的实例化器，ClassValue 随 Class 一起回收，不会造成类加载器泄漏
+    private final ClassValue<Instantiator> defaultInstantiators = new ClassValue<Instantiator>() {
+        @Override
+        protected Instantiator computeValue(Class<?> type) {
+            try {
+                return compile(type.getDeclaredConstructor());
+            } catch (NoSuchMethodException e) {
+                throw new BeansException("【" + type.getName() + "】没有无参构造器", e);
+            }
+        }
+    };
+
+    // 有参构造器的实例化器，同样按声明构造器的类保存在 ClassValue 中
+    private final ClassValue<Map<Constructor<?>, Instantiator>> instantiators = new ClassValue<Map<Constructor<?>, Instantiator>>() {
+        @Override
+        protected Map<Constructor<?>, Instantiator> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    @Override
+    public Object instantiate(BeanDefinition beanDefinition, String beanName, Constructor ctor, Object[] args) throws BeansException {
+        Instantiator instantiator = ctor == null
+                ? defaultInstantiators.get(beanDefinition.getBeanClass())
+                : instantiators.get(ctor.getDeclaringClass()).computeIfAbsent(ctor, MethodHandleInstantiationStrategy::compile);
+        try {
+            return instantiator.newInstance(args);
+        } catch (Throwable e) {
+            throw new BeansException("实例化【" + beanDefinition.getBeanClass().getName() + "】失败。", e);
+        }
+    }
+
+    /**
+     * 将构造器编译为实例化器
+     * @param ctor
+     * @return
+     */
+    private static Instantiator compile(Constructor<?> ctor) {
+        Class<?> beanClass = ctor.getDeclaringClass();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            // 生成的 lambda 类在本类所在的包中，只有 public 的类和构造器才能直接访问
+            if (ctor.getParameterCount() == 0 && Modifier.isPublic(beanClass.getModifiers()) && Modifier.isPublic(ctor.getModifiers())
+                    && isVisible(beanClass)) {
+                MethodHandle constructorHandle = lookup.findConstructor(beanClass, MethodType.methodType(void.class));
+                CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", SUPPLIER_TYPE,
+                        MethodType.methodType(Object.class), constructorHandle, MethodType.methodType(beanClass));
+                Supplier<?> supplier = (Supplier<?>) callSite.getTarget().invokeExact();
+                return args -> supplier.get();
+            }
+            ctor.setAccessible(true);
+            MethodHandle constructorHandle = lookup.unreflectConstructor(ctor);
+            // 参数和返回值统一为 Object，再将参数收集为 Object[]，调用时可以使用 invokeExact
+            MethodHandle handle = constructorHandle.asType(constructorHandle.type().generic())
+                    .asSpreader(Object[].class, ctor.getParameterCount())
+                    .asType(INSTANTIATOR_TYPE);
+            return args -> handle.invokeExact(args);
+        } catch (Throwable e) {
+            throw new BeansException("编译【" + beanClass.getName() + "】的构造器失败", e);
+        }
+    }
+
+    /**
+     * 本类的类加载器按类名加载到的是否就是 bean 类（bean 类可能由子类加载器加载，例如设置了 beanClassLoader）
+     * @param beanClass
+     * @return
+     */
+    private static boolean isVisible(Class<?> beanClass) {
+        try {
+            return Class.forName(beanClass.getName(), false, MethodHandleInstantiationStrategy.class.getClassLoader()) == beanClass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * 编译好的实例化器
+     */
+    @FunctionalInterface
+    private interface Instantiator {
+
+        Object newInstance(Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,138 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.itnxd.springframework.beans.ObjectFactory;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.DisposableBean;
+import cn.itnxd.springframework.beans.factory.config.Scope;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 18:20
+ * @Version 1.0
+ * @Description 内置的 thread 作用域：每个线程一个 bean
+ *
+ * 1、bean 保存在当前线程的 ThreadLocal 中，获取时没有任何锁竞争，适合线程不安全的格式化器、摘要、缓冲区等
+ * 2、线程结束后，在下一个线程第一次使用本作用域时（或者调用 destroyTerminatedThreads）执行该线程中 bean 的销毁回调
+ * 3、容器关闭时销毁所有线程中的 bean
+ *    修改：同时换用新的 ThreadLocal，仍然存活的线程（例如线程池）中旧的条目不再被使用，之后再使用本作用域时重新注册
+ *
+ * 只弱引用线程，作用域不会阻止线程对象被回收
+ */
+public class ThreadScope implements Scope, DisposableBean {
+
+    public static final String SCOPE_THREAD = "thread";
+
+    // 修改：销毁时替换，旧的 ThreadLocal 不再被引用，存活线程中的旧条目随之失效并被清理
+    private volatile ThreadLocal<ThreadBeans> threadBeans = newThreadBeansHolder();
+
+    // 所有还没有销毁的线程的 bean
+    private final Set<ThreadBeans> liveThreadBeans = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Map<String, Object> beans = threadBeans.get().beans;
+        Object bean = beans.get(name);
+        if (bean == null) {
+            bean = objectFactory.getObject();
+            beans.put(name, bean);
+        }
+        return bean;
+    }
+
+    @Override
+    public Object remove(String name) {
+        ThreadBeans current = threadBeans.get();
+        synchronized (current) {
+            current.destructionCallbacks.remove(name);
+        }
+        return current.beans.remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        ThreadBeans current = threadBeans.get();
+        synchronized (current) {
+            current.destructionCallbacks.put(name, callback);
+        }
+    }
+
+    private ThreadLocal<ThreadBeans> newThreadBeansHolder() {
+        return ThreadLocal.withInitial(this::registerThread);
+    }
+
+    /**
+     * 当前线程第一次使用时注册，顺便销毁已经结束的线程中的 bean
+     * @return
+     */
+    private ThreadBeans registerThread() {
+        destroyTerminatedThreads();
+        ThreadBeans current = new ThreadBeans(Thread.currentThread());
+        liveThreadBeans.add(current);
+        return current;
+    }
+
+    /**
+     * 销毁已经结束的线程中的 bean
+     */
+    public void destroyTerminatedThreads() {
+        for (ThreadBeans threadBeans : liveThreadBeans) {
+            Thread thread = threadBeans.get();
+            if (thread == null || !thread.isAlive()) {
+                destroy(threadBeans);
+            }
+        }
+    }
+
+    private void destroy(ThreadBeans threadBeans) {
+        if (liveThreadBeans.remove(threadBeans)) {
+            threadBeans.destroy();
+        }
+    }
+
+    /**
+     * 容器关闭时销毁所有线程中的 bean
+     * @throws BeansException
+     */
+    @Override
+    public void destroy() throws BeansException {
+        threadBeans = newThreadBeansHolder();
+        for (ThreadBeans current : new ArrayList<>(liveThreadBeans)) {
+            destroy(current);
+        }
+    }
+
+    /**
+     * 单个线程中的 bean
+     */
+    private static final class ThreadBeans extends WeakReference<Thread> {
+
+        // 只有所属线程会写入，容器关闭时会被其他线程读取
+        private final Map<String, Object> beans = new ConcurrentHashMap<>(8);
+
+        private final Map<String, Runnable> destructionCallbacks = new LinkedHashMap<>();
+
+        private ThreadBeans(Thread thread) {
+            super(thread);
+        }
+
+        private void destroy() {
+            List<Runnable> callbacks;
+            synchronized (this) {
+                callbacks = new ArrayList<>(destructionCallbacks.values());
+                destructionCallbacks.clear();
+            }
+            beans.clear();
+            for (Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+    }
+}
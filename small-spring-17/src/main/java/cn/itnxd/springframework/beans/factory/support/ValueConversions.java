@@ -0,0 +1,71 @@
+package cn.itnxd.springframework.beans.factory.support;
+
+import cn.hutool.core.convert.BasicType;
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.TypeUtil;
+import cn.itnxd.springframework.core.convert.ConversionService;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:55
+ * @Version 1.0
+ * @Description 注入值的类型转换规则，xml 属性（BeanRecipe）、@Value 字段（InjectionMetadata）、构造器参数（ConstructorResolver）共用
+ *
+ * 1、容器注册的类型转换服务优先，否则与 BeanUtil.setFieldValue 一样，类型不匹配时使用 hutool 转换
+ * 2、转换结果是确定不可变的类型时，可以转换一次后被所有实例共享
+ */
+public final class ValueConversions {
+
+    // 转换结果可以被所有实例共享的类型
+    private static final Set<Class<?>> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+            String.class, Boolean.class, Character.class, Byte.class, Short.class, Integer.class, Long.class,
+            Float.class, Double.class, BigDecimal.class, BigInteger.class));
+
+    private ValueConversions() {
+    }
+
+    /**
+     * 选择 sourceType 类型的值注入到 targetType 时的转换方式
+     * @param sourceType
+     * @param targetType
+     * @param conversionService 可以为 null
+     * @return 不需要转换时返回 null
+     */
+    public static Function<Object, Object> converter(Class<?> sourceType, Class<?> targetType, ConversionService conversionService) {
+        if (conversionService != null && conversionService.canConvert(sourceType, targetType)) {
+            return source -> conversionService.convert(source, targetType);
+        }
+        if (!BasicType.wrap(targetType).isAssignableFrom(sourceType)) {
+            return source -> Convert.convert(targetType, source);
+        }
+        return null;
+    }
+
+    /**
+     * 只认可确定不可变的类型：Number 的子类中 AtomicInteger、AtomicLong、LongAdder 等是可变的，BigDecimal、BigInteger 的子类也可能可变
+     * @param value
+     * @return
+     */
+    public static boolean isImmutable(Object value) {
+        return IMMUTABLE_TYPES.contains(value.getClass()) || value instanceof Enum || value instanceof Class;
+    }
+
+    /**
+     * ObjectProvider<T> 的 T，没有泛型参数时为 Object
+     * @param providerType
+     * @return
+     */
+    public static Class<?> providedType(Type providerType) {
+        Type typeArgument = TypeUtil.getTypeArgument(providerType);
+        Class<?> providedType = typeArgument == null ? null : TypeUtil.getClass(typeArgument);
+        return providedType != null ? providedType : Object.class;
+    }
+}
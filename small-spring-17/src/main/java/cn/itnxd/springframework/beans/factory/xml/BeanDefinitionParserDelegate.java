@@ -0,0 +1,134 @@
+package cn.itnxd.springframework.beans.factory.xml;
+
+import cn.hutool.core.util.StrUtil;
+import cn.itnxd.springframework.beans.PropertyValue;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanPoolConfig;
+import cn.itnxd.springframework.beans.factory.config.BeanReference;
+
+import java.util.function.Function;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 22:30
+ * @Version 1.0
+ * @Description 将 bean、property 标签的属性转换为 BeanDefinition、PropertyValue
+ *
+ * dom4j 和 StAX 两种 xml 读取器共用，标签的属性统一通过 属性名 -> 属性值 的函数获取，没有该属性时返回 null
+ */
+final class BeanDefinitionParserDelegate {
+
+    private BeanDefinitionParserDelegate() {
+    }
+
+    /**
+     * 解析 bean 标签（不包含 property 子标签）
+     *
+     * 修改：只保存类名，创建 bean 时才加载类
+     * @param attributes
+     * @return
+     */
+    static BeanDefinition parseBeanDefinition(Function<String, String> attributes) {
+        String className = attributes.apply("class");
+        if (StrUtil.isEmpty(className)) {
+            throw new BeansException("bean 标签的 class 属性不能为空");
+        }
+
+        BeanDefinition beanDefinition = new BeanDefinition(className);
+        // 将 init-method 和 destroy-method 属性值进行保存
+        beanDefinition.setInitMethodName(attributes.apply("init-method"));
+        beanDefinition.setDestroyMethodName(attributes.apply("destroy-method"));
+        beanDefinition.setLazyInit(Boolean.parseBoolean(attributes.apply("lazyInit")));
+        // 增加bean作用域设置
+        String beanScope = attributes.apply("scope");
+        if (StrUtil.isNotEmpty(beanScope)) {
+            beanDefinition.setScope(beanScope);
+        }
+        // 增加：自定义作用域的作用域代理
+        beanDefinition.setScopedProxy(Boolean.parseBoolean(attributes.apply("scoped-proxy")));
+        // 增加：对象池配置
+        if (beanDefinition.isPooled()) {
+            beanDefinition.setPoolConfig(parsePoolConfig(attributes));
+        }
+        return beanDefinition;
+    }
+
+    /**
+     * 获取 beanName 信息，优先获取id，空则读取 name，还空则读取类名首字母小写
+     * @param attributes
+     * @param beanDefinition
+     * @return
+     */
+    static String resolveBeanName(Function<String, String> attributes, BeanDefinition beanDefinition) {
+        String beanId = attributes.apply("id");
+        String beanName = StrUtil.isNotEmpty(beanId) ? beanId : attributes.apply("name");
+        if (StrUtil.isEmpty(beanName)) {
+            // 修改：从类名截取 a.b.c 中的 c（内部类 a.b.C$D 中的 D），不加载类
+            String className = beanDefinition.getBeanClassName();
+            String simpleName = className.substring(Math.max(className.lastIndexOf('.'), className.lastIndexOf('$')) + 1);
+            beanName = StrUtil.lowerFirst(simpleName);
+        }
+        return beanName;
+    }
+
+    /**
+     * 解析 property 标签，ref 优先于 value
+     * @param attributes
+     * @return
+     */
+    static PropertyValue parsePropertyValue(Function<String, String> attributes) {
+        String propertyNameAttribute = attributes.apply("name");
+        String propertyValueAttribute = attributes.apply("value");
+        String propertyRefAttribute = attributes.apply("ref");
+
+        if (StrUtil.isEmpty(propertyNameAttribute)) {
+            throw new BeansException("属性名不能为空");
+        }
+
+        Object value = propertyValueAttribute;
+        if (StrUtil.isNotEmpty(propertyRefAttribute)) {
+            value = new BeanReference(propertyRefAttribute);
+        }
+        return new PropertyValue(propertyNameAttribute, value);
+    }
+
+    /**
+     * 解析 component-scan 标签的扫描包
+     * @param attributes
+     * @return
+     */
+    static String[] parseBasePackages(Function<String, String> attributes) {
+        String scanPath = attributes.apply("base-package");
+        if (StrUtil.isEmpty(scanPath)) {
+            throw new BeansException("base-package 基础扫描包是空的");
+        }
+        return StrUtil.splitToArray(scanPath, ',');
+    }
+
+    /**
+     * 增加：解析 pool-min-idle、pool-max-idle、pool-max-total、pool-max-wait、pool-idle-timeout、pool-validate-on-borrow 属性，没有配置的使用默认值
+     * @param attributes
+     * @return
+     */
+    private static BeanPoolConfig parsePoolConfig(Function<String, String> attributes) {
+        BeanPoolConfig poolConfig = new BeanPoolConfig();
+        String minIdle = attributes.apply("pool-min-idle");
+        String maxIdle = attributes.apply("pool-max-idle");
+        String maxTotal = attributes.apply("pool-max-total");
+        String maxWait = attributes.apply("pool-max-wait");
+        String idleTimeout = attributes.apply("pool-idle-timeout");
+        String validateOnBorrow = attributes.apply("pool-validate-on-borrow");
+        try {
+            if (StrUtil.isNotEmpty(minIdle)) poolConfig.setMinIdle(Integer.parseInt(minIdle));
+            if (StrUtil.isNotEmpty(maxIdle)) poolConfig.setMaxIdle(Integer.parseInt(maxIdle));
+            if (StrUtil.isNotEmpty(maxTotal)) poolConfig.setMaxTotal(Integer.parseInt(maxTotal));
+            if (StrUtil.isNotEmpty(maxWait)) poolConfig.setMaxWaitMillis(Long.parseLong(maxWait));
+            if (StrUtil.isNotEmpty(idleTimeout)) poolConfig.setIdleTimeoutMillis(Long.parseLong(idleTimeout));
+        } catch (NumberFormatException e) {
+            throw new BeansException("对象池配置【" + attributes.apply("id") + "】不是合法的数字", e);
+        }
+        poolConfig.setValidateOnBorrow(Boolean.parseBoolean(validateOnBorrow));
+        return poolConfig;
+    }
+}
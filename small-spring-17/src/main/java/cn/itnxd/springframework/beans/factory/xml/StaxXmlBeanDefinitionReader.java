@@ -0,0 +1,226 @@
+package cn.itnxd.springframework.beans.factory.xml;
+
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.support.AbstractBeanDefinitionReader;
+import cn.itnxd.springframework.beans.factory.support.BeanDefinitionRegistry;
+import cn.itnxd.springframework.context.annotation.ClassPathBeanDefinitionScanner;
+import cn.itnxd.springframework.core.io.Resource;
+import cn.itnxd.springframework.core.io.ResourceLoader;
+import cn.itnxd.springframework.core.metrics.StartupStep;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 22:40
+ * @Version 1.0
+ * @Description 基于 StAX 流式解析的 xml 读取器
+ *
+ * XmlBeanDefinitionReader 先用 dom4j 把整个文件读成 Document 再遍历，大文件的内存峰值很高；
+ * 本读取器边读边解析，不保留文档树，只暂存解析出的 BeanDefinition。
+ *
+ * 1、支持的标签和属性与 XmlBeanDefinitionReader 相同（共用 BeanDefinitionParserDelegate）
+ *    修改：component-scan 读到时立即执行，文件中的 bean 在读完文件后按顺序注册，与 XmlBeanDefinitionReader 一样扫描总在 bean 之前
+ * 2、多个配置文件并行解析，解析结果按配置文件的顺序注册，注册顺序与依次加载一致
+ */
+public class StaxXmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
+
+    // XMLInputFactory 不保证线程安全，每个线程一个
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = ThreadLocal.withInitial(() -> {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // 不解析 DTD 和外部实体
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    });
+
+    // 多个配置文件是否并行解析
+    private boolean parallel = true;
+
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry) {
+        super(registry);
+    }
+
+    public StaxXmlBeanDefinitionReader(BeanDefinitionRegistry registry, ResourceLoader resourceLoader) {
+        super(registry, resourceLoader);
+    }
+
+    /**
+     * 多个配置文件并行解析，之后按顺序注册
+     * @param locations
+     * @throws BeansException
+     */
+    @Override
+    public void loadBeanDefinitions(String[] locations) throws BeansException {
+        Resource[] resources = new Resource[locations.length];
+        for (int i = 0; i < locations.length; i++) {
+            resources[i] = getResourceLoader().getResource(locations[i]);
+        }
+        loadBeanDefinitions(resources);
+    }
+
+    @Override
+    public void loadBeanDefinitions(String location) throws BeansException {
+        loadBeanDefinitions(getResourceLoader().getResource(location));
+    }
+
+    /**
+     * 单个配置文件
+     * @param resource
+     * @throws BeansException
+     */
+    @Override
+    public void loadBeanDefinitions(Resource resource) throws BeansException {
+        parse(resource, new RegisteringHandler());
+    }
+
+    /**
+     * 加载多个配置文件
+     * @param resources
+     * @throws BeansException
+     */
+    public void loadBeanDefinitions(Resource... resources) throws BeansException {
+        if (!parallel || resources.length < 2) {
+            for (Resource resource : resources) {
+                loadBeanDefinitions(resource);
+            }
+            return;
+        }
+        // 并行解析时先暂存，注册和包扫描都在当前线程按配置文件的顺序执行
+        List<BufferingHandler> parsed = Arrays.stream(resources).parallel()
+                .map(resource -> {
+                    BufferingHandler handler = new BufferingHandler();
+                    parse(resource, handler);
+                    return handler;
+                })
+                .collect(Collectors.toList());
+        RegisteringHandler registeringHandler = new RegisteringHandler();
+        for (BufferingHandler handler : parsed) {
+            handler.replay(registeringHandler);
+        }
+    }
+
+    /**
+     * 流式解析 xml：根标签下的 component-scan、bean，以及 bean 下的 property
+     *
+     * 修改：component-scan 直接交给 handler，bean 暂存到文件读完，保证扫描在该文件的所有 bean 之前
+     *
+     * @param resource
+     * @param handler
+     */
+    private void parse(Resource resource, Handler handler) {
+        StartupStep step = getApplicationStartup().start("beans.xml.load").tag("resource", String.valueOf(resource));
+        try (InputStream is = new BufferedInputStream(resource.getInputStream())) {
+            XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(is);
+            try {
+                Function<String, String> attributes = name -> reader.getAttributeValue(null, name);
+                BufferingHandler beans = new BufferingHandler();
+                int depth = 0;
+                BeanDefinition beanDefinition = null;
+                String beanName = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        String element = reader.getLocalName();
+                        if (depth == 2 && "component-scan".equals(element)) {
+                            handler.componentScan(BeanDefinitionParserDelegate.parseBasePackages(attributes));
+                        } else if (depth == 2 && "bean".equals(element)) {
+                            beanDefinition = BeanDefinitionParserDelegate.parseBeanDefinition(attributes);
+                            beanName = BeanDefinitionParserDelegate.resolveBeanName(attributes, beanDefinition);
+                        } else if (depth == 3 && beanDefinition != null && "property".equals(element)) {
+                            beanDefinition.getPropertyValues().addPropertyValue(BeanDefinitionParserDelegate.parsePropertyValue(attributes));
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == 2 && beanDefinition != null) {
+                            beans.beanDefinition(beanName, beanDefinition);
+                            beanDefinition = null;
+                        }
+                        depth--;
+                    }
+                }
+                beans.replay(handler);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new BeansException("从资源【" + resource + "】解析xml文档异常, e：", e);
+        } finally {
+            step.end();
+        }
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * 解析结果的处理
+     */
+    private interface Handler {
+
+        void componentScan(String[] basePackages);
+
+        void beanDefinition(String beanName, BeanDefinition beanDefinition);
+    }
+
+    /**
+     * 直接扫描、注册
+     */
+    private final class RegisteringHandler implements Handler {
+
+        @Override
+        public void componentScan(String[] basePackages) {
+            new ClassPathBeanDefinitionScanner(getRegistry()).doScan(basePackages);
+        }
+
+        @Override
+        public void beanDefinition(String beanName, BeanDefinition beanDefinition) {
+            if (getRegistry().containsBeanDefinition(beanName)) {
+                throw new BeansException("beanName【" + beanName + "】不能重复");
+            }
+            getRegistry().registerBeanDefinition(beanName, beanDefinition);
+        }
+    }
+
+    /**
+     * 按顺序暂存解析结果，每个结果保存为对 Handler 的一次调用
+     */
+    private static final class BufferingHandler implements Handler {
+
+        private final List<Consumer<Handler>> events = new ArrayList<>();
+
+        @Override
+        public void componentScan(String[] basePackages) {
+            events.add(handler -> handler.componentScan(basePackages));
+        }
+
+        @Override
+        public void beanDefinition(String beanName, BeanDefinition beanDefinition) {
+            events.add(handler -> handler.beanDefinition(beanName, beanDefinition));
+        }
+
+        private void replay(Handler handler) {
+            for (Consumer<Handler> event : events) {
+                event.accept(handler);
+            }
+        }
+    }
+}
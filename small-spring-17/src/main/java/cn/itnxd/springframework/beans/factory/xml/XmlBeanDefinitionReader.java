@@ -1,15 +1,13 @@
 package cn.itnxd.springframework.beans.factory.xml;
 
-import cn.hutool.core.util.StrUtil;
-import cn.itnxd.springframework.beans.PropertyValue;
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
-import cn.itnxd.springframework.beans.factory.config.BeanReference;
 import cn.itnxd.springframework.beans.factory.support.AbstractBeanDefinitionReader;
 import cn.itnxd.springframework.beans.factory.support.BeanDefinitionRegistry;
 import cn.itnxd.springframework.context.annotation.ClassPathBeanDefinitionScanner;
 import cn.itnxd.springframework.core.io.Resource;
 import cn.itnxd.springframework.core.io.ResourceLoader;
+import cn.itnxd.springframework.core.metrics.StartupStep;
 import org.dom4j.DocumentException;
 import org.dom4j.Element;
 import org.dom4j.io.SAXReader;
@@ -82,6 +80,8 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
      */
     @Override
     public void loadBeanDefinitions(Resource resource) throws BeansException {
+        // 增加：记录解析每个 xml 资源的步骤
+        StartupStep step = getApplicationStartup().start("beans.xml.load").tag("resource", String.valueOf(resource));
         try {
             // 1. 获取到资源的输入流
             try(InputStream is = resource.getInputStream()) {
@@ -90,6 +90,8 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
             }
         } catch (IOException | DocumentException e) {
             throw new BeansException("从资源【" + resource + "】解析xml文档异常, e：", e);
+        } finally {
+            step.end();
         }
     }
 
@@ -106,63 +108,18 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
         // 解析 context:component-scan 标签并扫描指定包中的类，提取类信息，组装成BeanDefinition
         Element componentScan = root.element("component-scan");
         if (componentScan != null) {
-            String scanPath = componentScan.attributeValue("base-package");
-            if (StrUtil.isEmpty(scanPath)) {
-                throw new BeansException("base-package 基础扫描包是空的");
-            }
-            scanPackage(scanPath);
+            scanPackage(BeanDefinitionParserDelegate.parseBasePackages(componentScan::attributeValue));
         }
 
+        // 修改：标签属性的解析抽取到 BeanDefinitionParserDelegate，与 StaxXmlBeanDefinitionReader 共用
         List<Element> beanList = root.elements("bean");
         for (Element bean : beanList) {
-            String beanId = bean.attributeValue("id");
-            String beanName = bean.attributeValue("name");
-            String className = bean.attributeValue("class");
-            String initMethodName = bean.attributeValue("init-method");
-            String destroyMethodName = bean.attributeValue("destroy-method");
-            String beanScope = bean.attributeValue("scope");
-            String lazyInit = bean.attributeValue("lazyInit");
-
-            Class<?> clazz;
-            try {
-                clazz = Class.forName(className);
-            } catch (ClassNotFoundException e) {
-                throw new BeansException("【" + className + "】不存在");
-            }
-
-            // 获取 beanName 信息，优先获取id，空则读取 name，还空则读取类名首字母小写
-            beanName = StrUtil.isNotEmpty(beanId) ? beanId : beanName;
-            if (StrUtil.isEmpty(beanName)) {
-                // getSimpleName 获取的是 a.b.c 中的 c
-                beanName = StrUtil.lowerFirst(clazz.getSimpleName());
-            }
-
-            BeanDefinition beanDefinition = new BeanDefinition(clazz);
-            // 将 init-method 和 destroy-method 属性值进行保存
-            beanDefinition.setInitMethodName(initMethodName);
-            beanDefinition.setDestroyMethodName(destroyMethodName);
-            beanDefinition.setLazyInit(Boolean.parseBoolean(lazyInit));
-            // 增加bean作用域设置
-            if (StrUtil.isNotEmpty(beanScope)) {
-                beanDefinition.setScope(beanScope);
-            }
+            BeanDefinition beanDefinition = BeanDefinitionParserDelegate.parseBeanDefinition(bean::attributeValue);
+            String beanName = BeanDefinitionParserDelegate.resolveBeanName(bean::attributeValue, beanDefinition);
 
             List<Element> propertyList = bean.elements("property");
             for (Element property : propertyList) {
-                String propertyNameAttribute = property.attributeValue("name");
-                String propertyValueAttribute = property.attributeValue("value");
-                String propertyRefAttribute = property.attributeValue("ref");
-
-                if (StrUtil.isEmpty(propertyNameAttribute)) {
-                    throw new BeansException("属性名不能为空");
-                }
-
-                Object value = propertyValueAttribute;
-                if (StrUtil.isNotEmpty(propertyRefAttribute)) {
-                    value = new BeanReference(propertyRefAttribute);
-                }
-                PropertyValue propertyValue = new PropertyValue(propertyNameAttribute, value);
-                beanDefinition.getPropertyValues().addPropertyValue(propertyValue);
+                beanDefinition.getPropertyValues().addPropertyValue(BeanDefinitionParserDelegate.parsePropertyValue(property::attributeValue));
             }
 
             if (getRegistry().containsBeanDefinition(beanName)) {
@@ -175,10 +132,9 @@ public class XmlBeanDefinitionReader extends AbstractBeanDefinitionReader {
     /**
      * 扫描注解Component的类，提取信息，组装成BeanDefinition
      *
-     * @param scanPath
+     * @param basePackages
      */
-    private void scanPackage(String scanPath) {
-        String[] basePackages = StrUtil.splitToArray(scanPath, ',');
+    private void scanPackage(String[] basePackages) {
         ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(getRegistry());
         scanner.doScan(basePackages);
     }
@@ -1,6 +1,7 @@
 package cn.itnxd.springframework.context;
 
 import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
 
 /**
  * @Author niuxudong
@@ -26,4 +27,16 @@ public interface ConfigurableApplicationContext extends ApplicationContext{
      * 向虚拟机注册钩子方法，在虚拟机关闭时候调用（自动）
      */
     void registerShutdownHook();
+
+    /**
+     * 增加：设置启动步骤记录器，需要在 refresh 之前设置
+     * @param applicationStartup
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    /**
+     * 增加：获取启动步骤记录器
+     * @return
+     */
+    ApplicationStartup getApplicationStartup();
 }
@@ -0,0 +1,116 @@
+package cn.itnxd.springframework.context.annotation;
+
+import cn.hutool.core.util.StrUtil;
+import cn.itnxd.springframework.beans.exception.BeansException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 21:40
+ * @Version 1.0
+ * @Description 编译期生成的组件索引（small-spring-indexer 模块的注解处理器生成）
+ *
+ * 合并 classpath 中所有的 META-INF/small-spring.components，每行：类的二进制名称=beanName,作用域
+ *
+ * 只要存在索引就只使用索引，没有引入注解处理器的 jar 中的组件不会被扫描到；
+ * 可以通过系统属性 small-spring.index.ignore=true 关闭索引，回到遍历 classpath 扫描
+ */
+final class CandidateComponentsIndex {
+
+    static final String INDEX_LOCATION = "META-INF/small-spring.components";
+
+    static final String IGNORE_INDEX_PROPERTY = "small-spring.index.ignore";
+
+    private final List<Entry> entries;
+
+    private CandidateComponentsIndex(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 读取类加载器可见的所有索引
+     * @param classLoader
+     * @return 没有索引或者关闭了索引返回 null
+     */
+    static CandidateComponentsIndex load(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX_PROPERTY)) {
+            return null;
+        }
+        List<Entry> entries = new ArrayList<>();
+        boolean found = false;
+        try {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+            while (urls.hasMoreElements()) {
+                found = true;
+                URL url = urls.nextElement();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        Entry entry = parse(line.trim());
+                        if (entry != null) {
+                            entries.add(entry);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new BeansException("读取组件索引 " + INDEX_LOCATION + " 失败", e);
+        }
+        return found ? new CandidateComponentsIndex(Collections.unmodifiableList(entries)) : null;
+    }
+
+    private static Entry parse(String line) {
+        int separator = line.indexOf('=');
+        if (line.isEmpty() || line.startsWith("#") || separator <= 0) {
+            return null;
+        }
+        String className = line.substring(0, separator);
+        String[] values = StrUtil.splitToArray(line.substring(separator + 1), ',', 2);
+        String beanName = values.length > 0 ? values[0] : "";
+        String scope = values.length > 1 ? values[1] : "";
+        return new Entry(className, beanName, scope);
+    }
+
+    /**
+     * 获取包（包括子包）中的组件
+     * @param basePackage
+     * @return
+     */
+    List<Entry> getCandidates(String basePackage) {
+        String prefix = basePackage.isEmpty() ? "" : basePackage + ".";
+        List<Entry> candidates = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.className.startsWith(prefix)) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 索引中的一个组件
+     */
+    static final class Entry {
+
+        final String className;
+
+        final String beanName;
+
+        final String scope;
+
+        private Entry(String className, String beanName, String scope) {
+            this.className = className;
+            this.beanName = beanName;
+            this.scope = scope;
+        }
+    }
+}
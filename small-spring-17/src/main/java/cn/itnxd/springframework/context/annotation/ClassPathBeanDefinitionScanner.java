@@ -2,8 +2,12 @@ package cn.itnxd.springframework.context.annotation;
 
 import cn.hutool.core.util.StrUtil;
 import cn.itnxd.springframework.beans.annotation.AutowiredAnnotationBeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.ConfigurableBeanFactory;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanPoolConfig;
 import cn.itnxd.springframework.beans.factory.support.BeanDefinitionRegistry;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
+import cn.itnxd.springframework.core.metrics.StartupStep;
 import cn.itnxd.springframework.stereotype.Component;
 
 import java.util.Set;
@@ -24,14 +28,29 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
     }
 
     public void doScan(String... basePackages) {
+        // 增加：注册中心是 BeanFactory 时记录扫描每个包的步骤
+        ApplicationStartup applicationStartup = registry instanceof ConfigurableBeanFactory
+                ? ((ConfigurableBeanFactory) registry).getApplicationStartup() : ApplicationStartup.DEFAULT;
         for (String basePackage : basePackages) {
+            StartupStep step = applicationStartup.start("context.component-scan").tag("basePackage", basePackage);
             // 调用父类依次扫描
-            Set<BeanDefinition> candidates = findCandidateComponents(basePackage);
+            Set<BeanDefinition> candidates;
+            try {
+                candidates = findCandidateComponents(basePackage);
+            } finally {
+                step.end();
+            }
             for (BeanDefinition candidate : candidates) {
                 // 解析 bean 的作用域 Scope 注解
                 String beanScope = resolveBeanScope(candidate);
                 if (StrUtil.isNotEmpty(beanScope)) {
                     candidate.setScope(beanScope);
+                    // 增加：作用域代理
+                    candidate.setScopedProxy(((Scope) candidate.getBeanClass().getAnnotation(Scope.class)).scopedProxy());
+                }
+                // 增加：解析对象池配置 @Pooled 注解
+                if (candidate.isPooled()) {
+                    candidate.setPoolConfig(resolvePoolConfig(candidate));
                 }
                 // 生成 bean 的名称
                 String beanName = determineBeanName(candidate);
@@ -51,6 +70,10 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
      * @return
      */
     private String resolveBeanScope(BeanDefinition beanDefinition) {
+        // 增加：索引中已经记录了作用域
+        if (beanDefinition instanceof ScannedBeanDefinition && ((ScannedBeanDefinition) beanDefinition).getDeclaredScope() != null) {
+            return ((ScannedBeanDefinition) beanDefinition).getDeclaredScope();
+        }
         Class<?> beanClass = beanDefinition.getBeanClass();
         Scope scope = beanClass.getAnnotation(Scope.class);
         if (scope != null) {
@@ -60,6 +83,26 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
     }
 
 
+    /**
+     * 增加：获取对象池配置，没有 @Pooled 注解则使用默认配置
+     *
+     * @param beanDefinition
+     * @return
+     */
+    private BeanPoolConfig resolvePoolConfig(BeanDefinition beanDefinition) {
+        BeanPoolConfig poolConfig = new BeanPoolConfig();
+        Pooled pooled = (Pooled) beanDefinition.getBeanClass().getAnnotation(Pooled.class);
+        if (pooled != null) {
+            poolConfig.setMinIdle(pooled.minIdle());
+            poolConfig.setMaxIdle(pooled.maxIdle());
+            poolConfig.setMaxTotal(pooled.maxTotal());
+            poolConfig.setMaxWaitMillis(pooled.maxWaitMillis());
+            poolConfig.setIdleTimeoutMillis(pooled.idleTimeoutMillis());
+            poolConfig.setValidateOnBorrow(pooled.validateOnBorrow());
+        }
+        return poolConfig;
+    }
+
     /**
      * 生成 bean 的名称
      *
@@ -67,6 +110,10 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
      * @return
      */
     private String determineBeanName(BeanDefinition beanDefinition) {
+        // 增加：索引中已经记录了 beanName
+        if (beanDefinition instanceof ScannedBeanDefinition && StrUtil.isNotEmpty(((ScannedBeanDefinition) beanDefinition).getBeanName())) {
+            return ((ScannedBeanDefinition) beanDefinition).getBeanName();
+        }
         Class<?> beanClass = beanDefinition.getBeanClass();
         Component component = beanClass.getAnnotation(Component.class);
         // 获取 Component 属性作为 beanName
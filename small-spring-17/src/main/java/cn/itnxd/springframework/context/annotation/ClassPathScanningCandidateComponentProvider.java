@@ -1,33 +1,229 @@
 package cn.itnxd.springframework.context.annotation;
 
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.ClassUtil;
+import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.core.type.classreading.ClassMetadata;
+import cn.itnxd.springframework.core.type.classreading.ClassMetadataReader;
 import cn.itnxd.springframework.stereotype.Component;
 
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @Author niuxudong
  * @Date 2023/6/4 22:24
  * @Version 1.0
  * @Description
+ *
+ * 增加：classpath 中有编译期生成的组件索引时直接读取索引，不再遍历 classpath 加载包中的每个类
+ *
+ * 修改：没有索引时不再加载包中的每个类，先解析 class 文件判断是否标注了 @Component，只加载候选组件。
+ * 包所在的每个目录、jar 并行扫描，其中的 class 文件也并行解析
  */
 public class ClassPathScanningCandidateComponentProvider {
 
+    private static final String COMPONENT_ANNOTATION = Component.class.getName();
+
+    private static final String SCOPE_ANNOTATION = Scope.class.getName();
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    // 增加：组件索引，第一次扫描时读取
+    private CandidateComponentsIndex componentsIndex;
+
+    private boolean componentsIndexLoaded;
+
     /**
      * 扫描指定包下被 Component 注解标注的类
      * @param basePackage
      * @return
      */
     public Set<BeanDefinition> findCandidateComponents(String basePackage) {
+        CandidateComponentsIndex index = getComponentsIndex();
+        if (index != null) {
+            return findCandidateComponentsFromIndex(index, basePackage);
+        }
+        return scanCandidateComponents(basePackage);
+    }
+
+    /**
+     * 增加：解析包中的 class 文件，只加载标注了 @Component 的可实例化的类
+     * @param basePackage
+     * @return
+     */
+    private Set<BeanDefinition> scanCandidateComponents(String basePackage) {
+        ClassLoader classLoader = ClassUtil.getClassLoader();
+        String packagePath = basePackage.replace('.', '/');
+        List<URL> roots;
+        try {
+            roots = Collections.list(classLoader.getResources(packagePath));
+        } catch (IOException e) {
+            throw new BeansException("扫描包【" + basePackage + "】失败", e);
+        }
+        // 同一个类可能出现在多个位置，按类名去重，按类名排序保证注册顺序稳定
+        Map<String, ClassMetadata> components = new TreeMap<>();
+        roots.parallelStream()
+                .flatMap(root -> scanRoot(root, packagePath))
+                .filter(metadata -> metadata.isConcrete() && metadata.hasAnnotation(COMPONENT_ANNOTATION))
+                .collect(Collectors.toList())
+                .forEach(metadata -> components.putIfAbsent(metadata.getClassName(), metadata));
+
         Set<BeanDefinition> candidates = new LinkedHashSet<BeanDefinition>();
-        // 扫描有org.springframework.stereotype.Component注解的类
-        Set<Class<?>> classes = ClassUtil.scanPackageByAnnotation(basePackage, Component.class);
-        for (Class<?> clazz : classes) {
-            BeanDefinition beanDefinition = new BeanDefinition(clazz);
-            candidates.add(beanDefinition);
+        for (ClassMetadata metadata : components.values()) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(metadata.getClassName(), false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                throw new BeansException("加载组件【" + metadata.getClassName() + "】失败", e);
+            }
+            candidates.add(new ScannedBeanDefinition(clazz, resolveBeanName(metadata), resolveScope(metadata)));
         }
         return candidates;
     }
+
+    /**
+     * @Component 中写出的 beanName，没有写出返回 null
+     * @param metadata
+     * @return
+     */
+    private String resolveBeanName(ClassMetadata metadata) {
+        Object value = metadata.getAnnotationAttributes(COMPONENT_ANNOTATION).get("value");
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 没有 @Scope 返回空字符串；有 @Scope 但是没有写出 value（使用注解的默认值）返回 null，由注册时从类上读取
+     * @param metadata
+     * @return
+     */
+    private String resolveScope(ClassMetadata metadata) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(SCOPE_ANNOTATION);
+        if (attributes == null) {
+            return "";
+        }
+        Object value = attributes.get("value");
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 解析一个位置（目录或者 jar）中包及其子包下的所有 class 文件
+     * @param root
+     * @param packagePath
+     * @return
+     */
+    private Stream<ClassMetadata> scanRoot(URL root, String packagePath) {
+        try {
+            if ("file".equals(root.getProtocol())) {
+                return scanDirectory(Paths.get(root.toURI()));
+            }
+            URLConnection connection = root.openConnection();
+            if (connection instanceof JarURLConnection) {
+                // 不使用缓存的 JarFile，扫描完成后关闭
+                connection.setUseCaches(false);
+                return scanJar(((JarURLConnection) connection).getJarFile(), packagePath);
+            }
+            return Stream.empty();
+        } catch (IOException | URISyntaxException e) {
+            throw new BeansException("扫描【" + root + "】失败", e);
+        }
+    }
+
+    private Stream<ClassMetadata> scanDirectory(Path directory) throws IOException {
+        List<Path> classFiles;
+        try (Stream<Path> files = Files.walk(directory)) {
+            classFiles = files.filter(file -> file.toString().endsWith(CLASS_FILE_SUFFIX)).collect(Collectors.toList());
+        }
+        List<ClassMetadata> metadata = classFiles.parallelStream()
+                .map(file -> {
+                    try {
+                        return readMetadata(Files.readAllBytes(file));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return metadata.stream();
+    }
+
+    private Stream<ClassMetadata> scanJar(JarFile jarFile, String packagePath) throws IOException {
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+        try (JarFile jar = jarFile) {
+            List<JarEntry> entries = Collections.list(jar.entries()).stream()
+                    .filter(entry -> entry.getName().startsWith(prefix) && entry.getName().endsWith(CLASS_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+            // JarFile 可以被多个线程同时读取
+            List<ClassMetadata> metadata = entries.parallelStream()
+                    .map(entry -> {
+                        try (InputStream is = jar.getInputStream(entry)) {
+                            return readMetadata(IoUtil.readBytes(is));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            return metadata.stream();
+        }
+    }
+
+    /**
+     * 解析 class 文件，无法解析的文件返回 null
+     * @param classFile
+     * @return
+     */
+    private ClassMetadata readMetadata(byte[] classFile) {
+        try {
+            return ClassMetadataReader.read(classFile);
+        } catch (BeansException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 增加：从索引中获取组件，只加载索引中的类
+     * @param index
+     * @param basePackage
+     * @return
+     */
+    private Set<BeanDefinition> findCandidateComponentsFromIndex(CandidateComponentsIndex index, String basePackage) {
+        Set<BeanDefinition> candidates = new LinkedHashSet<BeanDefinition>();
+        for (CandidateComponentsIndex.Entry entry : index.getCandidates(basePackage)) {
+            Class<?> clazz;
+            try {
+                clazz = Class.forName(entry.className, false, ClassUtil.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                // 增量编译后残留的条目，类已经被删除
+                continue;
+            }
+            // 类上已经去掉了 @Component，同样是残留的条目
+            if (clazz.isAnnotationPresent(Component.class)) {
+                candidates.add(new ScannedBeanDefinition(clazz, entry.beanName, entry.scope));
+            }
+        }
+        return candidates;
+    }
+
+    private CandidateComponentsIndex getComponentsIndex() {
+        if (!componentsIndexLoaded) {
+            componentsIndex = CandidateComponentsIndex.load(ClassUtil.getClassLoader());
+            componentsIndexLoaded = true;
+        }
+        return componentsIndex;
+    }
 }
@@ -0,0 +1,27 @@
+package cn.itnxd.springframework.context.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 17:10
+ * @Version 1.0
+ * @Description 配合 @Scope("pooled") 使用，配置对象池参数，含义见 BeanPoolConfig
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Pooled {
+
+    int minIdle() default 0;
+
+    int maxIdle() default 8;
+
+    int maxTotal() default 8;
+
+    long maxWaitMillis() default -1;
+
+    long idleTimeoutMillis() default -1;
+
+    boolean validateOnBorrow() default false;
+}
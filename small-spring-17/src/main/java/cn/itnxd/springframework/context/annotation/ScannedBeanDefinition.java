@@ -0,0 +1,32 @@
+package cn.itnxd.springframework.context.annotation;
+
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 21:40
+ * @Version 1.0
+ * @Description 扫描得到的 BeanDefinition，附带扫描时已经知道的 beanName 和作用域（例如来自组件索引），注册时不再从类上读取注解
+ */
+public class ScannedBeanDefinition extends BeanDefinition {
+
+    // 为空则由注解决定
+    private final String beanName;
+
+    // 为空表示没有 @Scope 注解
+    private final String declaredScope;
+
+    public ScannedBeanDefinition(Class beanClass, String beanName, String declaredScope) {
+        super(beanClass);
+        this.beanName = beanName;
+        this.declaredScope = declaredScope;
+    }
+
+    public String getBeanName() {
+        return beanName;
+    }
+
+    public String getDeclaredScope() {
+        return declaredScope;
+    }
+}
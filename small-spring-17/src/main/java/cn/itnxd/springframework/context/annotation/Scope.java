@@ -14,4 +14,10 @@ import java.lang.annotation.*;
 public @interface Scope {
 
     String value() default "singleton";
+
+    /**
+     * 增加：自定义作用域的 bean 是否通过作用域代理注入
+     * @return
+     */
+    boolean scopedProxy() default false;
 }
@@ -2,6 +2,8 @@ package cn.itnxd.springframework.context.support;
 
 import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.ConfigurableListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.PooledBeanHandle;
 import cn.itnxd.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import cn.itnxd.springframework.beans.factory.config.BeanPostProcessor;
 import cn.itnxd.springframework.context.ApplicationEvent;
@@ -12,6 +14,8 @@ import cn.itnxd.springframework.context.event.ContextRefreshedEvent;
 import cn.itnxd.springframework.context.event.SimpleApplicationEventMulticaster;
 import cn.itnxd.springframework.core.convert.ConversionService;
 import cn.itnxd.springframework.core.io.DefaultResourceLoader;
+import cn.itnxd.springframework.core.metrics.ApplicationStartup;
+import cn.itnxd.springframework.core.metrics.StartupStep;
 
 import java.util.Collection;
 import java.util.Map;
@@ -23,6 +27,8 @@ import java.util.Map;
  * @Description 顶层接口ApplicationContext的抽象实现类，主要实现父接口定义的额refresh流程方法。
  *
  * 这里会发现AbstractApplicationContext实现大多数接口时候都是调用的BeanFactory的子类 beans.factory.support包下的实现。
+ *
+ * 增加：refresh 的每个阶段记录为启动步骤，设置 RecordingApplicationStartup 后可以导出耗时分布
  */
 public abstract class AbstractApplicationContext extends DefaultResourceLoader implements ConfigurableApplicationContext {
 
@@ -31,6 +37,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
 
     private SimpleApplicationEventMulticaster applicationEventMulticaster;
 
+    // 增加：启动步骤记录器
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
     /**
      * 实现父接口的refresh刷新容器方法
      *
@@ -42,34 +51,68 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     @Override
     public void refresh() throws BeansException {
-        // 1. 刷新BeanFactory：创建BeanFactory，加载BeanDefinition到工厂
-        refreshBeanFactory();
-
-        // 2. 获取BeanFactory
-        ConfigurableListableBeanFactory beanFactory = getBeanFactory();
+        StartupStep refreshStep = applicationStartup.start("context.refresh");
+        try {
+            // 1. 刷新BeanFactory：创建BeanFactory，加载BeanDefinition到工厂
+            StartupStep step = applicationStartup.start("context.refresh-bean-factory");
+            try {
+                refreshBeanFactory();
+            } finally {
+                step.end();
+            }
 
-        // 3. 增加：refresh 流程增加 processor：ApplicationContextAwareProcessor，拥有感知能力
-        beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
+            // 2. 获取BeanFactory
+            ConfigurableListableBeanFactory beanFactory = getBeanFactory();
 
-        // 4. bean实例化之前执行BeanFactoryPostProcessor
-        invokeBeanFactoryPostProcessors(beanFactory);
+            // 3. 增加：refresh 流程增加 processor：ApplicationContextAwareProcessor，拥有感知能力
+            beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
 
-        // 5. bean初始化之前，注册所有的BeanPostProcessor到容器保存
-        registerBeanPostProcessors(beanFactory);
+            // 4. bean实例化之前执行BeanFactoryPostProcessor
+            step = applicationStartup.start("context.invoke-bean-factory-post-processors");
+            try {
+                invokeBeanFactoryPostProcessors(beanFactory);
+            } finally {
+                step.end();
+            }
 
-        // 6. 初始化事件发布者
-        initApplicationEventMulticaster();
+            // 5. bean初始化之前，注册所有的BeanPostProcessor到容器保存
+            step = applicationStartup.start("context.register-bean-post-processors");
+            try {
+                registerBeanPostProcessors(beanFactory);
+            } finally {
+                step.end();
+            }
 
-        // 7. 注册事件监听器
-        registerListeners();
+            // 6. 初始化事件发布者
+            // 7. 注册事件监听器
+            step = applicationStartup.start("context.init-events");
+            try {
+                initApplicationEventMulticaster();
+                registerListeners();
+            } finally {
+                step.end();
+            }
 
-        // 8. 开始实例化，先实例化单例Bean
-        //beanFactory.preInstantiateSingletons();
-        // 修改：（二合一）注册类型转换器 和 提前实例化单例bean
-        finishBeanFactoryInitialization(beanFactory);
+            // 8. 开始实例化，先实例化单例Bean
+            //beanFactory.preInstantiateSingletons();
+            // 修改：（二合一）注册类型转换器 和 提前实例化单例bean
+            step = applicationStartup.start("context.finish-bean-factory-initialization");
+            try {
+                finishBeanFactoryInitialization(beanFactory);
+            } finally {
+                step.end();
+            }
 
-        // 9. 发布事件：容器refresh完成事件
-        finishRefresh();
+            // 9. 发布事件：容器refresh完成事件
+            step = applicationStartup.start("context.finish-refresh");
+            try {
+                finishRefresh();
+            } finally {
+                step.end();
+            }
+        } finally {
+            refreshStep.end();
+        }
     }
 
     /**
@@ -151,9 +194,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     protected void invokeBeanFactoryPostProcessors(ConfigurableListableBeanFactory beanFactory) {
         // 1. 根据类型获取到容器中的所有BeanFactoryPostProcessor
         Map<String, BeanFactoryPostProcessor> beanFactoryPostProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class);
-        for (BeanFactoryPostProcessor beanFactoryPostProcessor : beanFactoryPostProcessorMap.values()) {
-            // 2. 调用BeanFactoryPostProcessor的方法去执行processor
-            beanFactoryPostProcessor.postProcessBeanFactory(beanFactory);
+        for (Map.Entry<String, BeanFactoryPostProcessor> entry : beanFactoryPostProcessorMap.entrySet()) {
+            // 2. 调用BeanFactoryPostProcessor的方法去执行processor（增加：每个 processor 记录为一个步骤）
+            StartupStep step = applicationStartup.start("context.bean-factory-post-processor").tag("beanName", entry.getKey());
+            try {
+                entry.getValue().postProcessBeanFactory(beanFactory);
+            } finally {
+                step.end();
+            }
         }
     }
 
@@ -171,6 +219,16 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         }
     }
 
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup == null ? ApplicationStartup.DEFAULT : applicationStartup;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return applicationStartup;
+    }
+
     /**
      * 实现顶层BeanFactory的根据类型获取bean实例的方法
      *
@@ -198,6 +256,29 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBeansOfType(type);
     }
 
+    /**
+     * 实现父接口ListableBeanFactory的根据类型获取beanName的方法
+     *
+     * @param type
+     * @return
+     */
+    @Override
+    public String[] getBeanNamesForType(Class<?> type) {
+        return getBeanFactory().getBeanNamesForType(type);
+    }
+
+    /**
+     * 增加：判断 bean 的类型，交给 BeanFactory 实现
+     * @param beanName
+     * @param type
+     * @return
+     * @throws BeansException
+     */
+    @Override
+    public boolean isTypeMatch(String beanName, Class<?> type) throws BeansException {
+        return getBeanFactory().isTypeMatch(beanName, type);
+    }
+
     /**
      * 重新实现顶层BeanFactory的根据beanName获取bean的方法，可以看到其实还是调用的AbstractBeanFactory的实现
      *
@@ -227,6 +308,21 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         return getBeanFactory().getBean(requiredType);
     }
 
+    @Override
+    public <T> ObjectProvider<T> getBeanProvider(String beanName, Class<T> requiredType) {
+        return getBeanFactory().getBeanProvider(beanName, requiredType);
+    }
+
+    @Override
+    public <T> ObjectProvider<T> getBeanProvider(Class<T> requiredType) {
+        return getBeanFactory().getBeanProvider(requiredType);
+    }
+
+    @Override
+    public <T> PooledBeanHandle<T> borrowBean(String beanName, Class<T> requiredType) throws BeansException {
+        return getBeanFactory().borrowBean(beanName, requiredType);
+    }
+
     /**
      * 实现父接口ListableBeanFactory获取所有BeanDefinitionName的方法
      *
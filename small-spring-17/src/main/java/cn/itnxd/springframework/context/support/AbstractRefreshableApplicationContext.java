@@ -4,6 +4,8 @@ import cn.itnxd.springframework.beans.exception.BeansException;
 import cn.itnxd.springframework.beans.factory.ConfigurableListableBeanFactory;
 import cn.itnxd.springframework.beans.factory.support.DefaultListableBeanFactory;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @Author niuxudong
  * @Date 2023/4/18 22:10
@@ -14,6 +16,12 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
 
     private DefaultListableBeanFactory beanFactory;
 
+    // 增加：并行提前实例化单例的线程池，为空则依次创建
+    private ForkJoinPool preInstantiationPool;
+
+    // 增加：全局延迟注入
+    private boolean lazyInjection;
+
     /**
      * 实现抽象父类的刷新BeanFactory方法
      *
@@ -24,6 +32,8 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
         // 1. 创建BeanFactory
         DefaultListableBeanFactory beanFactory = createBeanFactory();
         this.beanFactory = beanFactory;
+        // 增加：加载之前对新创建的 BeanFactory 进行定制
+        customizeBeanFactory(beanFactory);
         // 2. 加载BeanDefinition信息到容器
         loadBeanDefinitions(beanFactory);
     }
@@ -39,6 +49,35 @@ public abstract class AbstractRefreshableApplicationContext extends AbstractAppl
         return new DefaultListableBeanFactory();
     }
 
+    /**
+     * 增加：定制新创建的 BeanFactory，子类可以重写进行更多设置
+     *
+     * @param beanFactory
+     */
+    protected void customizeBeanFactory(DefaultListableBeanFactory beanFactory) {
+        beanFactory.setPreInstantiationPool(preInstantiationPool);
+        beanFactory.setLazyInjection(lazyInjection);
+        beanFactory.setApplicationStartup(getApplicationStartup());
+    }
+
+    /**
+     * 增加：设置并行提前实例化单例的线程池，需要在 refresh 之前设置
+     *
+     * @param preInstantiationPool
+     */
+    public void setPreInstantiationPool(ForkJoinPool preInstantiationPool) {
+        this.preInstantiationPool = preInstantiationPool;
+    }
+
+    /**
+     * 增加：设置全局延迟注入，需要在 refresh 之前设置
+     *
+     * @param lazyInjection
+     */
+    public void setLazyInjection(boolean lazyInjection) {
+        this.lazyInjection = lazyInjection;
+    }
+
     /**
      * 加载所有BeanDefinition信息到容器，本方法由子类实现。
      *
@@ -1,16 +1,32 @@
 package cn.itnxd.springframework.context.support;
 
+import cn.itnxd.springframework.beans.factory.support.AbstractBeanDefinitionReader;
+import cn.itnxd.springframework.beans.factory.support.BeanDefinitionSnapshot;
 import cn.itnxd.springframework.beans.factory.support.DefaultListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.xml.StaxXmlBeanDefinitionReader;
 import cn.itnxd.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import cn.itnxd.springframework.core.io.Resource;
+import cn.itnxd.springframework.core.metrics.StartupStep;
+
+import java.io.File;
 
 /**
  * @Author niuxudong
  * @Date 2023/4/20 22:43
  * @Version 1.0
  * @Description 主要实现父类 AbstractRefreshableApplicationContext 定义的加载BeanDefinition信息方法
+ *
+ * 增加：可选的 BeanDefinition 快照，配置和 classpath 没有变化时直接读取快照，不再解析 xml 和扫描包
+ * 增加：可选的 StAX 流式 xml 读取器，多个配置文件并行解析
  */
 public abstract class AbstractXmlApplicationContext extends AbstractRefreshableApplicationContext{
 
+    // 增加：BeanDefinition 快照，为空则每次完整加载
+    private BeanDefinitionSnapshot beanDefinitionSnapshot;
+
+    // 增加：是否使用 StAX 流式读取器，默认使用 dom4j 读取器
+    private boolean streamingXmlReader;
+
     /**
      * 解析配置得到BeanDefinition信息注册到容器中
      *
@@ -21,15 +37,59 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableA
         // 传入BeanDefinitionRegistry 和 ResourceLoader
         // AbstractRefreshableApplicationContext继承AbstractApplicationContext继承DefaultResourceLoader
         // 1. 创建BeanDefinition读取器
-        XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory, this);
+        // 修改：可选 StAX 流式读取器
+        AbstractBeanDefinitionReader beanDefinitionReader = streamingXmlReader
+                ? new StaxXmlBeanDefinitionReader(beanFactory, this)
+                : new XmlBeanDefinitionReader(beanFactory, this);
         // 2. 获取配置文件路径地址，由子类实现
         String[] configLocations = getConfigLocations();
-        if (configLocations != null) {
+        if (configLocations == null) {
+            return;
+        }
+        if (beanDefinitionSnapshot == null) {
             // 3. 交给读取器获取到Resource进而获取到InputStream进而解析流得到BeanDefinition注册到容器中（DefaultListableBeanFactory）
             beanDefinitionReader.loadBeanDefinitions(configLocations);
+            return;
+        }
+
+        // 增加：校验和与快照一致则直接从快照加载，否则完整加载之后重新保存快照
+        Resource[] resources = new Resource[configLocations.length];
+        for (int i = 0; i < configLocations.length; i++) {
+            resources[i] = getResource(configLocations[i]);
+        }
+        StartupStep step = getApplicationStartup().start("beans.snapshot.load");
+        String checksum;
+        boolean loaded = false;
+        try {
+            checksum = BeanDefinitionSnapshot.checksum(resources);
+            loaded = beanDefinitionSnapshot.load(checksum, beanFactory);
+        } finally {
+            step.tag("hit", String.valueOf(loaded)).end();
+        }
+        if (!loaded) {
+            beanDefinitionReader.loadBeanDefinitions(configLocations);
+            beanDefinitionSnapshot.write(checksum, beanFactory);
         }
     }
 
+    /**
+     * 增加：设置 BeanDefinition 快照文件，需要在 refresh 之前设置。快照文件不要放在 classpath 中，否则每次写入都会改变校验和
+     *
+     * @param snapshotFile
+     */
+    public void setBeanDefinitionSnapshotFile(File snapshotFile) {
+        this.beanDefinitionSnapshot = snapshotFile == null ? null : new BeanDefinitionSnapshot(snapshotFile);
+    }
+
+    /**
+     * 增加：使用 StAX 流式读取器解析 xml，需要在 refresh 之前设置
+     *
+     * @param streamingXmlReader
+     */
+    public void setStreamingXmlReader(boolean streamingXmlReader) {
+        this.streamingXmlReader = streamingXmlReader;
+    }
+
     /**
      * 获取配置路径，由子类实现
      *
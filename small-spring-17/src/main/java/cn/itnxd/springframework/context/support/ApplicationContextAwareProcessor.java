@@ -36,15 +36,13 @@ public class ApplicationContextAwareProcessor implements BeanPostProcessor {
     }
 
     /**
-     * post方法不作操作
+     * 增加：只处理实现了 ApplicationContextAware 的 bean（post方法不作操作，不再重写）
      *
-     * @param bean
-     * @param beanName
+     * @param beanClass
      * @return
-     * @throws BeansException
      */
     @Override
-    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
-        return bean;
+    public boolean supportsBeanType(Class<?> beanClass) {
+        return ApplicationContextAware.class.isAssignableFrom(beanClass);
     }
 }
@@ -40,6 +40,15 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
         refresh();
     }
 
+    /**
+     * 增加：配合空参构造使用，设置配置路径后手动调用 refresh
+     *
+     * @param configLocations
+     */
+    public void setConfigLocations(String... configLocations) {
+        this.configLocations = configLocations;
+    }
+
     @Override
     protected String[] getConfigLocations() {
         return this.configLocations;
@@ -0,0 +1,21 @@
+package cn.itnxd.springframework.core.metrics;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 20:10
+ * @Version 1.0
+ * @Description 容器启动过程的步骤记录器，refresh 的各个阶段以及每个 bean 的创建步骤都通过它开始一个 StartupStep
+ *
+ * 默认的 DEFAULT 不做任何记录，需要分析启动耗时时设置 RecordingApplicationStartup
+ */
+public interface ApplicationStartup {
+
+    ApplicationStartup DEFAULT = new DefaultApplicationStartup();
+
+    /**
+     * 开始一个步骤，当前线程上还没有结束的步骤即为它的父步骤
+     * @param name 步骤名称，例如 bean.instantiate
+     * @return
+     */
+    StartupStep start(String name);
+}
@@ -0,0 +1,41 @@
+package cn.itnxd.springframework.core.metrics;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 20:10
+ * @Version 1.0
+ * @Description 默认的步骤记录器，不做任何记录，所有步骤共用一个空实现
+ */
+class DefaultApplicationStartup implements ApplicationStartup {
+
+    private static final StartupStep NO_OP_STEP = new StartupStep() {
+        @Override
+        public String getName() {
+            return "default";
+        }
+
+        @Override
+        public long getId() {
+            return 0;
+        }
+
+        @Override
+        public Long getParentId() {
+            return null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            return this;
+        }
+
+        @Override
+        public void end() {
+        }
+    };
+
+    @Override
+    public StartupStep start(String name) {
+        return NO_OP_STEP;
+    }
+}
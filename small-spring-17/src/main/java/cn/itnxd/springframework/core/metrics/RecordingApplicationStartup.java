@@ -0,0 +1,221 @@
+package cn.itnxd.springframework.core.metrics;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONConfig;
+import cn.hutool.json.JSONObject;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 20:15
+ * @Version 1.0
+ * @Description 记录所有启动步骤的耗时和嵌套关系
+ *
+ * 1、每个线程维护一个未结束步骤的栈，栈顶即为新步骤的父步骤（例如创建 A 时注入 B，B 的创建步骤嵌套在 A 中）
+ * 2、步骤结束时累加到父步骤的子步骤耗时中，步骤自身耗时 = 总耗时 - 子步骤耗时
+ * 3、导出：
+ *      toJson：所有已结束的步骤（id、parentId、名称、标签、线程、开始时间、耗时），按开始顺序排列
+ *      toCollapsedStacks：火焰图使用的折叠栈格式，每行 "根;...;步骤 自身耗时(微秒)"，相同的栈合并
+ *
+ * 并行提前实例化时，工作线程上的步骤没有父步骤，在导出结果中作为独立的根
+ */
+public class RecordingApplicationStartup implements ApplicationStartup {
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final ThreadLocal<Deque<RecordedStep>> activeSteps = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Queue<RecordedStep> endedSteps = new ConcurrentLinkedQueue<>();
+
+    // 所有步骤的时间都相对于记录器的创建时间
+    private final long originNanos = System.nanoTime();
+
+    @Override
+    public StartupStep start(String name) {
+        Deque<RecordedStep> stack = activeSteps.get();
+        RecordedStep step = new RecordedStep(idGenerator.incrementAndGet(), name, stack.peek(), stack);
+        stack.push(step);
+        return step;
+    }
+
+    /**
+     * 已结束的步骤，按开始顺序排列
+     * @return
+     */
+    public List<RecordedStep> getSteps() {
+        List<RecordedStep> steps = new ArrayList<>(endedSteps);
+        steps.sort(Comparator.comparingLong(RecordedStep::getId));
+        return steps;
+    }
+
+    /**
+     * 清空已记录的步骤
+     */
+    public void clear() {
+        endedSteps.clear();
+    }
+
+    /**
+     * 导出 JSON
+     * @return
+     */
+    public String toJson() {
+        JSONConfig config = JSONConfig.create().setOrder(true);
+        JSONArray array = new JSONArray(config);
+        for (RecordedStep step : getSteps()) {
+            JSONObject json = new JSONObject(config);
+            json.set("id", step.getId());
+            json.set("parentId", step.getParentId());
+            json.set("name", step.getName());
+            json.set("tags", new JSONObject(step.getTags(), config));
+            json.set("thread", step.getThreadName());
+            json.set("startMicros", TimeUnit.NANOSECONDS.toMicros(step.startNanos - originNanos));
+            json.set("durationMicros", TimeUnit.NANOSECONDS.toMicros(step.getDurationNanos()));
+            json.set("selfMicros", TimeUnit.NANOSECONDS.toMicros(step.getSelfNanos()));
+            array.add(json);
+        }
+        return array.toStringPretty();
+    }
+
+    /**
+     * 导出折叠栈，可以直接交给 flamegraph.pl 等工具生成火焰图
+     * @return
+     */
+    public String toCollapsedStacks() {
+        Map<String, Long> stacks = new LinkedHashMap<>();
+        for (RecordedStep step : getSteps()) {
+            stacks.merge(step.stack, step.getSelfNanos(), Long::sum);
+        }
+        StringBuilder sb = new StringBuilder();
+        stacks.forEach((stack, selfNanos) ->
+                sb.append(stack).append(' ').append(TimeUnit.NANOSECONDS.toMicros(selfNanos)).append('\n'));
+        return sb.toString();
+    }
+
+    public void writeJson(File file) {
+        FileUtil.writeString(toJson(), file, StandardCharsets.UTF_8);
+    }
+
+    public void writeCollapsedStacks(File file) {
+        FileUtil.writeString(toCollapsedStacks(), file, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 记录的步骤
+     */
+    public final class RecordedStep implements StartupStep {
+
+        private final long id;
+
+        private final String name;
+
+        private final RecordedStep parent;
+
+        // 开始步骤的线程的栈，结束时出栈
+        private final Deque<RecordedStep> owner;
+
+        private final Map<String, String> tags = new LinkedHashMap<>(2);
+
+        private final String threadName = Thread.currentThread().getName();
+
+        private final long startNanos = System.nanoTime();
+
+        // 从根步骤到本步骤的折叠栈，打上标签之前不确定，结束时生成
+        private String stack;
+
+        private long durationNanos = -1;
+
+        private long childNanos;
+
+        private RecordedStep(long id, String name, RecordedStep parent, Deque<RecordedStep> owner) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            this.owner = owner;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return parent == null ? null : parent.id;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public void end() {
+            if (durationNanos >= 0) {
+                return;
+            }
+            durationNanos = System.nanoTime() - startNanos;
+            // 正常情况下就是栈顶，异常导致子步骤没有结束时一并移除
+            while (!owner.isEmpty()) {
+                if (owner.pop() == this) {
+                    break;
+                }
+            }
+            if (parent != null) {
+                parent.childNanos += durationNanos;
+            }
+            stack = (parent == null ? "" : parent.frames() + ";") + frame();
+            endedSteps.add(this);
+        }
+
+        /**
+         * 父步骤还没有结束，它的栈由祖先的帧拼接得到
+         * @return
+         */
+        private String frames() {
+            if (stack != null) {
+                return stack;
+            }
+            return (parent == null ? "" : parent.frames() + ";") + frame();
+        }
+
+        /**
+         * 折叠栈中的帧：名称加上 beanName 标签，去掉折叠栈格式中的分隔符
+         * @return
+         */
+        private String frame() {
+            String beanName = tags.get("beanName");
+            String frame = beanName == null ? name : name + "[" + beanName + "]";
+            return frame.replace(';', '_').replace(' ', '_');
+        }
+
+        public Map<String, String> getTags() {
+            return Collections.unmodifiableMap(tags);
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        public long getSelfNanos() {
+            return Math.max(0, durationNanos - childNanos);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package cn.itnxd.springframework.core.metrics;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 20:10
+ * @Version 1.0
+ * @Description 启动过程中的一个步骤，开始之后必须调用 end 结束（推荐放在 finally 中）
+ */
+public interface StartupStep {
+
+    String getName();
+
+    long getId();
+
+    /**
+     * 父步骤的 id，没有父步骤返回 null
+     * @return
+     */
+    Long getParentId();
+
+    /**
+     * 为步骤添加标签，例如 beanName
+     * @param key
+     * @param value
+     * @return
+     */
+    StartupStep tag(String key, String value);
+
+    /**
+     * 结束步骤
+     */
+    void end();
+}
@@ -0,0 +1,93 @@
+package cn.itnxd.springframework.core.type.classreading;
+
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 22:00
+ * @Version 1.0
+ * @Description 从 class 文件中读取的类信息，不需要加载类
+ *
+ * 注解属性只包含 class 文件中显式写出的值（注解声明的默认值在注解自己的 class 文件中），属性值的类型：
+ *      基本类型的包装类、String、枚举常量名（String）、类的二进制名称（String）、嵌套注解（Map）、数组（List）
+ */
+public class ClassMetadata {
+
+    private final String className;
+
+    private final String superClassName;
+
+    private final List<String> interfaceNames;
+
+    private final int access;
+
+    // 注解类型的二进制名称 -> 属性
+    private final Map<String, Map<String, Object>> annotations;
+
+    ClassMetadata(String className, String superClassName, List<String> interfaceNames, int access,
+                  Map<String, Map<String, Object>> annotations) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = Collections.unmodifiableList(interfaceNames);
+        this.access = access;
+        this.annotations = Collections.unmodifiableMap(annotations);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * 父类的二进制名称，java.lang.Object 返回 null
+     * @return
+     */
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    public boolean isInterface() {
+        return (access & Modifier.INTERFACE) != 0;
+    }
+
+    public boolean isAbstract() {
+        return (access & Modifier.ABSTRACT) != 0;
+    }
+
+    /**
+     * 是否是可以实例化的类（不是接口、注解，也不是抽象类）
+     * @return
+     */
+    public boolean isConcrete() {
+        return !isInterface() && !isAbstract();
+    }
+
+    /**
+     * 类上是否直接标注了注解（只包含运行时可见的注解）
+     * @param annotationType
+     * @return
+     */
+    public boolean hasAnnotation(String annotationType) {
+        return annotations.containsKey(annotationType);
+    }
+
+    /**
+     * 注解中显式写出的属性
+     * @param annotationType
+     * @return 没有该注解返回 null
+     */
+    public Map<String, Object> getAnnotationAttributes(String annotationType) {
+        return annotations.get(annotationType);
+    }
+
+    public Set<String> getAnnotationTypes() {
+        return annotations.keySet();
+    }
+}
@@ -0,0 +1,259 @@
+package cn.itnxd.springframework.core.type.classreading;
+
+import cn.hutool.core.io.IoUtil;
+import cn.itnxd.springframework.beans.exception.BeansException;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 22:00
+ * @Version 1.0
+ * @Description class 文件解析器，只读取类名、父类、接口、访问标志以及类上运行时可见的注解
+ *
+ * 扫描包时先用它读取 class 文件判断是否是候选组件，只有候选组件才加载，其他类不会执行静态初始化、不占用元空间。
+ * 只解析常量池和类的属性表，字段和方法直接跳过，不依赖 ASM，不受 class 文件版本限制
+ */
+public final class ClassMetadataReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    // 常量池标签
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ClassMetadataReader() {
+    }
+
+    /**
+     * 解析 class 文件
+     * @param classFile class 文件的内容
+     * @return
+     * @throws BeansException 不是合法的 class 文件
+     */
+    public static ClassMetadata read(byte[] classFile) throws BeansException {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(classFile)));
+        } catch (IOException | RuntimeException e) {
+            throw new BeansException("解析 class 文件失败", e);
+        }
+    }
+
+    /**
+     * 增加：通过类加载器找到 class 文件并解析，不会加载类
+     * @param classLoader
+     * @param className 类的二进制名称
+     * @return 找不到 class 文件（例如运行时生成的类）返回 null
+     * @throws BeansException 读取或者解析失败
+     */
+    public static ClassMetadata read(ClassLoader classLoader, String className) throws BeansException {
+        InputStream is = classLoader.getResourceAsStream(className.replace('.', '/') + ".class");
+        if (is == null) {
+            return null;
+        }
+        try (InputStream in = is) {
+            return read(IoUtil.readBytes(in));
+        } catch (IOException e) {
+            throw new BeansException("读取【" + className + "】的 class 文件失败", e);
+        }
+    }
+
+    private static ClassMetadata read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("不是 class 文件");
+        }
+        // minor_version、major_version
+        in.skipBytes(4);
+        Object[] constantPool = readConstantPool(in);
+
+        int access = in.readUnsignedShort();
+        String className = classNameAt(constantPool, in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        String superClassName = superIndex == 0 ? null : classNameAt(constantPool, superIndex);
+        int interfaceCount = in.readUnsignedShort();
+        List<String> interfaceNames = new ArrayList<>(interfaceCount);
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames.add(classNameAt(constantPool, in.readUnsignedShort()));
+        }
+
+        // 跳过字段和方法
+        skipMembers(in);
+        skipMembers(in);
+
+        Map<String, Map<String, Object>> annotations = new LinkedHashMap<>();
+        int attributeCount = in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String name = (String) constantPool[in.readUnsignedShort()];
+            int length = in.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int annotationCount = in.readUnsignedShort();
+                for (int j = 0; j < annotationCount; j++) {
+                    String type = descriptorToClassName((String) constantPool[in.readUnsignedShort()]);
+                    annotations.put(type, readAnnotationAttributes(in, constantPool));
+                }
+            } else {
+                in.skipBytes(length);
+            }
+        }
+        return new ClassMetadata(className, superClassName, interfaceNames, access, annotations);
+    }
+
+    /**
+     * 读取常量池：UTF8 保存为 String，数值保存为包装类，类和字符串常量保存指向 UTF8 的下标，其余只跳过
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private static Object[] readConstantPool(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        Object[] constantPool = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    // class 文件中的 UTF8 就是 DataInput 使用的 modified UTF-8
+                    constantPool[i] = in.readUTF();
+                    break;
+                case CONSTANT_INTEGER:
+                    constantPool[i] = in.readInt();
+                    break;
+                case CONSTANT_FLOAT:
+                    constantPool[i] = in.readFloat();
+                    break;
+                case CONSTANT_LONG:
+                    constantPool[i] = in.readLong();
+                    // long 和 double 占用两个位置
+                    i++;
+                    break;
+                case CONSTANT_DOUBLE:
+                    constantPool[i] = in.readDouble();
+                    i++;
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                    constantPool[i] = in.readUnsignedShort();
+                    break;
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    in.skipBytes(2);
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    in.skipBytes(3);
+                    break;
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    in.skipBytes(4);
+                    break;
+                default:
+                    throw new IOException("未知的常量池标签：" + tag);
+            }
+        }
+        return constantPool;
+    }
+
+    private static void skipMembers(DataInputStream in) throws IOException {
+        int memberCount = in.readUnsignedShort();
+        for (int i = 0; i < memberCount; i++) {
+            // access_flags、name_index、descriptor_index
+            in.skipBytes(6);
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                in.skipBytes(2);
+                in.skipBytes(in.readInt());
+            }
+        }
+    }
+
+    private static Map<String, Object> readAnnotationAttributes(DataInputStream in, Object[] constantPool) throws IOException {
+        int pairCount = in.readUnsignedShort();
+        Map<String, Object> attributes = new LinkedHashMap<>(pairCount * 2);
+        for (int i = 0; i < pairCount; i++) {
+            String name = (String) constantPool[in.readUnsignedShort()];
+            attributes.put(name, readElementValue(in, constantPool));
+        }
+        return attributes;
+    }
+
+    private static Object readElementValue(DataInputStream in, Object[] constantPool) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B':
+                return ((Integer) constantPool[in.readUnsignedShort()]).byteValue();
+            case 'C':
+                return (char) ((Integer) constantPool[in.readUnsignedShort()]).intValue();
+            case 'S':
+                return ((Integer) constantPool[in.readUnsignedShort()]).shortValue();
+            case 'Z':
+                return ((Integer) constantPool[in.readUnsignedShort()]) != 0;
+            case 'I':
+            case 'J':
+            case 'F':
+            case 'D':
+            case 's':
+                return constantPool[in.readUnsignedShort()];
+            case 'e':
+                // 枚举只保留常量名
+                in.skipBytes(2);
+                return constantPool[in.readUnsignedShort()];
+            case 'c':
+                return descriptorToClassName((String) constantPool[in.readUnsignedShort()]);
+            case '@':
+                in.skipBytes(2);
+                return readAnnotationAttributes(in, constantPool);
+            case '[':
+                int length = in.readUnsignedShort();
+                List<Object> values = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    values.add(readElementValue(in, constantPool));
+                }
+                return values;
+            default:
+                throw new IOException("未知的注解属性类型：" + (char) tag);
+        }
+    }
+
+    private static String classNameAt(Object[] constantPool, int classIndex) {
+        return ((String) constantPool[(Integer) constantPool[classIndex]]).replace('/', '.');
+    }
+
+    /**
+     * Lcn/itnxd/Foo; -> cn.itnxd.Foo，基本类型（例如 I）原样返回
+     * @param descriptor
+     * @return
+     */
+    private static String descriptorToClassName(String descriptor) {
+        if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
+            return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+        }
+        return descriptor;
+    }
+}
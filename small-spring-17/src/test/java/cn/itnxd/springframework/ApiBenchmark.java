@@ -0,0 +1,495 @@
+package cn.itnxd.springframework;
+
+import cn.itnxd.springframework.aop.AdvisedSupport;
+import cn.itnxd.springframework.aop.PointcutAdvisor;
+import cn.itnxd.springframework.aop.TargetSource;
+import cn.itnxd.springframework.aop.aspectj.AspectJExpressionPointcut;
+import cn.itnxd.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import cn.itnxd.springframework.aop.framework.ProxyFactory;
+import cn.itnxd.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
+import cn.itnxd.springframework.bean.Car;
+import cn.itnxd.springframework.bean.Engine;
+import cn.itnxd.springframework.bean.EngineFactoryBean;
+import cn.itnxd.springframework.bean.Garage;
+import cn.itnxd.springframework.bean.Truck;
+import cn.itnxd.springframework.beans.PropertyValue;
+import cn.itnxd.springframework.beans.annotation.AutowiredAnnotationBeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.config.BeanReference;
+import cn.itnxd.springframework.beans.factory.config.InstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.AbstractBeanDefinitionReader;
+import cn.itnxd.springframework.beans.factory.support.CglibSubclassingInstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.DefaultListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.support.MethodHandleInstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.SimpleInstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.xml.StaxXmlBeanDefinitionReader;
+import cn.itnxd.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import cn.itnxd.springframework.context.support.ClassPathXmlApplicationContext;
+import cn.itnxd.springframework.core.convert.support.DefaultConversionService;
+import cn.itnxd.springframework.interceptor.RecordingInterceptor;
+import com.sun.management.ThreadMXBean;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:50
+ * @Version 1.0
+ * @Description 吞吐量、耗时以及依赖 GC 的测试
+ *
+ * 结果受机器负载和 GC 时机影响，不放在 ApiTest 中；类名不匹配 surefire 默认的测试类规则，mvn test 不会执行，
+ * 需要时单独执行：mvn test -Dtest=ApiBenchmark
+ */
+public class ApiBenchmark {
+
+    /**
+     * 多线程获取创建完成的单例的吞吐量
+     */
+    @Test
+    public void benchmarkConcurrentGetBean() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("slowInitBean", ApiTest.slowInitBeanDefinition(null));
+        beanFactory.getBean("slowInitBean");
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int n = 1; n <= cores; n *= 2) {
+            System.out.println(n + " 个线程获取单例：" + getBeanThroughput(beanFactory, n) + " ops/ms");
+        }
+    }
+
+    private long getBeanThroughput(DefaultListableBeanFactory beanFactory, int threads) throws Exception {
+        int loops = 1_000_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < loops; j++) {
+                    beanFactory.getBean("slowInitBean");
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long costMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+        executor.shutdown();
+        return (long) loops * threads / costMillis;
+    }
+
+    /**
+     * 类型索引：启动耗时随 bean 数量接近线性增长
+     */
+    @Test
+    public void benchmarkBeanNamesForType() {
+        for (int count : new int[]{1_000, 10_000}) {
+            long begin = System.nanoTime();
+            ApiTest.simulateStartup(count);
+            System.out.println(count + " 个 BeanDefinition 注册并按类型查找耗时：" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) + " ms");
+        }
+    }
+
+    /**
+     * 比较各种实例化策略下原型 bean 的创建吞吐量
+     */
+    @Test
+    public void benchmarkInstantiationStrategy() {
+        CglibSubclassingInstantiationStrategy skipSubclassingStrategy = new CglibSubclassingInstantiationStrategy();
+        skipSubclassingStrategy.setSkipSubclassingIfPossible(true);
+        InstantiationStrategy[] strategies = {
+                new SimpleInstantiationStrategy(),
+                new CglibSubclassingInstantiationStrategy(),
+                skipSubclassingStrategy,
+                new MethodHandleInstantiationStrategy()
+        };
+        for (InstantiationStrategy strategy : strategies) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.setInstantiationStrategy(strategy);
+            BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+            beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+            beanFactory.registerBeanDefinition("engine", beanDefinition);
+            System.out.println(strategy.getClass().getSimpleName() + " 原型 bean 创建：" + prototypeThroughput(beanFactory, "engine") + " ops/ms");
+        }
+    }
+
+    private long prototypeThroughput(DefaultListableBeanFactory beanFactory, String beanName) {
+        // 预热
+        for (int i = 0; i < 20_000; i++) {
+            beanFactory.getBean(beanName);
+        }
+        int loops = 200_000;
+        long begin = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            beanFactory.getBean(beanName);
+        }
+        return loops / Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+    }
+
+    /**
+     * cglib 子类缓存后创建实例不再加载新的类；作为模板的实例只被弱引用，不再使用后可以被回收
+     */
+    @Test
+    public void benchmarkCglibSubclassCache() {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        CglibSubclassingInstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+        BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+
+        Object first = strategy.instantiate(beanDefinition, "engine", null, null);
+        long loadedClasses = classLoading.getTotalLoadedClassCount();
+        for (int i = 0; i < 100_000; i++) {
+            Assert.assertSame(first.getClass(), strategy.instantiate(beanDefinition, "engine", null, null).getClass());
+        }
+        System.out.println("cglib 子类缓存后创建 10 万个实例新加载的类：" + (classLoading.getTotalLoadedClassCount() - loadedClasses));
+
+        WeakReference<Object> firstReference = new WeakReference<>(first);
+        Class<?> subclass = first.getClass();
+        first = null;
+        awaitCollected(firstReference);
+        Assert.assertSame(subclass, strategy.instantiate(beanDefinition, "engine", null, null).getClass());
+    }
+
+    /**
+     * 大量不同的 bean 类：每个类由单独的类加载器加载 Engine，对比生成 cglib 子类与跳过子类时新加载的类和 Metaspace 增量
+     */
+    @Test
+    public void benchmarkCglibSubclassFootprint() {
+        int beanClasses = 500;
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        for (boolean skipSubclassing : new boolean[]{false, true}) {
+            CglibSubclassingInstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+            strategy.setSkipSubclassingIfPossible(skipSubclassing);
+            // 持有实例，测量期间生成的类不会被卸载
+            List<Object> beans = new ArrayList<>(beanClasses);
+            long loadedClasses = classLoading.getTotalLoadedClassCount();
+            long metaspace = metaspaceUsed();
+            for (int i = 0; i < beanClasses; i++) {
+                ClassLoader beanClassLoader = ApiTest.trackingClassLoader(new HashSet<>());
+                BeanDefinition beanDefinition = new BeanDefinition(Engine.class.getName());
+                beanDefinition.resolveBeanClass(beanClassLoader);
+                beans.add(strategy.instantiate(beanDefinition, "engine" + i, null, null));
+            }
+            System.out.println((skipSubclassing ? "跳过子类" : "生成 cglib 子类") + "，" + beanClasses + " 个 bean 类新加载的类："
+                    + (classLoading.getTotalLoadedClassCount() - loadedClasses)
+                    + "，Metaspace 增量：" + ((metaspaceUsed() - metaspace) >> 10) + " KB");
+            Assert.assertEquals(beanClasses, beans.size());
+        }
+    }
+
+    /**
+     * @return Metaspace 已使用的字节数，没有该内存池时为 0
+     */
+    private static long metaspaceUsed() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if ("Metaspace".equals(pool.getName())) {
+                return pool.getUsage().getUsed();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 按配方、处理链、缓存的注入点以及构造器计划创建原型 bean 的吞吐量
+     */
+    @Test
+    public void benchmarkPrototypeCreation() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        engineDefinition.setInitMethodName("start");
+        engineDefinition.getPropertyValues().addPropertyValue(new PropertyValue("model", "v6"));
+        engineDefinition.getPropertyValues().addPropertyValue(new PropertyValue("power", "200"));
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        System.out.println("按配方创建原型 bean（2 个属性 + init-method）：" + prototypeThroughput(beanFactory, "engine") + " ops/ms");
+
+        // 100 个只处理 Car 的处理器以及 2 个处理所有 bean 的处理器
+        for (int i = 0; i < 100; i++) {
+            beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    return bean;
+                }
+
+                @Override
+                public boolean supportsBeanType(Class<?> beanClass) {
+                    return Car.class.isAssignableFrom(beanClass);
+                }
+            });
+        }
+        for (int i = 0; i < 2; i++) {
+            beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean;
+                }
+            });
+        }
+        System.out.println("102 个 BeanPostProcessor 时创建原型 bean：" + prototypeThroughput(beanFactory, "engine") + " ops/ms");
+
+        DefaultListableBeanFactory injectionFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(injectionFactory);
+        injectionFactory.addBeanPostProcessor(autowiredProcessor);
+        injectionFactory.addEmbeddedValueResolver(value -> value.replace("${username}", "itnxd")
+                .replace("${wheels}", "6").replace("${capacity}", "12"));
+        injectionFactory.setConversionService(new DefaultConversionService());
+        for (String beanName : new String[]{"truck", "engine", "garage"}) {
+            BeanDefinition beanDefinition = new BeanDefinition("truck".equals(beanName) ? Truck.class
+                    : "engine".equals(beanName) ? Engine.class : Garage.class);
+            beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+            injectionFactory.registerBeanDefinition(beanName, beanDefinition);
+        }
+        injectionFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        System.out.println("缓存注入点时创建原型 bean：" + prototypeThroughput(injectionFactory, "truck") + " ops/ms");
+        System.out.println("构造器注入创建原型 bean：" + prototypeThroughput(injectionFactory, "garage") + " ops/ms");
+    }
+
+    /**
+     * 5 万个 bean 的 xml：对比 dom4j 和 StAX 读取器的耗时和当前线程分配的内存
+     */
+    @Test
+    public void benchmarkXmlReaders() throws Exception {
+        int beanCount = 50_000;
+        Path xml = Files.createTempFile("beans-50k", ".xml");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(xml, StandardCharsets.UTF_8)) {
+                writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<beans>\n");
+                for (int i = 0; i < beanCount; i++) {
+                    writer.write("    <bean id=\"user" + i + "\" class=\"cn.itnxd.springframework.bean.UserServiceImpl\" lazyInit=\"true\">\n");
+                    writer.write("        <property name=\"username\" value=\"user" + i + "\"/>\n");
+                    writer.write("    </bean>\n");
+                }
+                writer.write("</beans>\n");
+            }
+            String location = xml.toString();
+            for (int round = 0; round < 2; round++) {
+                // 第一轮预热
+                long[] dom = benchmarkReader(location, XmlBeanDefinitionReader::new, beanCount);
+                long[] stax = benchmarkReader(location, StaxXmlBeanDefinitionReader::new, beanCount);
+                if (round == 1) {
+                    System.out.printf("%d 个 bean：dom4j %d ms / %d MB，StAX %d ms / %d MB%n", beanCount,
+                            dom[0] / 1_000_000, dom[1] >> 20, stax[0] / 1_000_000, stax[1] >> 20);
+                }
+            }
+        } finally {
+            Files.delete(xml);
+        }
+    }
+
+    /**
+     * @return 耗时（纳秒）、当前线程分配的字节数（不支持时为 -1）
+     */
+    private long[] benchmarkReader(String location, Function<DefaultListableBeanFactory, AbstractBeanDefinitionReader> readerFactory,
+                                   int beanCount) {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean() instanceof ThreadMXBean
+                ? (ThreadMXBean) ManagementFactory.getThreadMXBean() : null;
+        long threadId = Thread.currentThread().getId();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        long allocatedBefore = threadMXBean == null ? 0 : threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        readerFactory.apply(beanFactory).loadBeanDefinitions(location);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadMXBean == null ? -1 : threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        Assert.assertEquals(beanCount, beanFactory.getBeanDefinitionNames().length);
+        Assert.assertEquals("user42", beanFactory.getBeanDefinition("user42").getPropertyValues().getPropertyValue("username").getValue());
+        return new long[]{elapsed, allocated};
+    }
+
+    /**
+     * 单例快速路径：getBean、单例 FactoryBean 的产品以及 ObjectProvider 获取单例的耗时
+     */
+    @Test
+    public void benchmarkSingletonLookup() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(EngineFactoryBean.class));
+        System.out.println("获取单例：" + singletonLookupNanos(beanFactory, "car") + " ns/op");
+        System.out.println("获取单例 FactoryBean 的产品：" + singletonLookupNanos(beanFactory, "engine") + " ns/op");
+
+        ObjectProvider<Car> carProvider = beanFactory.getBeanProvider("car", Car.class);
+        int loops = 10_000_000;
+        Object sink = null;
+        for (int i = 0; i < loops; i++) {
+            sink = carProvider.getObject();
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            sink = carProvider.getObject();
+        }
+        System.out.println("ObjectProvider 获取单例：" + (double) (System.nanoTime() - begin) / loops + " ns/op");
+        Assert.assertSame(beanFactory.getBean("car"), sink);
+    }
+
+    private double singletonLookupNanos(DefaultListableBeanFactory beanFactory, String beanName) {
+        int loops = 10_000_000;
+        Object sink = null;
+        // 预热
+        for (int i = 0; i < loops; i++) {
+            sink = beanFactory.getBean(beanName);
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < loops; i++) {
+            sink = beanFactory.getBean(beanName);
+        }
+        long elapsed = System.nanoTime() - begin;
+        Assert.assertNotNull(sink);
+        return (double) elapsed / loops;
+    }
+
+    /**
+     * 不需要增强与需要增强（只有一个直接 proceed 的拦截器）的方法调用耗时
+     */
+    @Test
+    public void benchmarkStaticPointcutDecisions() {
+        AdvisedSupport timedAdvised = new AdvisedSupport();
+        timedAdvised.setTargetSource(new TargetSource(new Engine("V8", 400)));
+        timedAdvised.setProxyTargetClass(true);
+        timedAdvised.addAdvisor(ApiTest.countingAdvisor("execution(* cn.itnxd.springframework.bean.Engine.getPower(..))",
+                new AtomicInteger(), (MethodInterceptor) MethodInvocation::proceed));
+        Engine timedEngine = (Engine) new ProxyFactory(timedAdvised).getProxy();
+        int iterations = 1_000_000;
+        long sink = 0;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += timedEngine.getModel().length();
+            }
+            long plainNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += timedEngine.getPower();
+            }
+            long advisedNanos = System.nanoTime() - start;
+            System.out.println("不需要增强的方法：" + plainNanos / iterations + " ns/op，需要增强的方法：" + advisedNanos / iterations + " ns/op");
+        }
+        Assert.assertTrue(sink > 0);
+    }
+
+    /**
+     * 共用代理类时创建 cglib 代理的吞吐量；代理类的缓存不持有 advisor，容器关闭后 advisor 可以被回收
+     */
+    @Test
+    public void benchmarkCglibProxyClassCache() {
+        ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        PointcutAdvisor advisor = ApiTest.countingAdvisor("execution(* cn.itnxd.springframework.bean.Engine.start(..))",
+                new AtomicInteger(), (MethodInterceptor) MethodInvocation::proceed);
+        Map<Method, MethodInterceptor[]> methodCache = new ConcurrentHashMap<>();
+        Engine first = ApiTest.createEngineProxy(advisor, new Engine("first", 1), methodCache);
+
+        long loadedClasses = classLoading.getTotalLoadedClassCount();
+        int creations = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < creations; i++) {
+            Engine proxy = ApiTest.createEngineProxy(advisor, new Engine(null, i), methodCache);
+            Assert.assertSame(first.getClass(), proxy.getClass());
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        System.out.println("创建 100 万个 cglib 代理：" + creations * 1_000_000_000L / elapsedNanos + " 个/秒，新加载的类："
+                + (classLoading.getTotalLoadedClassCount() - loadedClasses));
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autoProxyCreator);
+        ApiTest.registerAdvisor(beanFactory, "metrics", "execution(* cn.itnxd.springframework.bean.Engine.start(..))");
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        beanFactory.getBean("engine");
+        int prototypes = 100_000;
+        start = System.nanoTime();
+        for (int i = 0; i < prototypes; i++) {
+            beanFactory.getBean("engine");
+        }
+        elapsedNanos = System.nanoTime() - start;
+        System.out.println("创建被代理的原型 bean：" + prototypes * 1_000_000_000L / elapsedNanos + " 个/秒");
+
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:spring.xml");
+        applicationContext.getBean("userService");
+        WeakReference<Object> advisorReference = new WeakReference<>(applicationContext.getBean("pointcutAdvisor"));
+        applicationContext.close();
+        applicationContext = null;
+        awaitCollected(advisorReference);
+    }
+
+    /**
+     * 切点表达式解析器的缓存不会让类加载器一直存活
+     */
+    @Test
+    public void benchmarkPointcutParserClassLoader() throws Exception {
+        URLClassLoader classLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut("execution(* cn.itnxd.springframework.bean.Engine.*(..))", classLoader);
+        Assert.assertTrue(pointcut.matches(Engine.class.getMethod("start"), Engine.class));
+        WeakReference<ClassLoader> classLoaderReference = new WeakReference<>(classLoader);
+        classLoader = null;
+        pointcut = null;
+        awaitCollected(classLoaderReference);
+    }
+
+    /**
+     * 500 个 advisor：表达式各不相同（只能共享解析器）以及 10 种表达式重复使用（解析结果缓存）时的启动耗时
+     */
+    @Test
+    public void benchmarkAdvisorStartup() {
+        for (int distinct : new int[]{500, 10}) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+            autoProxyCreator.setBeanFactory(beanFactory);
+            beanFactory.addBeanPostProcessor(autoProxyCreator);
+            beanFactory.registerBeanDefinition("recordingInterceptor", new BeanDefinition(RecordingInterceptor.class));
+            for (int i = 0; i < 500; i++) {
+                BeanDefinition advisor = new BeanDefinition(AspectJExpressionPointcutAdvisor.class);
+                advisor.getPropertyValues().addPropertyValue(new PropertyValue("expression",
+                        "execution(* cn.itnxd.springframework.bean.Engine.start" + (i % distinct) + "(..)) || within(cn.itnxd.springframework.bean.Truck)"));
+                advisor.getPropertyValues().addPropertyValue(new PropertyValue("advice", new BeanReference("recordingInterceptor")));
+                beanFactory.registerBeanDefinition("advisor" + i, advisor);
+            }
+            beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+            long start = System.nanoTime();
+            beanFactory.getBean("engine", Engine.class).start();
+            System.out.println("500 个 advisor（" + distinct + " 种表达式）启动耗时：" + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * 触发 GC 直到弱引用的对象被回收，最多等待约 1 秒
+     * @param reference
+     */
+    private static void awaitCollected(WeakReference<?> reference) {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            ApiTest.sleep(20);
+        }
+        Assert.assertNull(reference.get());
+    }
+}
@@ -1,11 +1,88 @@
 package cn.itnxd.springframework;
 
+import cn.hutool.core.io.IoUtil;
+import cn.itnxd.springframework.aop.AdvisedSupport;
+import cn.itnxd.springframework.aop.ClassFilter;
+import cn.itnxd.springframework.aop.MethodMatcher;
+import cn.itnxd.springframework.aop.Pointcut;
+import cn.itnxd.springframework.aop.PointcutAdvisor;
+import cn.itnxd.springframework.aop.TargetSource;
+import cn.itnxd.springframework.aop.aspectj.AspectJExpressionPointcut;
+import cn.itnxd.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import cn.itnxd.springframework.aop.framework.ProxyFactory;
+import cn.itnxd.springframework.aop.framework.autoproxy.DefaultAdvisorAutoProxyCreator;
 import cn.itnxd.springframework.bean.A;
+import cn.itnxd.springframework.bean.AdminConsole;
 import cn.itnxd.springframework.bean.B;
+import cn.itnxd.springframework.bean.Car;
+import cn.itnxd.springframework.bean.Dashboard;
+import cn.itnxd.springframework.bean.Depot;
+import cn.itnxd.springframework.bean.Encoder;
+import cn.itnxd.springframework.bean.Engine;
+import cn.itnxd.springframework.bean.EngineFactoryBean;
+import cn.itnxd.springframework.bean.Odometer;
+import cn.itnxd.springframework.bean.Garage;
+import cn.itnxd.springframework.bean.ReportGenerator;
+import cn.itnxd.springframework.bean.ReportService;
+import cn.itnxd.springframework.bean.SlowInitBean;
+import cn.itnxd.springframework.bean.ThreadFormatter;
+import cn.itnxd.springframework.bean.Truck;
+import cn.itnxd.springframework.bean.UserService;
+import cn.itnxd.springframework.bean.UserServiceImpl;
+import cn.itnxd.springframework.bean.Workshop;
+import cn.itnxd.springframework.beans.annotation.AutowiredAnnotationBeanPostProcessor;
+import cn.itnxd.springframework.beans.PropertyValue;
+import cn.itnxd.springframework.beans.exception.BeansException;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+import cn.itnxd.springframework.beans.factory.PoolableBean;
+import cn.itnxd.springframework.beans.factory.PooledBeanHandle;
+import cn.itnxd.springframework.beans.factory.config.BeanDefinition;
+import cn.itnxd.springframework.beans.factory.config.BeanPoolConfig;
+import cn.itnxd.springframework.beans.factory.config.BeanPostProcessor;
+import cn.itnxd.springframework.beans.factory.config.BeanReference;
+import cn.itnxd.springframework.beans.factory.config.InstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.BeanPool;
+import cn.itnxd.springframework.beans.factory.support.CglibSubclassingInstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.DefaultListableBeanFactory;
+import cn.itnxd.springframework.beans.factory.support.MethodHandleInstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.SimpleInstantiationStrategy;
+import cn.itnxd.springframework.beans.factory.support.ThreadScope;
+import cn.itnxd.springframework.beans.factory.xml.StaxXmlBeanDefinitionReader;
+import cn.itnxd.springframework.beans.factory.xml.XmlBeanDefinitionReader;
+import cn.itnxd.springframework.context.annotation.ClassPathBeanDefinitionScanner;
 import cn.itnxd.springframework.context.support.ClassPathXmlApplicationContext;
+import cn.itnxd.springframework.core.convert.support.DefaultConversionService;
+import cn.itnxd.springframework.core.metrics.RecordingApplicationStartup;
+import cn.itnxd.springframework.core.type.classreading.ClassMetadata;
+import cn.itnxd.springframework.core.type.classreading.ClassMetadataReader;
+import cn.itnxd.springframework.interceptor.CountingPointcutAdvisor;
+import cn.itnxd.springframework.interceptor.RecordingInterceptor;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Assert;
 import org.junit.Test;
 
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @Author niuxudong
@@ -49,4 +126,1521 @@ public class ApiTest {
 
         System.out.println("延迟三秒调用的懒加载：" + (b.getEndTime() - start)); // 3327
     }
-}
\ No newline at end of file
+
+    /**
+     * 多线程并发获取同一个懒加载单例，只会创建一次；两个线程分别创建互相依赖的单例不会死锁
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentGetBean() throws Exception {
+        SlowInitBean.CREATED_COUNT.set(0);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("slowInitBean", slowInitBeanDefinition(null));
+        // x 和 y 互相依赖
+        beanFactory.registerBeanDefinition("x", slowInitBeanDefinition("y"));
+        beanFactory.registerBeanDefinition("y", slowInitBeanDefinition("x"));
+
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            // 一半线程从 x 开始获取，一半线程从 y 开始获取
+            String beanName = i % 2 == 0 ? "x" : "y";
+            futures.add(executor.submit(() -> {
+                start.await();
+                beanFactory.getBean(beanName);
+                return beanFactory.getBean("slowInitBean");
+            }));
+        }
+        start.countDown();
+        Object first = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (Future<Object> future : futures) {
+            Assert.assertSame(first, future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        SlowInitBean x = beanFactory.getBean("x", SlowInitBean.class);
+        SlowInitBean y = beanFactory.getBean("y", SlowInitBean.class);
+        Assert.assertSame(y, x.getOther());
+        Assert.assertSame(x, y.getOther());
+        // slowInitBean、x、y 各创建一次
+        Assert.assertEquals(3, SlowInitBean.CREATED_COUNT.get());
+    }
+
+    /**
+     * 其他线程正在创建单例时获取，等待创建完成，不会拿到提前暴露的未初始化完成的 bean
+     * @throws Exception
+     */
+    @Test
+    public void testGetBeanDuringCreation() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition beanDefinition = slowInitBeanDefinition(null);
+        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("initMillis", 1000L));
+        beanFactory.registerBeanDefinition("slowInitBean", beanDefinition);
+
+        SlowInitBean.CREATED_COUNT.set(0);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<SlowInitBean> creator = executor.submit(() -> beanFactory.getBean("slowInitBean", SlowInitBean.class));
+        // 等到实例化完成、提前暴露引用之后（init 执行期间）再获取
+        while (SlowInitBean.CREATED_COUNT.get() == 0) {
+            Thread.yield();
+        }
+        sleep(300);
+        Assert.assertTrue(beanFactory.isSingletonCurrentlyInCreation("slowInitBean"));
+        SlowInitBean bean = beanFactory.getBean("slowInitBean", SlowInitBean.class);
+        Assert.assertTrue(bean.isInited());
+        Assert.assertSame(bean, creator.get(10, TimeUnit.SECONDS));
+
+        // 创建其他 bean 的过程中获取依赖（嵌套创建）：没有互相等待时同样等待创建完成
+        beanFactory.registerBeanDefinition("dependent", slowInitBeanDefinition("slowInitBean2"));
+        BeanDefinition dependencyDefinition = slowInitBeanDefinition(null);
+        dependencyDefinition.getPropertyValues().addPropertyValue(new PropertyValue("initMillis", 1000L));
+        beanFactory.registerBeanDefinition("slowInitBean2", dependencyDefinition);
+        SlowInitBean.CREATED_COUNT.set(0);
+        Future<SlowInitBean> dependencyCreator = executor.submit(() -> beanFactory.getBean("slowInitBean2", SlowInitBean.class));
+        while (SlowInitBean.CREATED_COUNT.get() == 0) {
+            Thread.yield();
+        }
+        sleep(300);
+        SlowInitBean dependent = beanFactory.getBean("dependent", SlowInitBean.class);
+        Assert.assertTrue(dependent.getOther().isInited());
+        Assert.assertSame(dependent.getOther(), dependencyCreator.get(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    static BeanDefinition slowInitBeanDefinition(String otherBeanName) {
+        BeanDefinition beanDefinition = new BeanDefinition(SlowInitBean.class);
+        beanDefinition.setInitMethodName("init");
+        beanDefinition.setLazyInit(true);
+        if (otherBeanName != null) {
+            beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("other", new BeanReference(otherBeanName)));
+        }
+        return beanDefinition;
+    }
+
+    /**
+     * 类型索引：按类型查找 beanName 不再遍历所有 BeanDefinition
+     */
+    @Test
+    public void testBeanNamesForType() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("a", new BeanDefinition(A.class));
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        Assert.assertArrayEquals(new String[]{"a"}, beanFactory.getBeanNamesForType(A.class));
+        Assert.assertEquals(0, beanFactory.getBeanNamesForType(Runnable.class).length);
+        // 索引构建之后注册的 bean 同样可以按类型找到，父类 Object 下包含所有 bean
+        beanFactory.registerBeanDefinition("b", new BeanDefinition(B.class));
+        Assert.assertArrayEquals(new String[]{"b"}, beanFactory.getBeanNamesForType(B.class));
+        Assert.assertArrayEquals(new String[]{"a", "car", "b"}, beanFactory.getBeanNamesForType(Object.class));
+        // 覆盖已有的 BeanDefinition 后类型变化
+        beanFactory.registerBeanDefinition("b", new BeanDefinition(Car.class));
+        Assert.assertEquals(0, beanFactory.getBeanNamesForType(B.class).length);
+        Assert.assertArrayEquals(new String[]{"car", "b"}, beanFactory.getBeanNamesForType(Car.class));
+
+        simulateStartup(1_000);
+    }
+
+    /**
+     * 模拟启动：注册 count 个 BeanDefinition，每个 bean 创建时都按类型查找一次依赖（包括查找不到的类型）
+     * @param count
+     */
+    static void simulateStartup(int count) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        Class<?>[] classes = {A.class, B.class, Car.class, SlowInitBean.class};
+        for (int i = 0; i < count; i++) {
+            beanFactory.registerBeanDefinition("bean" + i, new BeanDefinition(classes[i % classes.length]));
+        }
+        for (int i = 0; i < count; i++) {
+            beanFactory.getBeanNamesForType(classes[i % classes.length]);
+            beanFactory.getBeanNamesForType(Runnable.class);
+        }
+        Assert.assertEquals(count / classes.length, beanFactory.getBeanNamesForType(A.class).length);
+    }
+
+    /**
+     * 并行提前实例化单例：互不依赖的单例同时创建，依赖的单例先创建完成，依赖链和循环依赖仍然正确注入
+     */
+    @Test
+    public void testParallelPreInstantiate() {
+        ClassPathXmlApplicationContext sequentialContext = new ClassPathXmlApplicationContext("classpath:parallel.xml");
+        try {
+            // 依次创建时初始化方法不会同时执行
+            Assert.assertEquals(0, countInitOverlaps(sequentialContext));
+        } finally {
+            sequentialContext.close();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(8);
+        ClassPathXmlApplicationContext parallelContext = new ClassPathXmlApplicationContext();
+        try {
+            parallelContext.setConfigLocations("classpath:parallel.xml");
+            parallelContext.setPreInstantiationPool(pool);
+            parallelContext.refresh();
+
+            // 互不依赖的单例的初始化方法同时执行
+            int overlaps = countInitOverlaps(parallelContext);
+            System.out.println("并行实例化时同时初始化的 bean 对数：" + overlaps);
+            Assert.assertTrue(overlaps > 0);
+
+            // c1 依赖 c2：c2 初始化完成后才创建 c1
+            SlowInitBean c1 = parallelContext.getBean("c1", SlowInitBean.class);
+            SlowInitBean c2 = parallelContext.getBean("c2", SlowInitBean.class);
+            Assert.assertSame(c2, c1.getOther());
+            Assert.assertTrue(c2.getInitEndNanos() <= c1.getInitStartNanos());
+            SlowInitBean x = parallelContext.getBean("x", SlowInitBean.class);
+            SlowInitBean y = parallelContext.getBean("y", SlowInitBean.class);
+            Assert.assertSame(y, x.getOther());
+            Assert.assertSame(x, y.getOther());
+            // 被依赖的懒加载单例先创建完成，两个依赖它的 bean 拿到的是初始化完成的同一个实例
+            SlowInitBean shared = parallelContext.getBean("shared", SlowInitBean.class);
+            for (String beanName : new String[]{"l1", "l2"}) {
+                SlowInitBean dependent = parallelContext.getBean(beanName, SlowInitBean.class);
+                Assert.assertSame(shared, dependent.getOther());
+                Assert.assertTrue(shared.getInitEndNanos() <= dependent.getInitStartNanos());
+            }
+        } finally {
+            parallelContext.close();
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 并行提前实例化很长的依赖链：按拓扑顺序创建任务，不会栈溢出
+     */
+    @Test
+    public void testParallelPreInstantiateLongChain() {
+        int length = 50_000;
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        // chain0 依赖 chain1，chain1 依赖 chain2 ...
+        for (int i = 0; i < length; i++) {
+            BeanDefinition beanDefinition = new BeanDefinition(SlowInitBean.class);
+            if (i + 1 < length) {
+                beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("other", new BeanReference("chain" + (i + 1))));
+            }
+            beanFactory.registerBeanDefinition("chain" + i, beanDefinition);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            beanFactory.setPreInstantiationPool(pool);
+            beanFactory.preInstantiateSingletons();
+        } finally {
+            pool.shutdownNow();
+        }
+        SlowInitBean bean = beanFactory.getBean("chain0", SlowInitBean.class);
+        for (int i = 1; i < length; i++) {
+            bean = bean.getOther();
+            Assert.assertSame(beanFactory.getBean("chain" + i), bean);
+        }
+        Assert.assertNull(bean.getOther());
+    }
+
+    /**
+     * 统计互不依赖的 s1 ~ s6 中初始化方法同时执行的 bean 对数
+     * @param applicationContext
+     * @return
+     */
+    private static int countInitOverlaps(ClassPathXmlApplicationContext applicationContext) {
+        List<SlowInitBean> beans = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            beans.add(applicationContext.getBean("s" + i, SlowInitBean.class));
+        }
+        int overlaps = 0;
+        for (int i = 0; i < beans.size(); i++) {
+            for (int j = i + 1; j < beans.size(); j++) {
+                if (beans.get(i).initOverlaps(beans.get(j))) {
+                    overlaps++;
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * 构造器循环依赖：依次创建、并行提前实例化以及两个线程同时从两端获取时都抛出异常，不会一直等待
+     */
+    @Test
+    public void testConstructorCycle() throws Exception {
+        try {
+            constructorCycleFactory().preInstantiateSingletons();
+            Assert.fail("构造器循环依赖无法解决");
+        } catch (BeansException e) {
+            System.out.println("依次创建：" + rootMessage(e));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            DefaultListableBeanFactory parallelFactory = constructorCycleFactory();
+            parallelFactory.setPreInstantiationPool(pool);
+            assertCycleFailure(executor.submit(() -> {
+                parallelFactory.preInstantiateSingletons();
+                return null;
+            }));
+
+            // 两个线程各自持有一把创建锁后互相等待对方构造器需要的 bean
+            DefaultListableBeanFactory concurrentFactory = constructorCycleFactory();
+            CountDownLatch start = new CountDownLatch(1);
+            Future<Object> workshop = executor.submit(() -> {
+                start.await();
+                return concurrentFactory.getBean("workshop");
+            });
+            Future<Object> depot = executor.submit(() -> {
+                start.await();
+                return concurrentFactory.getBean("depot");
+            });
+            start.countDown();
+            assertCycleFailure(workshop);
+            assertCycleFailure(depot);
+        } finally {
+            executor.shutdownNow();
+            pool.shutdownNow();
+        }
+    }
+
+    private DefaultListableBeanFactory constructorCycleFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        BeanDefinition slowDefinition = new BeanDefinition(SlowInitBean.class);
+        slowDefinition.getPropertyValues().addPropertyValue(new PropertyValue("initMillis", 200L));
+        slowDefinition.setInitMethodName("init");
+        beanFactory.registerBeanDefinition("slow", slowDefinition);
+        beanFactory.registerBeanDefinition("workshop", new BeanDefinition(Workshop.class));
+        beanFactory.registerBeanDefinition("depot", new BeanDefinition(Depot.class));
+        return beanFactory;
+    }
+
+    private static void assertCycleFailure(Future<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            Assert.fail("构造器循环依赖无法解决");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof BeansException);
+            System.out.println(rootMessage(e.getCause()));
+        }
+    }
+
+    /**
+     * 各种实例化策略：按参数选择构造器创建原型 bean，bean 类由子类加载器加载时同样可以创建
+     */
+    @Test
+    public void testInstantiationStrategy() throws Exception {
+        CglibSubclassingInstantiationStrategy skipSubclassingStrategy = new CglibSubclassingInstantiationStrategy();
+        skipSubclassingStrategy.setSkipSubclassingIfPossible(true);
+        InstantiationStrategy[] strategies = {
+                new SimpleInstantiationStrategy(),
+                new CglibSubclassingInstantiationStrategy(),
+                skipSubclassingStrategy,
+                new MethodHandleInstantiationStrategy()
+        };
+        for (InstantiationStrategy strategy : strategies) {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.setInstantiationStrategy(strategy);
+            BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+            beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+            beanFactory.registerBeanDefinition("engine", beanDefinition);
+
+            // 有参构造器
+            Engine engine = (Engine) beanFactory.getBean("engine", "v8", 300);
+            Assert.assertEquals("v8", engine.getModel());
+            Assert.assertEquals(300, engine.getPower());
+            Assert.assertNotSame(engine, beanFactory.getBean("engine"));
+
+            // bean 类由 beanClassLoader（子类加载器）加载
+            ClassLoader beanClassLoader = trackingClassLoader(new HashSet<>());
+            beanFactory.setBeanClassLoader(beanClassLoader);
+            beanFactory.registerBeanDefinition("childEngine", new BeanDefinition(Engine.class.getName()));
+            Class<?> childEngineClass = Class.forName(Engine.class.getName(), false, beanClassLoader);
+            Assert.assertTrue(childEngineClass.isInstance(beanFactory.getBean("childEngine")));
+        }
+    }
+
+    /**
+     * cglib 实例化策略每个 class 只生成一次子类；跳过子类模式直接实例化原始类，不生成额外的类
+     */
+    @Test
+    public void testCglibSubclassCache() {
+        CglibSubclassingInstantiationStrategy strategy = new CglibSubclassingInstantiationStrategy();
+        BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+
+        Object first = strategy.instantiate(beanDefinition, "engine", null, null);
+        Assert.assertTrue(first.getClass().getName().contains("$$"));
+        for (int i = 0; i < 1_000; i++) {
+            Assert.assertSame(first.getClass(), strategy.instantiate(beanDefinition, "engine", null, null).getClass());
+        }
+
+        strategy.setSkipSubclassingIfPossible(true);
+        Assert.assertSame(Engine.class, strategy.instantiate(beanDefinition, "engine", null, null).getClass());
+    }
+
+    /**
+     * 原型 bean 按创建配方填充属性、执行 init-method，属性集合不会随创建次数增长
+     */
+    @Test
+    public void testBeanRecipe() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autowiredProcessor);
+
+        BeanDefinition beanDefinition = new BeanDefinition(Engine.class);
+        beanDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanDefinition.setInitMethodName("start");
+        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("model", "v6"));
+        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("power", "200"));
+        beanFactory.registerBeanDefinition("engine", beanDefinition);
+
+        Engine engine = (Engine) beanFactory.getBean("engine");
+        Assert.assertEquals("v6", engine.getModel());
+        Assert.assertEquals(200, engine.getPower());
+        Assert.assertTrue(engine.isStarted());
+        Assert.assertNotSame(engine, beanFactory.getBean("engine"));
+
+        for (int i = 0; i < 100; i++) {
+            beanFactory.getBean("engine");
+        }
+        Assert.assertEquals(2, beanDefinition.getPropertyValues().size());
+
+        // 修改了属性集合则重新编译配方
+        beanDefinition.getPropertyValues().addPropertyValue(new PropertyValue("power", "300"));
+        Assert.assertEquals(300, ((Engine) beanFactory.getBean("engine")).getPower());
+
+        // 初始化前处理器返回了其他类的对象：init-method 在该对象实际的类上执行
+        B wrapper = new B();
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                return "a".equals(beanName) ? wrapper : bean;
+            }
+        });
+        BeanDefinition aDefinition = new BeanDefinition(A.class);
+        aDefinition.setInitMethodName("initTime");
+        beanFactory.registerBeanDefinition("a", aDefinition);
+        beanFactory.getBean("a");
+        Assert.assertTrue(wrapper.getEndTime() > 0);
+
+        // 转换结果可变（AtomicLong）时每个实例单独转换，不共享同一个对象
+        BeanDefinition odometerDefinition = new BeanDefinition(Odometer.class);
+        odometerDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        odometerDefinition.getPropertyValues().addPropertyValue(new PropertyValue("mileage", "0"));
+        DefaultListableBeanFactory odometerFactory = new DefaultListableBeanFactory();
+        odometerFactory.registerBeanDefinition("odometer", odometerDefinition);
+        Odometer odometer = odometerFactory.getBean("odometer", Odometer.class);
+        odometer.getMileage().incrementAndGet();
+        Assert.assertEquals(0, odometerFactory.getBean("odometer", Odometer.class).getMileage().get());
+    }
+
+    /**
+     * 对象池作用域：借用归还复用 bean，达到上限等待超时，校验失败和逐出的 bean 被销毁
+     */
+    @Test
+    public void testPooledScope() throws Exception {
+        Encoder.CREATED_COUNT.set(0);
+        Encoder.DESTROYED_COUNT.set(0);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:pooled.xml");
+        // 启动时补足 minIdle
+        Assert.assertEquals(1, Encoder.CREATED_COUNT.get());
+
+        Encoder first;
+        try (PooledBeanHandle<Encoder> handle = applicationContext.borrowBean("encoder", Encoder.class)) {
+            first = handle.getBean();
+            Assert.assertEquals("[a]", first.encode("a"));
+        }
+        try (PooledBeanHandle<Encoder> handle = applicationContext.borrowBean("encoder", Encoder.class)) {
+            // 复用归还的 bean，并且状态已经重置
+            Assert.assertSame(first, handle.getBean());
+            Assert.assertEquals("[b]", handle.getBean().encode("b"));
+        }
+
+        PooledBeanHandle<Encoder> h1 = applicationContext.borrowBean("encoder", Encoder.class);
+        PooledBeanHandle<Encoder> h2 = applicationContext.borrowBean("encoder", Encoder.class);
+        try {
+            applicationContext.borrowBean("encoder", Encoder.class);
+            Assert.fail("超过 maxTotal 应该等待超时");
+        } catch (BeansException e) {
+            System.out.println(e.getMessage());
+        }
+        // 其他线程归还之后等待的线程可以借到
+        CompletableFuture.runAsync(() -> {
+            sleep(20);
+            h1.close();
+        });
+        try (PooledBeanHandle<Encoder> handle = applicationContext.borrowBean("encoder", Encoder.class)) {
+            Assert.assertNotNull(handle.getBean());
+        }
+        // 校验失败的 bean 归还时被销毁
+        h2.getBean().setBroken(true);
+        h2.close();
+        Assert.assertEquals(1, Encoder.DESTROYED_COUNT.get());
+
+        // 直接获取会报错
+        try {
+            applicationContext.getBean("encoder");
+            Assert.fail("pooled 作用域的 bean 只能借用");
+        } catch (BeansException e) {
+            System.out.println(e.getMessage());
+        }
+
+        // 关闭容器销毁所有空闲的 bean
+        applicationContext.close();
+        Assert.assertEquals(Encoder.CREATED_COUNT.get(), Encoder.DESTROYED_COUNT.get());
+
+        // 空闲超时逐出之后补足 minIdle
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        new XmlBeanDefinitionReader(beanFactory).loadBeanDefinitions("classpath:pooled.xml");
+        BeanPool beanPool = beanFactory.getBeanPool("encoder");
+        PooledBeanHandle<Encoder> h3 = beanFactory.borrowBean("encoder", Encoder.class);
+        PooledBeanHandle<Encoder> h4 = beanFactory.borrowBean("encoder", Encoder.class);
+        h3.close();
+        h4.close();
+        Assert.assertEquals(2, beanPool.getIdleCount());
+        sleep(80);
+        beanPool.evict();
+        Assert.assertEquals(1, beanPool.getIdleCount());
+        Assert.assertEquals(0, beanPool.getActiveCount());
+        beanFactory.destroySingletons();
+
+        // 补足 minIdle 创建 bean 期间对象池被关闭，创建出的 bean 直接销毁，不会留在空闲队列中
+        BeanPoolConfig poolConfig = new BeanPoolConfig();
+        poolConfig.setMinIdle(1);
+        poolConfig.setMaxIdle(1);
+        poolConfig.setMaxTotal(1);
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        List<Object> destroyed = Collections.synchronizedList(new ArrayList<>());
+        BeanPool closingPool = new BeanPool("closing", poolConfig, () -> {
+            creating.countDown();
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new Object();
+        }, destroyed::add);
+        CompletableFuture<Void> prefill = CompletableFuture.runAsync(closingPool::prefill);
+        creating.await();
+        closingPool.close();
+        closed.countDown();
+        prefill.get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, destroyed.size());
+        Assert.assertEquals(0, closingPool.getIdleCount());
+        Assert.assertEquals(0, closingPool.getActiveCount());
+
+        // 归还时重置状态抛出异常：bean 被销毁，名额释放，之后仍然可以借用
+        BeanPoolConfig failingConfig = new BeanPoolConfig();
+        failingConfig.setMaxTotal(1);
+        failingConfig.setMaxWaitMillis(100);
+        AtomicBoolean failPassivate = new AtomicBoolean(true);
+        List<Object> failedDestroyed = Collections.synchronizedList(new ArrayList<>());
+        BeanPool failingPool = new BeanPool("failing", failingConfig, () -> new PoolableBean() {
+            @Override
+            public void passivate() {
+                if (failPassivate.get()) {
+                    throw new IllegalStateException("passivate failed");
+                }
+            }
+        }, failedDestroyed::add);
+        PooledBeanHandle<Object> failing = failingPool.borrow();
+        try {
+            failing.close();
+            Assert.fail("重置状态失败应该抛出异常");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(1, failedDestroyed.size());
+        Assert.assertEquals(0, failingPool.getActiveCount());
+        failPassivate.set(false);
+        try (PooledBeanHandle<Object> handle = failingPool.borrow()) {
+            Assert.assertNotSame(failedDestroyed.get(0), handle.getBean());
+        }
+        Assert.assertEquals(1, failingPool.getIdleCount());
+
+        // @Scope("pooled") 和 @Pooled 注解
+        beanFactory = new DefaultListableBeanFactory();
+        new ClassPathBeanDefinitionScanner(beanFactory).doScan("cn.itnxd.springframework.bean");
+        BeanDefinition beanDefinition = beanFactory.getBeanDefinition("encoder");
+        Assert.assertTrue(beanDefinition.isPooled());
+        Assert.assertEquals(2, beanDefinition.getPoolConfig().getMaxTotal());
+        Assert.assertEquals(100, beanDefinition.getPoolConfig().getMaxWaitMillis());
+    }
+
+    static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * thread 作用域：单例注入作用域代理，每个线程调用到的是自己的 bean，线程结束后销毁
+     */
+    @Test
+    public void testThreadScope() throws Exception {
+        ThreadFormatter.CREATED_COUNT.set(0);
+        ThreadFormatter.DESTROYED_COUNT.set(0);
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext("classpath:thread.xml");
+        ReportService reportService = applicationContext.getBean("reportService", ReportService.class);
+        ThreadFormatter mainFormatter = reportService.getFormatter().self();
+        Assert.assertSame(mainFormatter, reportService.getFormatter().self());
+
+        int threads = 4;
+        List<Thread> workers = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread worker = new Thread(runnable);
+            workers.add(worker);
+            return worker;
+        });
+        List<Future<ThreadFormatter>> futures = new ArrayList<>();
+        for (int i = 0; i < threads * 4; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadFormatter formatter = reportService.getFormatter().self();
+                for (int j = 0; j < 10_000; j++) {
+                    reportService.report(j * 1000L);
+                }
+                Assert.assertSame(formatter, reportService.getFormatter().self());
+                return formatter;
+            }));
+        }
+        for (Future<ThreadFormatter> future : futures) {
+            Assert.assertNotSame(mainFormatter, future.get());
+        }
+        // 作用域代理本身会调用一次构造器
+        Assert.assertEquals(1 + 1 + threads, ThreadFormatter.CREATED_COUNT.get());
+
+        // 线程结束后，新的线程第一次使用时销毁已经结束的线程中的 bean
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        // awaitTermination 返回时工作线程可能还没有完全退出
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Thread thread = new Thread(() -> reportService.report(0));
+        thread.start();
+        thread.join();
+        Assert.assertEquals(threads, ThreadFormatter.DESTROYED_COUNT.get());
+
+        // 容器关闭时销毁其余线程中的 bean（main 线程以及最后的线程）
+        applicationContext.close();
+        Assert.assertEquals(threads + 2, ThreadFormatter.DESTROYED_COUNT.get());
+
+        // 销毁后仍然存活的线程再次使用作用域：重新注册，新的 bean 在下一次销毁时同样执行销毁回调
+        ThreadScope threadScope = new ThreadScope();
+        AtomicInteger destroyed = new AtomicInteger();
+        Object before = threadScope.get("formatter", Object::new);
+        threadScope.registerDestructionCallback("formatter", destroyed::incrementAndGet);
+        threadScope.destroy();
+        Object after = threadScope.get("formatter", Object::new);
+        Assert.assertNotSame(before, after);
+        threadScope.registerDestructionCallback("formatter", destroyed::incrementAndGet);
+        threadScope.destroy();
+        Assert.assertEquals(2, destroyed.get());
+    }
+
+    /**
+     * @Lazy 注入点以及全局延迟注入：启动时注入代理，第一次调用方法时才创建被注入的 bean
+     */
+    @Test
+    public void testLazyInjection() {
+        ReportGenerator.CREATED_COUNT.set(0);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autowiredProcessor);
+        beanFactory.setLazyInjection(true);
+
+        BeanDefinition reportGenerator = new BeanDefinition(ReportGenerator.class);
+        reportGenerator.setLazyInit(true);
+        beanFactory.registerBeanDefinition("reportGenerator", reportGenerator);
+        BeanDefinition userService = new BeanDefinition(UserServiceImpl.class);
+        userService.setLazyInit(true);
+        beanFactory.registerBeanDefinition("userService", userService);
+        beanFactory.registerBeanDefinition("adminConsole", new BeanDefinition(AdminConsole.class));
+        beanFactory.preInstantiateSingletons();
+
+        AdminConsole adminConsole = beanFactory.getBean("adminConsole", AdminConsole.class);
+        // @Lazy 的类使用 cglib 代理，生成代理时调用了一次构造器，真正的 bean 还没有创建
+        Assert.assertEquals(1, ReportGenerator.CREATED_COUNT.get());
+        Assert.assertNull(beanFactory.getSingleton("reportGenerator"));
+        // 全局延迟注入：懒加载的单例注入 jdk 代理
+        Assert.assertTrue(java.lang.reflect.Proxy.isProxyClass(adminConsole.getUserService().getClass()));
+        Assert.assertNull(beanFactory.getSingleton("userService"));
+
+        Assert.assertEquals("report: daily", adminConsole.getReportGenerator().generate("daily"));
+        Assert.assertEquals(2, ReportGenerator.CREATED_COUNT.get());
+        Assert.assertNotNull(beanFactory.getSingleton("reportGenerator"));
+        adminConsole.getUserService().getUserInfo();
+        Assert.assertNotNull(beanFactory.getSingleton("userService"));
+        // 之后直接调用已经解析的 bean
+        adminConsole.getReportGenerator().generate("weekly");
+        Assert.assertEquals(2, ReportGenerator.CREATED_COUNT.get());
+    }
+
+    /**
+     * 启动步骤记录：refresh 的各个阶段、xml 解析、每个 bean 的创建阶段以及代理的创建，嵌套关系体现在父步骤中
+     */
+    @Test
+    public void testStartupTimeline() {
+        RecordingApplicationStartup startup = new RecordingApplicationStartup();
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext();
+        applicationContext.setConfigLocations("classpath:scan.xml");
+        applicationContext.setApplicationStartup(startup);
+        applicationContext.refresh();
+
+        List<RecordingApplicationStartup.RecordedStep> steps = startup.getSteps();
+        Map<Long, RecordingApplicationStartup.RecordedStep> stepsById = new HashMap<>();
+        for (RecordingApplicationStartup.RecordedStep step : steps) {
+            stepsById.put(step.getId(), step);
+        }
+        RecordingApplicationStartup.RecordedStep root = steps.get(0);
+        Assert.assertEquals("context.refresh", root.getName());
+        Assert.assertNull(root.getParentId());
+
+        RecordingApplicationStartup.RecordedStep createA = null;
+        RecordingApplicationStartup.RecordedStep createB = null;
+        RecordingApplicationStartup.RecordedStep createProxy = null;
+        for (RecordingApplicationStartup.RecordedStep step : steps) {
+            if ("beans.xml.load".equals(step.getName())) {
+                Assert.assertEquals("context.refresh-bean-factory", stepsById.get(step.getParentId()).getName());
+            }
+            if ("bean.create".equals(step.getName()) && "a".equals(step.getTags().get("beanName"))) {
+                createA = step;
+            }
+            if ("bean.create".equals(step.getName()) && "b".equals(step.getTags().get("beanName"))) {
+                createB = step;
+            }
+            if ("aop.create-proxy".equals(step.getName())) {
+                createProxy = step;
+            }
+        }
+        Assert.assertNotNull(createA);
+        Assert.assertNotNull(createProxy);
+        // a 填充属性时创建 b，b 的创建嵌套在 a 的属性填充中
+        RecordingApplicationStartup.RecordedStep populateA = stepsById.get(createB.getParentId());
+        Assert.assertEquals("bean.populate", populateA.getName());
+        Assert.assertEquals(createA.getId(), (long) populateA.getParentId());
+        Assert.assertTrue(createA.getDurationNanos() >= createB.getDurationNanos());
+
+        String collapsedStacks = startup.toCollapsedStacks();
+        System.out.println(collapsedStacks);
+        Assert.assertTrue(collapsedStacks.contains("context.refresh;context.finish-bean-factory-initialization;bean.create[a];bean.populate;bean.create[b];bean.instantiate "));
+        Assert.assertTrue(startup.toJson().contains("\"beanName\": \"a\""));
+    }
+
+    /**
+     * BeanDefinition 快照：第一次启动完整加载并保存快照，之后校验和一致时直接从快照加载
+     */
+    @Test
+    public void testBeanDefinitionSnapshot() throws Exception {
+        File snapshotFile = File.createTempFile("small-spring", ".snapshot");
+        Assert.assertTrue(snapshotFile.delete());
+        try {
+            RecordingApplicationStartup fullStartup = new RecordingApplicationStartup();
+            ClassPathXmlApplicationContext fullContext = snapshotContext(snapshotFile, fullStartup);
+            Assert.assertTrue(snapshotFile.isFile());
+            Assert.assertTrue(hasStep(fullStartup, "beans.xml.load"));
+
+            RecordingApplicationStartup snapshotStartup = new RecordingApplicationStartup();
+            ClassPathXmlApplicationContext snapshotContext = snapshotContext(snapshotFile, snapshotStartup);
+            Assert.assertFalse(hasStep(snapshotStartup, "beans.xml.load"));
+            Assert.assertArrayEquals(fullContext.getBeanDefinitionNames(), snapshotContext.getBeanDefinitionNames());
+            A a = snapshotContext.getBean("a", A.class);
+            B b = snapshotContext.getBean("b", B.class);
+            Assert.assertSame(b, a.getB());
+            Assert.assertSame(a, b.getA());
+            Assert.assertNotSame(A.class, a.getClass());
+
+            // 快照损坏（或者校验和不一致）时完整加载并重新保存
+            Files.write(snapshotFile.toPath(), new byte[]{1, 2, 3});
+            RecordingApplicationStartup rebuildStartup = new RecordingApplicationStartup();
+            snapshotContext(snapshotFile, rebuildStartup);
+            Assert.assertTrue(hasStep(rebuildStartup, "beans.xml.load"));
+            Assert.assertTrue(snapshotFile.length() > 3);
+        } finally {
+            snapshotFile.delete();
+        }
+    }
+
+    private ClassPathXmlApplicationContext snapshotContext(File snapshotFile, RecordingApplicationStartup startup) {
+        ClassPathXmlApplicationContext applicationContext = new ClassPathXmlApplicationContext();
+        applicationContext.setConfigLocations("classpath:scan.xml");
+        applicationContext.setBeanDefinitionSnapshotFile(snapshotFile);
+        applicationContext.setApplicationStartup(startup);
+        applicationContext.refresh();
+        return applicationContext;
+    }
+
+    private boolean hasStep(RecordingApplicationStartup startup, String name) {
+        return startup.getSteps().stream().anyMatch(step -> name.equals(step.getName()));
+    }
+
+    /**
+     * 组件索引：classpath 中有 META-INF/small-spring.components 时只注册索引中的组件，beanName 和作用域来自索引
+     */
+    @Test
+    public void testComponentIndex() throws Exception {
+        Path indexRoot = Files.createTempDirectory("component-index");
+        Path indexFile = indexRoot.resolve("META-INF/small-spring.components");
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, ("# generated by small-spring-indexer\n"
+                + "cn.itnxd.springframework.bean.Encoder=indexedEncoder,pooled\n"
+                + "cn.itnxd.springframework.bean.Removed=removed,\n"
+                + "cn.itnxd.springframework.other.Car=car,\n").getBytes(StandardCharsets.UTF_8));
+
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        thread.setContextClassLoader(new URLClassLoader(new URL[]{indexRoot.toUri().toURL()}, original));
+        try {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            new ClassPathBeanDefinitionScanner(beanFactory).doScan("cn.itnxd.springframework.bean");
+            // 不在索引中的 car、已经不存在的类都不会注册
+            Assert.assertFalse(beanFactory.containsBeanDefinition("car"));
+            Assert.assertFalse(beanFactory.containsBeanDefinition("removed"));
+            BeanDefinition encoder = beanFactory.getBeanDefinition("indexedEncoder");
+            Assert.assertSame(Encoder.class, encoder.getBeanClass());
+            Assert.assertTrue(encoder.isPooled());
+            Assert.assertEquals(2, encoder.getPoolConfig().getMaxTotal());
+
+            // 关闭索引则遍历 classpath 扫描
+            System.setProperty("small-spring.index.ignore", "true");
+            beanFactory = new DefaultListableBeanFactory();
+            new ClassPathBeanDefinitionScanner(beanFactory).doScan("cn.itnxd.springframework.bean");
+            Assert.assertTrue(beanFactory.containsBeanDefinition("car"));
+            Assert.assertTrue(beanFactory.containsBeanDefinition("encoder"));
+        } finally {
+            System.clearProperty("small-spring.index.ignore");
+            thread.setContextClassLoader(original);
+        }
+    }
+
+    /**
+     * 扫描时解析 class 文件判断是否是组件，只加载候选组件
+     */
+    @Test
+    public void testClassMetadataScanning() throws Exception {
+        byte[] classFile;
+        try (InputStream is = Encoder.class.getResourceAsStream("Encoder.class")) {
+            classFile = IoUtil.readBytes(is);
+        }
+        ClassMetadata metadata = ClassMetadataReader.read(classFile);
+        Assert.assertEquals(Encoder.class.getName(), metadata.getClassName());
+        Assert.assertEquals("java.lang.Object", metadata.getSuperClassName());
+        Assert.assertTrue(metadata.getInterfaceNames().contains("cn.itnxd.springframework.beans.factory.PoolableBean"));
+        Assert.assertTrue(metadata.isConcrete());
+        Assert.assertTrue(metadata.hasAnnotation("cn.itnxd.springframework.stereotype.Component"));
+        Assert.assertEquals("pooled", metadata.getAnnotationAttributes("cn.itnxd.springframework.context.annotation.Scope").get("value"));
+        Map<String, Object> pooled = metadata.getAnnotationAttributes("cn.itnxd.springframework.context.annotation.Pooled");
+        Assert.assertEquals(2, pooled.get("maxTotal"));
+        Assert.assertEquals(100L, pooled.get("maxWaitMillis"));
+        Assert.assertFalse(pooled.containsKey("validateOnBorrow"));
+
+        // 由单独的类加载器加载测试 bean，记录扫描过程中加载了哪些类
+        Set<String> loaded = Collections.synchronizedSet(new TreeSet<>());
+        ClassLoader trackingClassLoader = trackingClassLoader(loaded);
+        Thread thread = Thread.currentThread();
+        ClassLoader original = thread.getContextClassLoader();
+        thread.setContextClassLoader(trackingClassLoader);
+        try {
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            new ClassPathBeanDefinitionScanner(beanFactory).doScan("cn.itnxd.springframework.bean");
+            Assert.assertTrue(beanFactory.containsBeanDefinition("car"));
+            Assert.assertTrue(beanFactory.getBeanDefinition("encoder").isPooled());
+            Assert.assertEquals(2, beanFactory.getBeanDefinition("encoder").getPoolConfig().getMaxTotal());
+            Assert.assertSame(trackingClassLoader, beanFactory.getBeanDefinition("car").getBeanClass().getClassLoader());
+        } finally {
+            thread.setContextClassLoader(original);
+        }
+        Assert.assertEquals(new TreeSet<>(Arrays.asList(
+                "cn.itnxd.springframework.bean.Car", "cn.itnxd.springframework.bean.Encoder")), loaded);
+    }
+
+    /**
+     * 由单独的类加载器加载测试 bean（cn.itnxd.springframework.bean 包），记录加载了哪些类
+     */
+    static ClassLoader trackingClassLoader(Set<String> loaded) {
+        URL testClasses = ApiTest.class.getProtectionDomain().getCodeSource().getLocation();
+        return new URLClassLoader(new URL[]{testClasses}, ApiTest.class.getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.startsWith("cn.itnxd.springframework.bean.")) {
+                    return super.loadClass(name, resolve);
+                }
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> clazz = findLoadedClass(name);
+                    if (clazz == null) {
+                        clazz = findClass(name);
+                        loaded.add(name);
+                    }
+                    return clazz;
+                }
+            }
+        };
+    }
+
+    /**
+     * StAX 流式读取器与 dom4j 读取器解析得到的 BeanDefinition 一致，多个配置文件并行解析后按顺序注册
+     */
+    @Test
+    public void testStaxXmlBeanDefinitionReader() throws Exception {
+        for (String location : new String[]{"classpath:spring.xml", "classpath:scan.xml", "classpath:lazy.xml",
+                "classpath:parallel.xml", "classpath:pooled.xml", "classpath:thread.xml"}) {
+            DefaultListableBeanFactory domFactory = new DefaultListableBeanFactory();
+            new XmlBeanDefinitionReader(domFactory).loadBeanDefinitions(location);
+            DefaultListableBeanFactory staxFactory = new DefaultListableBeanFactory();
+            new StaxXmlBeanDefinitionReader(staxFactory).loadBeanDefinitions(location);
+            Assert.assertEquals(location, describeBeanDefinitions(domFactory), describeBeanDefinitions(staxFactory));
+        }
+
+        Path scanXml = Files.createTempFile("component-scan", ".xml");
+        try {
+            // component-scan 写在 bean 之后：与 dom4j 读取器一致，先扫描再注册该文件中的 bean
+            Files.write(scanXml, ("<beans>\n"
+                    + "    <bean id=\"scannedCarUser\" class=\"cn.itnxd.springframework.bean.UserServiceImpl\">\n"
+                    + "        <property name=\"username\" value=\"car\"/>\n"
+                    + "    </bean>\n"
+                    + "    <component-scan base-package=\"cn.itnxd.springframework.bean\"/>\n"
+                    + "</beans>").getBytes(StandardCharsets.UTF_8));
+            DefaultListableBeanFactory singleDomFactory = new DefaultListableBeanFactory();
+            new XmlBeanDefinitionReader(singleDomFactory).loadBeanDefinitions(scanXml.toString());
+            DefaultListableBeanFactory singleStaxFactory = new DefaultListableBeanFactory();
+            new StaxXmlBeanDefinitionReader(singleStaxFactory).loadBeanDefinitions(scanXml.toString());
+            Assert.assertEquals(Arrays.asList(singleDomFactory.getBeanDefinitionNames()), Arrays.asList(singleStaxFactory.getBeanDefinitionNames()));
+
+            String[] locations = {"classpath:spring.xml", "classpath:parallel.xml", "classpath:thread.xml", scanXml.toString()};
+            DefaultListableBeanFactory domFactory = new DefaultListableBeanFactory();
+            new XmlBeanDefinitionReader(domFactory).loadBeanDefinitions(locations);
+            DefaultListableBeanFactory staxFactory = new DefaultListableBeanFactory();
+            new StaxXmlBeanDefinitionReader(staxFactory).loadBeanDefinitions(locations);
+            Assert.assertTrue(staxFactory.containsBeanDefinition("car"));
+            Assert.assertEquals(Arrays.asList(domFactory.getBeanDefinitionNames()), Arrays.asList(staxFactory.getBeanDefinitionNames()));
+            Assert.assertEquals(describeBeanDefinitions(domFactory), describeBeanDefinitions(staxFactory));
+
+            // 重复的 beanName 仍然报错
+            try {
+                new StaxXmlBeanDefinitionReader(new DefaultListableBeanFactory())
+                        .loadBeanDefinitions(new String[]{"classpath:scan.xml", "classpath:lazy.xml"});
+                Assert.fail();
+            } catch (BeansException e) {
+                Assert.assertTrue(e.getMessage().contains("不能重复"));
+            }
+        } finally {
+            Files.delete(scanXml);
+        }
+    }
+
+    private Map<String, String> describeBeanDefinitions(DefaultListableBeanFactory beanFactory) {
+        Map<String, String> descriptions = new HashMap<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            StringBuilder description = new StringBuilder()
+                    .append(beanDefinition.getBeanClassName())
+                    .append(' ').append(beanDefinition.getScope())
+                    .append(' ').append(beanDefinition.isLazyInit())
+                    .append(' ').append(beanDefinition.isScopedProxy())
+                    .append(' ').append(beanDefinition.getInitMethodName())
+                    .append(' ').append(beanDefinition.getDestroyMethodName());
+            if (beanDefinition.isPooled()) {
+                description.append(' ').append(beanDefinition.getPoolConfig().getMaxTotal());
+            }
+            for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+                Object value = propertyValue.getValue();
+                description.append(' ').append(propertyValue.getName()).append('=')
+                        .append(value instanceof BeanReference ? "ref:" + ((BeanReference) value).getBeanName() : value);
+            }
+            descriptions.put(beanName, description.toString());
+        }
+        return descriptions;
+    }
+
+    /**
+     * BeanDefinition 只保存类名：按类型查找、判断类型都不会加载类，创建 bean 时才加载
+     */
+    @Test
+    public void testLazyBeanClassResolution() throws Exception {
+        Path xml = Files.createTempFile("lazy-class", ".xml");
+        Set<String> loaded = Collections.synchronizedSet(new TreeSet<>());
+        try {
+            Files.write(xml, ("<beans>\n"
+                    + "    <bean id=\"car\" class=\"cn.itnxd.springframework.bean.Car\"/>\n"
+                    + "    <bean id=\"userService\" class=\"cn.itnxd.springframework.bean.UserServiceImpl\" lazyInit=\"true\">\n"
+                    + "        <property name=\"username\" value=\"itnxd\"/>\n"
+                    + "    </bean>\n"
+                    + "    <bean class=\"cn.itnxd.springframework.bean.Engine\" lazyInit=\"true\"/>\n"
+                    + "    <bean id=\"missing\" class=\"cn.itnxd.springframework.bean.Missing\" lazyInit=\"true\"/>\n"
+                    + "</beans>").getBytes(StandardCharsets.UTF_8));
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            beanFactory.setBeanClassLoader(trackingClassLoader(loaded));
+            new StaxXmlBeanDefinitionReader(beanFactory).loadBeanDefinitions(xml.toString());
+            Assert.assertTrue(loaded.isEmpty());
+            Assert.assertFalse(beanFactory.getBeanDefinition("engine").hasBeanClass());
+
+            beanFactory.preInstantiateSingletons();
+            Assert.assertArrayEquals(new String[]{"userService"}, beanFactory.getBeanNamesForType(UserService.class));
+            // 类不存在的 bean 只按类名匹配，获取时才报错
+            Assert.assertEquals(Arrays.asList("car", "userService", "engine"), Arrays.asList(beanFactory.getBeanNamesForType(Object.class)));
+            Assert.assertTrue(beanFactory.isTypeMatch("userService", UserService.class));
+            Assert.assertFalse(beanFactory.isTypeMatch("engine", UserService.class));
+            Assert.assertEquals(Collections.singleton("cn.itnxd.springframework.bean.Car"), loaded);
+
+            // 直接通过 BeanDefinition 使用默认类加载器加载的类不会被缓存，容器仍然使用自己的类加载器
+            Assert.assertSame(UserServiceImpl.class, beanFactory.getBeanDefinition("userService").getBeanClass());
+            Assert.assertFalse(beanFactory.getBeanDefinition("userService").hasBeanClass());
+
+            Object userService = beanFactory.getBean("userService");
+            Assert.assertTrue(loaded.contains("cn.itnxd.springframework.bean.UserServiceImpl"));
+            Assert.assertSame(beanFactory.getBeanClassLoader(), userService.getClass().getClassLoader());
+            try {
+                beanFactory.getBean("missing");
+                Assert.fail();
+            } catch (BeansException e) {
+                Assert.assertTrue(e.getMessage().contains("不存在"));
+            }
+        } finally {
+            Files.delete(xml);
+        }
+    }
+
+    /**
+     * BeanPostProcessor 处理链：只调用重写了对应方法的处理器，supportsBeanType 为 false 的处理器不参与该类 bean 的创建
+     */
+    @Test
+    public void testBeanPostProcessorPipeline() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AtomicInteger carProcessorCalls = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+                @Override
+                public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                    carProcessorCalls.incrementAndGet();
+                    return bean;
+                }
+
+                @Override
+                public boolean supportsBeanType(Class<?> beanClass) {
+                    return Car.class.isAssignableFrom(beanClass);
+                }
+            });
+        }
+        List<String> calls = new ArrayList<>();
+        AtomicBoolean recording = new AtomicBoolean(true);
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (recording.get()) calls.add("after-1:" + beanName);
+                return bean;
+            }
+        });
+        beanFactory.addBeanPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (recording.get()) calls.add("before-2:" + beanName);
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (recording.get()) calls.add("after-2:" + beanName);
+                return bean;
+            }
+        });
+
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+
+        beanFactory.getBean("engine");
+        Assert.assertEquals(0, carProcessorCalls.get());
+        Assert.assertEquals(Arrays.asList("before-2:engine", "after-1:engine", "after-2:engine"), calls);
+
+        beanFactory.getBean("car");
+        Assert.assertEquals(100, carProcessorCalls.get());
+
+        // 直接调用时按 bean 实例的类选择处理链
+        calls.clear();
+        beanFactory.applyBeanPostProcessorsBeforeInitialization(new Car(), "manual");
+        Assert.assertEquals(200, carProcessorCalls.get());
+        Assert.assertEquals(Collections.singletonList("before-2:manual"), calls);
+
+        recording.set(false);
+        for (int i = 0; i < 100; i++) {
+            beanFactory.getBean("engine");
+        }
+        Assert.assertEquals(200, carProcessorCalls.get());
+    }
+
+    /**
+     * 注入点按类缓存：包括父类的字段，@Value 只解析一次，类型转换服务变化时重新解析；没有注入点的类不参与处理器
+     */
+    @Test
+    public void testInjectionMetadata() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autowiredProcessor);
+        AtomicInteger resolveCount = new AtomicInteger();
+        beanFactory.addEmbeddedValueResolver(value -> {
+            resolveCount.incrementAndGet();
+            return value.replace("${username}", "itnxd").replace("${wheels}", "6");
+        });
+
+        BeanDefinition truckDefinition = new BeanDefinition(Truck.class);
+        truckDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("truck", truckDefinition);
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+
+        Assert.assertTrue(autowiredProcessor.supportsBeanType(Truck.class));
+        Assert.assertFalse(autowiredProcessor.supportsBeanType(Engine.class));
+
+        Truck first = beanFactory.getBean("truck", Truck.class);
+        Truck second = beanFactory.getBean("truck", Truck.class);
+        // 父类的注入点
+        Assert.assertEquals("itnxd", first.getOwner());
+        Assert.assertNotNull(first.getEngine());
+        Assert.assertNotSame(first.getEngine(), second.getEngine());
+        Assert.assertEquals(6, first.getWheels());
+        Assert.assertSame(beanFactory.getBean("car"), second.getTrailer());
+        // 两个 @Value 注入点各解析一次
+        Assert.assertEquals(2, resolveCount.get());
+
+        beanFactory.setConversionService(new DefaultConversionService());
+        Assert.assertEquals(6, beanFactory.getBean("truck", Truck.class).getWheels());
+        Assert.assertEquals(4, resolveCount.get());
+
+        for (int i = 0; i < 100; i++) {
+            beanFactory.getBean("truck");
+        }
+        Assert.assertEquals(4, resolveCount.get());
+
+        // 转换结果可变（AtomicLong）时每个实例单独转换，不共享同一个对象
+        BeanDefinition odometerDefinition = new BeanDefinition(Odometer.class);
+        odometerDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("odometer", odometerDefinition);
+        beanFactory.setConversionService(null);
+        Odometer odometer = beanFactory.getBean("odometer", Odometer.class);
+        odometer.getMileage().incrementAndGet();
+        Assert.assertEquals(0, beanFactory.getBean("odometer", Odometer.class).getMileage().get());
+    }
+
+    /**
+     * 构造器解析：按参数类型选择构造器、@Autowired 构造器注入，解析结果按 BeanDefinition 缓存在容器中
+     */
+    @Test
+    public void testConstructorResolution() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.addEmbeddedValueResolver(value -> value.replace("${capacity}", "12"));
+        BeanDefinition garageDefinition = new BeanDefinition(Garage.class);
+        garageDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("garage", garageDefinition);
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+
+        // @Autowired 构造器
+        Garage garage = beanFactory.getBean("garage", Garage.class);
+        Assert.assertEquals("default", garage.getName());
+        Assert.assertNotNull(garage.getEngine());
+        Assert.assertSame(beanFactory.getBean("car"), garage.getCar());
+        Assert.assertEquals(12, garage.getCapacity());
+        Assert.assertNotSame(garage.getEngine(), beanFactory.getBean("garage", Garage.class).getEngine());
+
+        // 参数个数相同时按类型选择
+        Assert.assertEquals(5, ((Garage) beanFactory.getBean("garage", "small", 5)).getCapacity());
+        Car car = new Car();
+        Assert.assertSame(car, ((Garage) beanFactory.getBean("garage", "big", car)).getCar());
+        try {
+            beanFactory.getBean("garage", "small", "5");
+            Assert.fail("没有类型转换服务时不能匹配");
+        } catch (BeansException e) {
+            Assert.assertTrue(rootMessage(e).contains("没有与参数"));
+        }
+        // 通过类型转换服务转换参数
+        beanFactory.setConversionService(new DefaultConversionService());
+        Assert.assertEquals(5, ((Garage) beanFactory.getBean("garage", "small", "5")).getCapacity());
+        Assert.assertEquals(6, ((Garage) beanFactory.getBean("garage", "small", "6")).getCapacity());
+
+        // 换了类之后缓存的构造器计划不再使用
+        garageDefinition.setBeanClass(Engine.class);
+        Assert.assertTrue(beanFactory.getBean("garage") instanceof Engine);
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e.getMessage();
+    }
+
+    /**
+     * 创建完成的单例（包括单例 FactoryBean 的产品）走快速路径，单例被替换时缓存失效
+     */
+    @Test
+    public void testSingletonFastPath() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(EngineFactoryBean.class));
+        BeanDefinition prototypeFactory = new BeanDefinition(EngineFactoryBean.class);
+        prototypeFactory.getPropertyValues().addPropertyValue(new PropertyValue("singleton", false));
+        beanFactory.registerBeanDefinition("prototypeEngine", prototypeFactory);
+
+        Object car = beanFactory.getBean("car");
+        Assert.assertSame(car, beanFactory.getBean("car"));
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        Assert.assertEquals("factory-1", engine.getModel());
+        Assert.assertSame(engine, beanFactory.getBean("engine"));
+        // 非单例 FactoryBean 每次调用 getObject
+        Assert.assertNotSame(beanFactory.getBean("prototypeEngine"), beanFactory.getBean("prototypeEngine"));
+
+        // 替换单例后不再返回旧的对象
+        Car replacement = new Car();
+        beanFactory.addSingleton("car", replacement);
+        Assert.assertSame(replacement, beanFactory.getBean("car"));
+        EngineFactoryBean factoryBean = new EngineFactoryBean();
+        beanFactory.addSingleton("engine", factoryBean);
+        Assert.assertEquals("factory-1", beanFactory.getBean("engine", Engine.class).getModel());
+        Assert.assertEquals(1, factoryBean.getObjectCount());
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(replacement, beanFactory.getBean("car"));
+            beanFactory.getBean("engine");
+        }
+        Assert.assertEquals(1, factoryBean.getObjectCount());
+    }
+
+    /**
+     * ObjectProvider：绑定名称或者类型，单例缓存、原型直接创建，容器变化后重新解析；可以通过 @Autowired 注入
+     */
+    @Test
+    public void testObjectProvider() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        AutowiredAnnotationBeanPostProcessor autowiredProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredProcessor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autowiredProcessor);
+        beanFactory.registerBeanDefinition("car", new BeanDefinition(Car.class));
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        beanFactory.registerBeanDefinition("dashboard", new BeanDefinition(Dashboard.class));
+
+        ObjectProvider<Car> carProvider = beanFactory.getBeanProvider("car", Car.class);
+        Car car = carProvider.getObject();
+        Assert.assertSame(beanFactory.getBean("car"), car);
+        Assert.assertSame(car, carProvider.getObject());
+        ObjectProvider<Engine> engineProvider = beanFactory.getBeanProvider(Engine.class);
+        Assert.assertNotSame(engineProvider.getObject(), engineProvider.getObject());
+
+        // 没有匹配的 bean
+        ObjectProvider<Garage> garageProvider = beanFactory.getBeanProvider(Garage.class);
+        Assert.assertNull(garageProvider.getIfAvailable());
+        Assert.assertEquals(0, garageProvider.stream().count());
+        Assert.assertNull(beanFactory.getBeanProvider("garage", Garage.class).getIfAvailable());
+
+        // 容器变化后重新解析
+        Car replacement = new Car();
+        beanFactory.addSingleton("car", replacement);
+        Assert.assertSame(replacement, carProvider.getObject());
+        beanFactory.registerBeanDefinition("spareEngine", new BeanDefinition(Engine.class));
+        Assert.assertNull(engineProvider.getIfUnique());
+        Assert.assertEquals(2, engineProvider.stream().count());
+        try {
+            engineProvider.getIfAvailable();
+            Assert.fail("有多个 Engine 时不能获取唯一的 bean");
+        } catch (BeansException e) {
+            Assert.assertTrue(e.getMessage().contains("spareEngine"));
+        }
+
+        // @Autowired 字段和构造器参数
+        Dashboard dashboard = beanFactory.getBean("dashboard", Dashboard.class);
+        Assert.assertSame(replacement, dashboard.getCar().getObject());
+        Assert.assertEquals(2, dashboard.getEngines().stream().count());
+
+    }
+
+    /**
+     * 一个 bean 同时应用多个 advisor，按注册顺序组成拦截器链；每个方法的拦截器链只匹配一次
+     */
+    @Test
+    public void testAdvisorChain() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autoProxyCreator);
+        registerAdvisor(beanFactory, "metrics", "execution(* cn.itnxd.springframework.bean.Engine.*(..))");
+        registerAdvisor(beanFactory, "caching", "execution(* cn.itnxd.springframework.bean.Engine.get*(..))");
+        registerAdvisor(beanFactory, "security", "execution(* cn.itnxd.springframework.bean.Engine.start(..))");
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+
+        RecordingInterceptor.CALLS.clear();
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        engine.start();
+        engine.getModel();
+        engine.stop();
+        Assert.assertEquals(Arrays.asList("metrics:start", "security:start", "metrics:getModel", "caching:getModel", "metrics:stop"),
+                RecordingInterceptor.CALLS);
+
+        // 拦截器链按方法缓存
+        AtomicInteger matchCount = new AtomicInteger();
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut("execution(* cn.itnxd.springframework.bean.Engine.*(..))");
+        PointcutAdvisor countingAdvisor = new PointcutAdvisor() {
+            @Override
+            public Pointcut getPointcut() {
+                return new Pointcut() {
+                    @Override
+                    public ClassFilter getClassFilter() {
+                        return pointcut;
+                    }
+
+                    @Override
+                    public MethodMatcher getMethodMatcher() {
+                        return (method, targetClass) -> {
+                            matchCount.incrementAndGet();
+                            return pointcut.matches(method, targetClass);
+                        };
+                    }
+                };
+            }
+
+            @Override
+            public Advice getAdvice() {
+                return (MethodInterceptor) MethodInvocation::proceed;
+            }
+        };
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(new Engine()));
+        advisedSupport.addAdvisor(countingAdvisor);
+        Method start = Engine.class.getMethod("start");
+        Assert.assertEquals(1, advisedSupport.getInterceptors(start, Engine.class).length);
+        Assert.assertSame(advisedSupport.getInterceptors(start, Engine.class), advisedSupport.getInterceptors(start, Engine.class));
+        Assert.assertEquals(1, matchCount.get());
+    }
+
+    @Test
+    public void testStaticPointcutDecisions() throws Exception {
+        RecordingInterceptor security = new RecordingInterceptor();
+        security.setName("security");
+
+        // cglib 代理：创建代理时匹配切点，不需要增强的方法直接转发给目标对象
+        AtomicInteger matchCount = new AtomicInteger();
+        AdvisedSupport cglibAdvised = new AdvisedSupport();
+        cglibAdvised.setTargetSource(new TargetSource(new Engine("V8", 400)));
+        cglibAdvised.setProxyTargetClass(true);
+        cglibAdvised.addAdvisor(countingAdvisor("execution(* cn.itnxd.springframework.bean.Engine.start(..))", matchCount, security));
+        Engine engine = (Engine) new ProxyFactory(cglibAdvised).getProxy();
+        int matchesAtCreation = matchCount.get();
+        Assert.assertTrue(matchesAtCreation > 0);
+
+        RecordingInterceptor.CALLS.clear();
+        engine.start();
+        Assert.assertEquals("V8", engine.getModel());
+        Assert.assertTrue(engine.isStarted());
+        engine.stop();
+        Assert.assertFalse(engine.isStarted());
+        Assert.assertEquals(Collections.singletonList("security:start"), RecordingInterceptor.CALLS);
+        // 拦截器链在创建代理时已经计算好，调用时不再匹配
+        Assert.assertEquals(matchesAtCreation, matchCount.get());
+
+        // jdk 代理：创建代理时计算好每个接口方法的拦截器链，调用时不再匹配
+        AtomicInteger jdkMatchCount = new AtomicInteger();
+        AdvisedSupport jdkAdvised = new AdvisedSupport();
+        jdkAdvised.setTargetSource(new TargetSource(new UserServiceImpl()));
+        jdkAdvised.addAdvisor(countingAdvisor("execution(* cn.itnxd.springframework.bean.UserServiceImpl.getId(..))", jdkMatchCount, security));
+        UserService userService = (UserService) new ProxyFactory(jdkAdvised).getProxy();
+        Assert.assertEquals(1, jdkMatchCount.get());
+        userService.getUserInfo();
+        userService.getUserInfo();
+        Assert.assertEquals(1, jdkMatchCount.get());
+        Assert.assertEquals(Collections.singletonList("security:start"), RecordingInterceptor.CALLS);
+
+        // 不同容器中切面相同的 bean 共用同一个代理类
+        ClassPathXmlApplicationContext first = new ClassPathXmlApplicationContext("classpath:spring.xml");
+        ClassPathXmlApplicationContext second = new ClassPathXmlApplicationContext("classpath:spring.xml");
+        Object firstUserService = first.getBean("userService");
+        Object secondUserService = second.getBean("userService");
+        Assert.assertNotSame(firstUserService, secondUserService);
+        Assert.assertTrue(firstUserService.getClass().getName().contains("$$"));
+        Assert.assertSame(firstUserService.getClass(), secondUserService.getClass());
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testAutoProxyCreatorCache() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setInstantiationStrategy(new SimpleInstantiationStrategy());
+        DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autoProxyCreator);
+        registerAdvisor(beanFactory, "metrics", "execution(* cn.itnxd.springframework.bean.Engine.start(..))", CountingPointcutAdvisor.class);
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        BeanDefinition carDefinition = new BeanDefinition(Car.class);
+        carDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("car", carDefinition);
+
+        // 原型 bean 每次创建都要判断是否代理：第一次创建时匹配类过滤器、生成代理类、计算拦截器链，之后不再匹配
+        RecordingInterceptor.CALLS.clear();
+        beanFactory.getBean("engine", Engine.class).start();
+        Assert.assertSame(Car.class, beanFactory.getBean("car").getClass());
+        int classMatches = CountingPointcutAdvisor.CLASS_MATCHES.get();
+        for (int i = 0; i < 100; i++) {
+            beanFactory.getBean("engine", Engine.class).start();
+            Assert.assertSame(Car.class, beanFactory.getBean("car").getClass());
+        }
+        Assert.assertEquals(101, RecordingInterceptor.CALLS.size());
+        Assert.assertEquals(classMatches, CountingPointcutAdvisor.CLASS_MATCHES.get());
+
+        // 注册新的 advisor 后缓存失效，之后创建的 bean 应用新的 advisor
+        registerAdvisor(beanFactory, "security", "execution(* cn.itnxd.springframework.bean.Engine.stop(..))", CountingPointcutAdvisor.class);
+        RecordingInterceptor.CALLS.clear();
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        engine.start();
+        engine.stop();
+        beanFactory.getBean("car");
+        Assert.assertEquals(Arrays.asList("metrics:start", "security:stop"), RecordingInterceptor.CALLS);
+        classMatches = CountingPointcutAdvisor.CLASS_MATCHES.get();
+        beanFactory.getBean("engine", Engine.class).stop();
+        beanFactory.getBean("car");
+        Assert.assertEquals(classMatches, CountingPointcutAdvisor.CLASS_MATCHES.get());
+    }
+
+    @Test
+    public void testCglibProxyClassCache() {
+        PointcutAdvisor advisor = countingAdvisor("execution(* cn.itnxd.springframework.bean.Engine.start(..))",
+                new AtomicInteger(), (MethodInterceptor) MethodInvocation::proceed);
+        // 与自动代理一致，同一个类的代理共享拦截器链
+        Map<Method, MethodInterceptor[]> methodCache = new ConcurrentHashMap<>();
+        Engine first = createEngineProxy(advisor, new Engine("first", 1), methodCache);
+        Assert.assertEquals("first", first.getModel());
+
+        // 相同目标类、相同 advisor 的代理共用一个代理类，每个代理转发给自己的目标对象
+        for (int i = 0; i < 1_000; i++) {
+            Engine proxy = createEngineProxy(advisor, new Engine(null, i), methodCache);
+            Assert.assertSame(first.getClass(), proxy.getClass());
+            Assert.assertEquals(i, proxy.getPower());
+        }
+
+        // 原型 bean 通过容器自动代理
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autoProxyCreator);
+        registerAdvisor(beanFactory, "metrics", "execution(* cn.itnxd.springframework.bean.Engine.start(..))");
+        BeanDefinition engineDefinition = new BeanDefinition(Engine.class);
+        engineDefinition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("engine", engineDefinition);
+        Class<?> proxyClass = beanFactory.getBean("engine").getClass();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(proxyClass, beanFactory.getBean("engine").getClass());
+        }
+    }
+
+    static Engine createEngineProxy(PointcutAdvisor advisor, Engine target, Map<Method, MethodInterceptor[]> methodCache) {
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(target));
+        advisedSupport.addAdvisor(advisor);
+        advisedSupport.setMethodCache(methodCache);
+        advisedSupport.setProxyTargetClass(true);
+        return (Engine) new ProxyFactory(advisedSupport).getProxy();
+    }
+
+    @Test
+    public void testPointcutPrimitives() throws Exception {
+        AspectJExpressionPointcut within = new AspectJExpressionPointcut("within(cn.itnxd.springframework.bean.Engine)");
+        Assert.assertTrue(within.matches(Engine.class));
+        Assert.assertFalse(within.matches(Car.class));
+        Assert.assertTrue(within.matches(Engine.class.getMethod("start"), Engine.class));
+
+        AspectJExpressionPointcut annotation = new AspectJExpressionPointcut("@annotation(cn.itnxd.springframework.bean.Audited)");
+        Assert.assertTrue(annotation.matches(Engine.class.getMethod("stop"), Engine.class));
+        Assert.assertFalse(annotation.matches(Engine.class.getMethod("start"), Engine.class));
+
+        // args 只按参数的声明类型静态匹配
+        AspectJExpressionPointcut args = new AspectJExpressionPointcut("execution(* cn.itnxd.springframework.bean.UserServiceImpl.*(..)) && args(java.lang.String)");
+        Assert.assertTrue(args.matches(UserServiceImpl.class.getMethod("setId", String.class), UserServiceImpl.class));
+        Assert.assertFalse(args.matches(UserServiceImpl.class.getMethod("getId"), UserServiceImpl.class));
+        Assert.assertFalse(args.matches(UserServiceImpl.class.getMethod("setSuccess", Boolean.class), UserServiceImpl.class));
+
+        // 自动代理只增强标注了注解的方法
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        DefaultAdvisorAutoProxyCreator autoProxyCreator = new DefaultAdvisorAutoProxyCreator();
+        autoProxyCreator.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(autoProxyCreator);
+        registerAdvisor(beanFactory, "audit", "@annotation(cn.itnxd.springframework.bean.Audited)");
+        beanFactory.registerBeanDefinition("engine", new BeanDefinition(Engine.class));
+        RecordingInterceptor.CALLS.clear();
+        Engine engine = beanFactory.getBean("engine", Engine.class);
+        engine.start();
+        engine.stop();
+        Assert.assertEquals(Collections.singletonList("audit:stop"), RecordingInterceptor.CALLS);
+
+        // 多个线程同时解析、匹配共享同一个解析器的切点
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String methodName = i % 2 == 0 ? "start" : "stop" + i;
+            futures.add(executor.submit(() -> {
+                AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut("execution(* cn.itnxd.springframework.bean.Engine." + methodName + "(..))");
+                return pointcut.matches(Engine.class) && pointcut.matches(Engine.class.getMethod("start"), Engine.class);
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            Assert.assertEquals(i % 2 == 0, futures.get(i).get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * 统计方法匹配次数的 advisor
+     * @param expression
+     * @param matchCount
+     * @param advice
+     * @return
+     */
+    static PointcutAdvisor countingAdvisor(String expression, AtomicInteger matchCount, Advice advice) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut(expression);
+        Pointcut countingPointcut = new Pointcut() {
+            @Override
+            public ClassFilter getClassFilter() {
+                return pointcut;
+            }
+
+            @Override
+            public MethodMatcher getMethodMatcher() {
+                return (method, targetClass) -> {
+                    matchCount.incrementAndGet();
+                    return pointcut.matches(method, targetClass);
+                };
+            }
+        };
+        return new PointcutAdvisor() {
+            @Override
+            public Pointcut getPointcut() {
+                return countingPointcut;
+            }
+
+            @Override
+            public Advice getAdvice() {
+                return advice;
+            }
+        };
+    }
+
+    static void registerAdvisor(DefaultListableBeanFactory beanFactory, String name, String expression) {
+        registerAdvisor(beanFactory, name, expression, AspectJExpressionPointcutAdvisor.class);
+    }
+
+    static void registerAdvisor(DefaultListableBeanFactory beanFactory, String name, String expression,
+                                Class<? extends AspectJExpressionPointcutAdvisor> advisorClass) {
+        BeanDefinition interceptor = new BeanDefinition(RecordingInterceptor.class);
+        interceptor.getPropertyValues().addPropertyValue(new PropertyValue("name", name));
+        beanFactory.registerBeanDefinition(name + "Interceptor", interceptor);
+        BeanDefinition advisor = new BeanDefinition(advisorClass);
+        advisor.getPropertyValues().addPropertyValue(new PropertyValue("expression", expression));
+        advisor.getPropertyValues().addPropertyValue(new PropertyValue("advice", new BeanReference(name + "Interceptor")));
+        beanFactory.registerBeanDefinition(name + "Advisor", advisor);
+    }
+}
@@ -0,0 +1,28 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Lazy;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 19:40
+ * @Version 1.0
+ * @Description 依赖了很少使用的 bean
+ */
+public class AdminConsole {
+
+    @Autowired
+    @Lazy
+    private ReportGenerator reportGenerator;
+
+    @Autowired
+    private UserService userService;
+
+    public ReportGenerator getReportGenerator() {
+        return reportGenerator;
+    }
+
+    public UserService getUserService() {
+        return userService;
+    }
+}
@@ -0,0 +1,17 @@
+package cn.itnxd.springframework.bean;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 03:30
+ * @Version 1.0
+ * @Description 标记需要审计的方法，用于 @annotation 切点
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Audited {
+}
@@ -0,0 +1,32 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Qualifier;
+import cn.itnxd.springframework.beans.factory.ObjectProvider;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 01:50
+ * @Version 1.0
+ * @Description 通过 ObjectProvider 获取依赖的 bean
+ */
+public class Dashboard {
+
+    private final ObjectProvider<Car> car;
+
+    @Autowired
+    private ObjectProvider<Engine> engines;
+
+    @Autowired
+    public Dashboard(@Qualifier("car") ObjectProvider<Car> car) {
+        this.car = car;
+    }
+
+    public ObjectProvider<Car> getCar() {
+        return car;
+    }
+
+    public ObjectProvider<Engine> getEngines() {
+        return engines;
+    }
+}
@@ -0,0 +1,27 @@
+package cn.itnxd.springframework.bean;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:58
+ * @Version 1.0
+ * @Description 构造器依赖 Workshop 的 bean，与 Workshop 构成构造器循环依赖
+ */
+public class Depot {
+
+    private final SlowInitBean slowInitBean;
+
+    private final Workshop workshop;
+
+    public Depot(SlowInitBean slowInitBean, Workshop workshop) {
+        this.slowInitBean = slowInitBean;
+        this.workshop = workshop;
+    }
+
+    public SlowInitBean getSlowInitBean() {
+        return slowInitBean;
+    }
+
+    public Workshop getWorkshop() {
+        return workshop;
+    }
+}
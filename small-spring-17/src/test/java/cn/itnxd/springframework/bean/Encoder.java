@@ -0,0 +1,57 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.factory.DisposableBean;
+import cn.itnxd.springframework.beans.factory.PoolableBean;
+import cn.itnxd.springframework.context.annotation.Pooled;
+import cn.itnxd.springframework.context.annotation.Scope;
+import cn.itnxd.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 17:40
+ * @Version 1.0
+ * @Description 创建成本高且线程不安全的 bean，放在对象池中复用
+ */
+@Component
+@Scope("pooled")
+@Pooled(minIdle = 1, maxIdle = 2, maxTotal = 2, maxWaitMillis = 100)
+public class Encoder implements PoolableBean, DisposableBean {
+
+    public static final AtomicInteger CREATED_COUNT = new AtomicInteger();
+
+    public static final AtomicInteger DESTROYED_COUNT = new AtomicInteger();
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    private boolean broken;
+
+    public Encoder() {
+        CREATED_COUNT.incrementAndGet();
+    }
+
+    public String encode(String text) {
+        buffer.append('[').append(text).append(']');
+        return buffer.toString();
+    }
+
+    public void setBroken(boolean broken) {
+        this.broken = broken;
+    }
+
+    @Override
+    public boolean validate() {
+        return !broken;
+    }
+
+    @Override
+    public void passivate() {
+        buffer.setLength(0);
+    }
+
+    @Override
+    public void destroy() {
+        DESTROYED_COUNT.incrementAndGet();
+    }
+}
@@ -0,0 +1,45 @@
+package cn.itnxd.springframework.bean;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 14:45
+ * @Version 1.0
+ * @Description 拥有有参构造器的 bean
+ */
+public class Engine {
+
+    private String model;
+
+    private int power;
+
+    private boolean started;
+
+    public Engine() {
+    }
+
+    public Engine(String model, int power) {
+        this.model = model;
+        this.power = power;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public int getPower() {
+        return power;
+    }
+
+    public void start() {
+        this.started = true;
+    }
+
+    @Audited
+    public void stop() {
+        this.started = false;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+}
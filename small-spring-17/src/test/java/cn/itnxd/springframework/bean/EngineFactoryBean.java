@@ -0,0 +1,36 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.factory.FactoryBean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 01:00
+ * @Version 1.0
+ * @Description 生产 Engine 的工厂 bean，记录 getObject 的调用次数
+ */
+public class EngineFactoryBean implements FactoryBean<Engine> {
+
+    private final AtomicInteger objectCount = new AtomicInteger();
+
+    private boolean singleton = true;
+
+    @Override
+    public Engine getObject() {
+        return new Engine("factory-" + objectCount.incrementAndGet(), 100);
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return singleton;
+    }
+
+    public void setSingleton(boolean singleton) {
+        this.singleton = singleton;
+    }
+
+    public int getObjectCount() {
+        return objectCount.get();
+    }
+}
@@ -0,0 +1,58 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Qualifier;
+import cn.itnxd.springframework.beans.annotation.Value;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:57
+ * @Version 1.0
+ * @Description 通过构造器注入的不可变 bean
+ */
+public class Garage {
+
+    private final String name;
+
+    private final Engine engine;
+
+    private final Car car;
+
+    private final int capacity;
+
+    @Autowired
+    public Garage(Engine engine, @Qualifier("car") Car car, @Value("${capacity}") int capacity) {
+        this("default", engine, car, capacity);
+    }
+
+    public Garage(String name, int capacity) {
+        this(name, null, null, capacity);
+    }
+
+    public Garage(String name, Car car) {
+        this(name, null, car, 0);
+    }
+
+    private Garage(String name, Engine engine, Car car, int capacity) {
+        this.name = name;
+        this.engine = engine;
+        this.car = car;
+        this.capacity = capacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,21 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.annotation.Value;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 15:40
+ * @Version 1.0
+ * @Description 注入的值转换为可变对象，每个实例需要各自的对象
+ */
+public class Odometer {
+
+    @Value("0")
+    private AtomicLong mileage;
+
+    public AtomicLong getMileage() {
+        return mileage;
+    }
+}
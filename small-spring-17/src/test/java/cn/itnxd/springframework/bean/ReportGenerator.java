@@ -0,0 +1,22 @@
+package cn.itnxd.springframework.bean;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 19:40
+ * @Version 1.0
+ * @Description 很少使用、创建成本高的 bean
+ */
+public class ReportGenerator {
+
+    public static final AtomicInteger CREATED_COUNT = new AtomicInteger();
+
+    public ReportGenerator() {
+        CREATED_COUNT.incrementAndGet();
+    }
+
+    public String generate(String name) {
+        return "report: " + name;
+    }
+}
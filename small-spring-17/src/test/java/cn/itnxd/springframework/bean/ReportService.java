@@ -0,0 +1,20 @@
+package cn.itnxd.springframework.bean;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 18:45
+ * @Version 1.0
+ * @Description 注入了 thread 作用域 bean 的单例
+ */
+public class ReportService {
+
+    private ThreadFormatter formatter;
+
+    public String report(long millis) {
+        return "report at " + formatter.format(millis);
+    }
+
+    public ThreadFormatter getFormatter() {
+        return formatter;
+    }
+}
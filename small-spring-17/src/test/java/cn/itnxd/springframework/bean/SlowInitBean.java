@@ -0,0 +1,74 @@
+package cn.itnxd.springframework.bean;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 10:12
+ * @Version 1.0
+ * @Description 初始化方法比较耗时的 bean，并统计被创建的次数，用于多线程测试
+ */
+public class SlowInitBean {
+
+    public static final AtomicInteger CREATED_COUNT = new AtomicInteger();
+
+    private SlowInitBean other;
+
+    private long initMillis = 50;
+
+    private volatile boolean inited;
+
+    // 初始化方法开始、结束的时间（System.nanoTime）
+    private volatile long initStartNanos;
+
+    private volatile long initEndNanos;
+
+    public SlowInitBean() {
+        CREATED_COUNT.incrementAndGet();
+    }
+
+    public void init() throws InterruptedException {
+        initStartNanos = System.nanoTime();
+        TimeUnit.MILLISECONDS.sleep(initMillis);
+        initEndNanos = System.nanoTime();
+        inited = true;
+    }
+
+    /**
+     * 两个 bean 的初始化方法是否有同时执行的时间段
+     * @param other
+     * @return
+     */
+    public boolean initOverlaps(SlowInitBean other) {
+        return initStartNanos < other.initEndNanos && other.initStartNanos < initEndNanos;
+    }
+
+    public long getInitStartNanos() {
+        return initStartNanos;
+    }
+
+    public long getInitEndNanos() {
+        return initEndNanos;
+    }
+
+    public boolean isInited() {
+        return inited;
+    }
+
+    public SlowInitBean getOther() {
+        return other;
+    }
+
+    public void setOther(SlowInitBean other) {
+        this.other = other;
+    }
+
+    public long getInitMillis() {
+        return initMillis;
+    }
+
+    public void setInitMillis(long initMillis) {
+        this.initMillis = initMillis;
+    }
+}
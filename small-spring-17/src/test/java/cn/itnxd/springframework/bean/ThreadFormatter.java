@@ -0,0 +1,39 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.factory.DisposableBean;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 18:45
+ * @Version 1.0
+ * @Description 线程不安全的格式化器，每个线程一个
+ */
+public class ThreadFormatter implements DisposableBean {
+
+    public static final AtomicInteger CREATED_COUNT = new AtomicInteger();
+
+    public static final AtomicInteger DESTROYED_COUNT = new AtomicInteger();
+
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+    public ThreadFormatter() {
+        CREATED_COUNT.incrementAndGet();
+    }
+
+    public String format(long millis) {
+        return dateFormat.format(new Date(millis));
+    }
+
+    public ThreadFormatter self() {
+        return this;
+    }
+
+    @Override
+    public void destroy() {
+        DESTROYED_COUNT.incrementAndGet();
+    }
+}
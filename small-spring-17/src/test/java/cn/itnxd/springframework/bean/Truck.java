@@ -0,0 +1,29 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Qualifier;
+import cn.itnxd.springframework.beans.annotation.Value;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:50
+ * @Version 1.0
+ * @Description 注入点一部分来自父类
+ */
+public class Truck extends Vehicle {
+
+    @Value("${wheels}")
+    private int wheels;
+
+    @Autowired
+    @Qualifier("car")
+    private Car trailer;
+
+    public int getWheels() {
+        return wheels;
+    }
+
+    public Car getTrailer() {
+        return trailer;
+    }
+}
@@ -0,0 +1,27 @@
+package cn.itnxd.springframework.bean;
+
+import cn.itnxd.springframework.beans.annotation.Autowired;
+import cn.itnxd.springframework.beans.annotation.Value;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:50
+ * @Version 1.0
+ * @Description 父类中声明了注入点
+ */
+public abstract class Vehicle {
+
+    @Value("${username}")
+    private String owner;
+
+    @Autowired
+    private Engine engine;
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+}
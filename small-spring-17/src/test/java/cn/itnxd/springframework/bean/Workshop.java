@@ -0,0 +1,27 @@
+package cn.itnxd.springframework.bean;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 23:58
+ * @Version 1.0
+ * @Description 构造器依赖 Depot 的 bean，与 Depot 构成构造器循环依赖
+ */
+public class Workshop {
+
+    private final SlowInitBean slowInitBean;
+
+    private final Depot depot;
+
+    public Workshop(SlowInitBean slowInitBean, Depot depot) {
+        this.slowInitBean = slowInitBean;
+        this.depot = depot;
+    }
+
+    public SlowInitBean getSlowInitBean() {
+        return slowInitBean;
+    }
+
+    public Depot getDepot() {
+        return depot;
+    }
+}
@@ -0,0 +1,43 @@
+package cn.itnxd.springframework.interceptor;
+
+import cn.itnxd.springframework.aop.ClassFilter;
+import cn.itnxd.springframework.aop.MethodMatcher;
+import cn.itnxd.springframework.aop.Pointcut;
+import cn.itnxd.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 02:50
+ * @Version 1.0
+ * @Description 统计类过滤器匹配次数的 advisor
+ */
+public class CountingPointcutAdvisor extends AspectJExpressionPointcutAdvisor {
+
+    public static final AtomicInteger CLASS_MATCHES = new AtomicInteger();
+
+    private Pointcut countingPointcut;
+
+    @Override
+    public Pointcut getPointcut() {
+        if (countingPointcut == null) {
+            Pointcut pointcut = super.getPointcut();
+            countingPointcut = new Pointcut() {
+                @Override
+                public ClassFilter getClassFilter() {
+                    return clazz -> {
+                        CLASS_MATCHES.incrementAndGet();
+                        return pointcut.getClassFilter().matches(clazz);
+                    };
+                }
+
+                @Override
+                public MethodMatcher getMethodMatcher() {
+                    return pointcut.getMethodMatcher();
+                }
+            };
+        }
+        return countingPointcut;
+    }
+}
@@ -0,0 +1,30 @@
+package cn.itnxd.springframework.interceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/19 02:10
+ * @Version 1.0
+ * @Description 记录调用顺序的拦截器
+ */
+public class RecordingInterceptor implements MethodInterceptor {
+
+    public static final List<String> CALLS = new CopyOnWriteArrayList<>();
+
+    private String name;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CALLS.add(name + ":" + invocation.getMethod().getName());
+        return invocation.proceed();
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
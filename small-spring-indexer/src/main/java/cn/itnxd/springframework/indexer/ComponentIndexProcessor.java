@@ -0,0 +1,145 @@
+package cn.itnxd.springframework.indexer;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 21:10
+ * @Version 1.0
+ * @Description 编译期生成组件索引的注解处理器
+ *
+ * 编译时收集所有标注了 @Component 的非抽象类，写入 META-INF/small-spring.components，每行一个组件：
+ *      类的二进制名称=beanName,作用域
+ * 作用域没有标注 @Scope 时为空。容器扫描包时读取索引，不再遍历 classpath 加载每个类
+ *
+ * 1、按注解的全限定名匹配，不依赖 small-spring 本身
+ * 2、增量编译时只处理变化的类，已有索引中的其他条目保留
+ */
+@SupportedAnnotationTypes(ComponentIndexProcessor.COMPONENT_ANNOTATION)
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/small-spring.components";
+
+    static final String COMPONENT_ANNOTATION = "cn.itnxd.springframework.stereotype.Component";
+
+    static final String SCOPE_ANNOTATION = "cn.itnxd.springframework.context.annotation.Scope";
+
+    // 类名 -> beanName,作用域，按类名排序保证输出稳定
+    private final Map<String, String> entries = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    TypeElement type = (TypeElement) element;
+                    String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+                    entries.put(className, determineBeanName(type) + "," + annotationValue(type, SCOPE_ANNOTATION, ""));
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !entries.isEmpty()) {
+            writeIndex();
+        }
+        // 不声明独占注解，其他处理器仍然可以处理 @Component
+        return false;
+    }
+
+    /**
+     * 与 ClassPathBeanDefinitionScanner 的规则一致：@Component 的值，为空则为类名首字母小写
+     * @param type
+     * @return
+     */
+    private String determineBeanName(TypeElement type) {
+        String value = annotationValue(type, COMPONENT_ANNOTATION, "");
+        if (!value.isEmpty()) {
+            return value;
+        }
+        String simpleName = type.getSimpleName().toString();
+        return Character.toLowerCase(simpleName.charAt(0)) + simpleName.substring(1);
+    }
+
+    /**
+     * 读取注解的 value 属性
+     * @param type
+     * @param annotationName
+     * @param defaultValue 没有该注解或者没有设置 value 时返回
+     * @return
+     */
+    private String annotationValue(TypeElement type, String annotationName, String defaultValue) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            // 包含注解声明的默认值，例如 @Scope 不写 value 时为 singleton
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return String.valueOf(entry.getValue().getValue());
+                }
+            }
+            return defaultValue;
+        }
+        return defaultValue;
+    }
+
+    private void writeIndex() {
+        Filer filer = processingEnv.getFiler();
+        Map<String, String> index = new TreeMap<>(readExistingIndex(filer));
+        index.putAll(entries);
+        try {
+            FileObject file = filer.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# generated by small-spring-indexer\n");
+                for (Map.Entry<String, String> entry : index.entrySet()) {
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "写入组件索引 " + INDEX_LOCATION + " 失败：" + e);
+        }
+    }
+
+    /**
+     * 读取上一次编译生成的索引（增量编译），没有则为空
+     * @param filer
+     * @return
+     */
+    private Map<String, String> readExistingIndex(Filer filer) {
+        Map<String, String> existing = new TreeMap<>();
+        try {
+            FileObject file = filer.getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf('=');
+                    if (!line.startsWith("#") && separator > 0) {
+                        existing.put(line.substring(0, separator), line.substring(separator + 1));
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // 第一次编译，没有已有的索引
+        }
+        return existing;
+    }
+}
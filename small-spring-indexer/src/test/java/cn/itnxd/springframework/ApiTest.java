@@ -0,0 +1,82 @@
+package cn.itnxd.springframework;
+
+import cn.itnxd.springframework.indexer.ComponentIndexProcessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @Author niuxudong
+ * @Date 2026/10/18 21:30
+ * @Version 1.0
+ * @Description
+ */
+public class ApiTest {
+
+    /**
+     * 编译带有 @Component 的类，生成的索引中包含 beanName 和作用域，抽象类不在索引中
+     * @throws Exception
+     */
+    @Test
+    public void testComponentIndex() throws Exception {
+        Path sourceDir = Files.createTempDirectory("indexer-src");
+        Path outputDir = Files.createTempDirectory("indexer-out");
+        List<File> sources = new ArrayList<>();
+        sources.add(source(sourceDir, "cn/itnxd/springframework/stereotype/Component.java",
+                "package cn.itnxd.springframework.stereotype;\n"
+                        + "public @interface Component { String value() default \"\"; }\n"));
+        sources.add(source(sourceDir, "cn/itnxd/springframework/context/annotation/Scope.java",
+                "package cn.itnxd.springframework.context.annotation;\n"
+                        + "public @interface Scope { String value() default \"singleton\"; }\n"));
+        sources.add(source(sourceDir, "demo/UserDao.java",
+                "package demo;\n"
+                        + "@cn.itnxd.springframework.stereotype.Component\n"
+                        + "public class UserDao {}\n"));
+        sources.add(source(sourceDir, "demo/Encoder.java",
+                "package demo;\n"
+                        + "@cn.itnxd.springframework.stereotype.Component(\"fastEncoder\")\n"
+                        + "@cn.itnxd.springframework.context.annotation.Scope(\"prototype\")\n"
+                        + "public class Encoder {\n"
+                        + "    @cn.itnxd.springframework.stereotype.Component\n"
+                        + "    public static class Inner {}\n"
+                        + "}\n"));
+        sources.add(source(sourceDir, "demo/AbstractService.java",
+                "package demo;\n"
+                        + "@cn.itnxd.springframework.stereotype.Component\n"
+                        + "public abstract class AbstractService {}\n"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-d", outputDir.toString()), null, fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(Arrays.asList(new ComponentIndexProcessor()));
+            Assert.assertTrue(task.call());
+        }
+
+        List<String> lines = Files.readAllLines(outputDir.resolve(ComponentIndexProcessor.INDEX_LOCATION), StandardCharsets.UTF_8);
+        lines.forEach(System.out::println);
+        Assert.assertEquals(Arrays.asList(
+                "# generated by small-spring-indexer",
+                "demo.Encoder=fastEncoder,prototype",
+                "demo.Encoder$Inner=inner,",
+                "demo.UserDao=userDao,"), lines);
+    }
+
+    private File source(Path sourceDir, String path, String content) throws IOException {
+        Path file = sourceDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+}